@@ -7,11 +7,10 @@
  *  to calculate the investment growth into monthly subsets using said data; which is formatted and returnable
  *  as a String from the method invocation. The class also contains a overridden toString method which is used
  *  for the retrieval of the attribute data as a preformatted String, to optionally be used elsewhere for 
- *  basic displaying purposes (regardless of interface).
+ *  basic displaying purposes (regardless of interface). The projection is kept once it has been calculated (see the
+ *  getProjection method), and is only calculated again after the amount, interest rate or investment length has changed.
  */
 
-import java.text.NumberFormat;
-
 public class Account {
 	
 	// The following constants are used for formatting purposes by the calcInvestment method.
@@ -21,19 +20,28 @@ public class Account {
 	private static final String NEW_LINE = System.getProperty("line.separator");
 	private static final String SEPARATOR = "------------------" + NEW_LINE;
 	private static final String FORMAT_INTEREST_TITLE = "%s %12s";
-	private static final String FORMAT_INTEREST_BODY = "%02d %15s";
+	private static final String INVESTMENT_TITLE = HEADING_INVESTMENT + NEW_LINE + 
+		String.format(FORMAT_INTEREST_TITLE, COLUMN_INVESTMENT_WEEKS, COLUMN_INVESTMENT_BALANCE) + NEW_LINE + SEPARATOR;
+	private static final int COLUMN_BALANCE_WIDTH = 15;
+	private static final int ROW_LENGTH = 24;
+	private static final char ZERO = '0';
+	private static final char SPACE = ' ';
 	
 	// The following constants are used for formatting purposes by the toString method.
-	private static final NumberFormat CURRENCY_FORMAT = NumberFormat.getCurrencyInstance();
 	private static final String LABEL_WEEKLY_INVESTMENT = "Invested per week: ";
 	private static final String LABEL_INTEREST_RATE = "Interest rate: ";
 	private static final String LABEL_NUMBER_OF_WEEKS = "Number of weeks: ";
 	private static final String PERCENTAGE = "%";
 	
+	// The following constant is used for the error message.
+	private static final String ERROR_MONTH_RANGE = "Error: The month %d must be between 0 and %d.";
+	
 	// Instance attributes.
 	private double rate;
 	private int numberOfWeeks;
 	private double amount;
+	private ProjectionResult projection; // The projection of the current values (created when it is first required).
+	private boolean projectionCalculated;
 	
 	/**
 	* The default constructor. It chains with initial values to the second constructor.
@@ -63,7 +71,10 @@ public class Account {
 	}
 	
 	public void setRate(double rate) {
-		this.rate = rate;
+		if (Double.compare(rate, this.rate) != 0) {
+			this.rate = rate;
+			this.projectionCalculated = false;
+		}
 	}
 	
 	public double getRate() {
@@ -71,7 +82,10 @@ public class Account {
 	}
 	
 	public void setNumberOfWeeks(int numberOfWeeks) {
-		this.numberOfWeeks = numberOfWeeks;
+		if (numberOfWeeks != this.numberOfWeeks) {
+			this.numberOfWeeks = numberOfWeeks;
+			this.projectionCalculated = false;
+		}
 	}
 	
 	public int getNumberOfWeeks() {
@@ -79,48 +93,186 @@ public class Account {
 	}
 	
 	public void setAmount(double amount) {
-		this.amount = amount;
+		if (Double.compare(amount, this.amount) != 0) {
+			this.amount = amount;
+			this.projectionCalculated = false;
+		}
 	}
 	
 	public double getAmount() {
 		return this.amount;
 	}
 	
+	/**
+	* The calcProjection method calculates the monthly investment projections (based on the interest rate) for the duration of 
+	* the investment length in weeks, storing the numeric results into the received ProjectionResult. The result can be reused for 
+	* many projections, which avoids both the formatting of the calcInvestment method and the creation of new arrays. If a shared
+	* ProjectionCache has been set, the balances are copied from the cache instead. If shared Metrics have been set, the
+	* calculation is measured.
+	* @param result ProjectionResult - The result that receives the week and balance of each monthly row.
+	* @return ProjectionResult - The received result.
+	*/
+	public ProjectionResult calcProjection(ProjectionResult result) {
+		Metrics metrics = Metrics.getShared();
+		long start = 0, allocation = 0;
+		if (metrics != null) {
+			start = metrics.start();
+			allocation = metrics.startAllocation();
+		}
+		ProjectionCache cache = ProjectionCache.getShared();
+		if (this.getNumberOfWeeks() < 0) {
+			// A negative investment length doesn't have any rows.
+			result.setSize(0);
+		} else if (cache != null) {
+			cache.getProjection(this.getAmount(), this.getRate(), this.getNumberOfWeeks(), result);
+		} else {
+			InvestmentProjection.calcProjection(this.getAmount(), this.getRate(), this.getNumberOfWeeks(), result);
+		}
+		if (metrics != null) {
+			metrics.record(Metrics.Operation.CALC_PROJECTION, start, allocation);
+		}
+		return result;
+	}
+	
+	/**
+	* The calcProjection method calculates the monthly investment projections into a new ProjectionResult.
+	* @return ProjectionResult - The week and balance of each monthly row.
+	*/
+	public ProjectionResult calcProjection() {
+		return this.calcProjection(new ProjectionResult(Math.max(0, this.getNumberOfMonths())));
+	}
+	
+	/**
+	* The getProjection method retrieves the monthly investment projections of the account. The projection is calculated when it
+	* is first retrieved, and is then kept (reusing its arrays) until the amount, interest rate or investment length changes. The
+	* result belongs to the account, so it must not be changed.
+	* @return ProjectionResult - The week and balance of each monthly row.
+	*/
+	public ProjectionResult getProjection() {
+		if (!this.projectionCalculated) {
+			if (this.projection == null) {
+				this.projection = new ProjectionResult(Math.max(0, this.getNumberOfMonths()));
+			}
+			this.calcProjection(this.projection);
+			this.projectionCalculated = true;
+		}
+		return this.projection;
+	}
+	
 	/**
 	* The calcInvestment method is used to calculate the monthly investment projections (based on the interest rate)
-	* for the duration of the investment length in weeks. 
+	* for the duration of the investment length in weeks. The numbers are retrieved from the getProjection method, and are then
+	* formatted into the table. If a shared ProjectionCache has been set, the table is retrieved from the cache instead.
 	* @return String - It outputs a friendly String containing a text-based table showing the monthly groupings of the expected projection.
 	*/
 	public String calcInvestment() {
-		// Creates a StringBuilder object for building a returnable String.
-		StringBuilder builder = new StringBuilder();
-		// Appends the formatted output headings to the StringBuilder.
-		builder.append(HEADING_INVESTMENT + NEW_LINE);
-		builder.append(String.format(FORMAT_INTEREST_TITLE, COLUMN_INVESTMENT_WEEKS, COLUMN_INVESTMENT_BALANCE) + NEW_LINE);
-		builder.append(SEPARATOR);
-		double total = 0;
-		// The following will iterate for each week for the investmentLength.
-		for (int week = 1; week <= this.getNumberOfWeeks(); week++) {
-			// If the week modula by four is equal to zero (meaning that it has equaled to 4, 8, 12, 16 ...etc)
-			// then it will display total output for that monthly group of weeks. 
-			
-			// In the event that the investment length is not evenly divisible by four, then it will still perform 
-			// the following once the weeks variable is equal to the investment length and the division by four has a remainder.
-			if (((week % 4) == 0) || ((week == this.getNumberOfWeeks()) && ((week % 4) != 0))) {
-				// The following weeks variable will be for majority equal to four, but in the circumstance
-				// that an unevenly divisable investment length was given, then on the last iteration it will be the remainder.
-				int weeks = (((week % 4) == 0) ? 4 : (week % 4));
-				// The total is calculated by adding the previous running total with the investment and multiplying it by the weeks variable.
-				// This is then additionally multiplied by the interest rate (which is converted to a monthly rate) and divided by 100, 
-				// with 1 added to get it in the correct format. In the circumstance that the weeks do not equal to four, meaning it is the last
-				// week on the uneven investment length, then it won't have the interest rate applied and instead be set to 1 (being the amount the 
-				// total is multiplied, not the interest percentage).
-				total = (((total + this.getAmount() * weeks)) * ((weeks == 4) ? (((this.getRate() / 13)/ 100) + 1) : 1));
-				// Formats the weeks and the total in their corresponding columns. Appends the resulting String to the StringBuilder.
-				builder.append(String.format(FORMAT_INTEREST_BODY, week, CURRENCY_FORMAT.format(total)) + NEW_LINE);
+		ProjectionCache cache = ProjectionCache.getShared();
+		return (((cache != null) && (this.getNumberOfWeeks() >= 0)) ?
+			cache.getInvestment(this.getAmount(), this.getRate(), this.getNumberOfWeeks()) : formatInvestment(this.getProjection()));
+	}
+	
+	/**
+	* The static formatInvestment method is used to format a projection into a text-based table, containing a row for each
+	* monthly grouping with the week number and the balance at the end of that month.
+	* @param result ProjectionResult - The projection to be formatted.
+	* @return String - The text-based table.
+	*/
+	public static String formatInvestment(ProjectionResult result) {
+		// Creates a StringBuilder object (large enough for every row) for building a returnable String.
+		StringBuilder builder = new StringBuilder(INVESTMENT_TITLE.length() + (result.size() * ROW_LENGTH));
+		return appendInvestment(builder, result).toString(); // Returns a String
+	}
+	
+	/**
+	* The static appendInvestment method appends the text-based table of the projection to the received StringBuilder. Each row is 
+	* written directly into the builder (the week padded to two digits, and the balance right aligned in its column), without creating
+	* any intermediate Strings. If shared Metrics have been set, the formatting is measured.
+	* @param builder StringBuilder - The builder that receives the table.
+	* @param result ProjectionResult - The projection to be formatted.
+	* @return StringBuilder - The received builder.
+	*/
+	public static StringBuilder appendInvestment(StringBuilder builder, ProjectionResult result) {
+		Metrics metrics = Metrics.getShared();
+		long start = 0, allocation = 0;
+		if (metrics != null) {
+			start = metrics.start();
+			allocation = metrics.startAllocation();
+		}
+		appendRows(builder, result);
+		if (metrics != null) {
+			metrics.record(Metrics.Operation.APPEND_INVESTMENT, start, allocation);
+		}
+		return builder;
+	}
+	
+	/**
+	* The static appendRows method appends the headings and rows of the appendInvestment method.
+	* @param builder StringBuilder - The builder that receives the table.
+	* @param result ProjectionResult - The projection to be formatted.
+	* @return StringBuilder - The received builder.
+	*/
+	private static StringBuilder appendRows(StringBuilder builder, ProjectionResult result) {
+		CurrencyFormatter currency = CurrencyFormatter.getInstance();
+		// Appends the output headings to the StringBuilder.
+		builder.append(INVESTMENT_TITLE);
+		// Iterates for each monthly row.
+		for (int row = 0; row < result.size(); row++) {
+			// Appends the weeks and the total in their corresponding columns.
+			int week = result.getWeek(row);
+			if (week < 10) {
+				builder.append(ZERO);
 			}
+			builder.append(week);
+			builder.append(SPACE);
+			currency.append(builder, result.getBalance(row), COLUMN_BALANCE_WIDTH);
+			builder.append(NEW_LINE);
 		}
-		return builder.toString(); // Returns a String
+		return builder;
+	}
+	
+	/**
+	* The calcBalanceAtMonth method retrieves the balance at the end of a monthly row, without storing the previous rows. It is
+	* calculated month by month (the same as the table), so it is identical to the row shown by the calcInvestment method. If the
+	* month is the trailing partial month, then it will be the final balance of the investment.
+	* @param month int - The monthly row (starting from one). Zero will return a zero balance.
+	* @return double - The balance at the end of the month.
+	* @throws IllegalArgumentException - If the month is outside of the investment length.
+	*/
+	public double calcBalanceAtMonth(int month) {
+		if ((month < 0) || (month > this.getNumberOfMonths())) {
+			throw new IllegalArgumentException(String.format(ERROR_MONTH_RANGE, month, this.getNumberOfMonths()));
+		}
+		// If the month is after the last complete month, then it is the trailing partial month.
+		return (((month * InvestmentProjection.WEEKS_PER_MONTH) > this.getNumberOfWeeks()) ? this.calcFinalBalance() : 
+			InvestmentProjection.calcFinalBalance(this.getAmount(), this.getRate(), month * InvestmentProjection.WEEKS_PER_MONTH));
+	}
+	
+	/**
+	* The calcFinalBalance method retrieves the balance at the end of the investment length, without storing each month. It is
+	* calculated month by month, so it is identical to the last row of the table (whereas the closed form of the
+	* InvestmentProjection's calcBalance method can differ from it in the last few digits).
+	* @return double - The final balance.
+	*/
+	public double calcFinalBalance() {
+		return InvestmentProjection.calcFinalBalance(this.getAmount(), this.getRate(), this.getNumberOfWeeks());
+	}
+	
+	/**
+	* The calcBalances method retrieves the balance of every monthly row shown by the calcInvestment method.
+	* @return double[] - The balances, with one element for each monthly row.
+	*/
+	public double[] calcBalances() {
+		double[] balances = new double[this.getNumberOfMonths()];
+		InvestmentProjection.calcBalances(this.getAmount(), this.getRate(), this.getNumberOfWeeks(), balances);
+		return balances;
+	}
+	
+	/**
+	* The getNumberOfMonths method retrieves the amount of monthly rows for the investment length (including a partial month).
+	* @return int - The number of monthly rows.
+	*/
+	public int getNumberOfMonths() {
+		return InvestmentProjection.getNumberOfMonths(this.getNumberOfWeeks());
 	}
 	
 	/**
@@ -130,10 +282,18 @@ public class Account {
 	*/
 	public String toString() {
 		// Instantiates a StringBuilder which is used to concatenate the output.
-		StringBuilder builder = new StringBuilder();
+		return this.appendTo(new StringBuilder()).toString(); // Returns a String.
+	}
+	
+	/**
+	* The appendTo method appends the same text as the toString method to the received StringBuilder.
+	* @param builder StringBuilder - The builder that receives the text.
+	* @return StringBuilder - The received builder.
+	*/
+	public StringBuilder appendTo(StringBuilder builder) {
 		// The investment amount.
 		builder.append(LABEL_WEEKLY_INVESTMENT); 
-		builder.append(CURRENCY_FORMAT.format(this.getAmount())); // The amount formatted as a currency.
+		CurrencyFormatter.getInstance().append(builder, this.getAmount()); // The amount formatted as a currency.
 		builder.append(NEW_LINE); 
 		// The interest rate.
 		builder.append(LABEL_INTEREST_RATE); 
@@ -144,6 +304,6 @@ public class Account {
 		builder.append(LABEL_NUMBER_OF_WEEKS); 
 		builder.append(this.getNumberOfWeeks()); // The investment length.
 
-		return builder.toString(); // Returns a String.
+		return builder; // Returns the builder.
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,432 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is a non-interactive alternative to the CalculatorInterface. It reads a CSV file (or the standard input) with one
+ *  client per line, calculates the tax and the investment projections for each client, and writes the results out as CSV.
+ *  The lines are read and written one at a time (with the same Client and Account objects reused for every line), so the
+ *  memory used doesn't depend on the size of the file. The same validation as the CalculatorInterface is applied to each
+ *  line, and an invalid line is reported (with its line number) and skipped, rather than stopping the whole batch. Only the
+ *  final balance of each investment is calculated (without the monthly table), and the investment length is limited to the
+ *  same maximum as the interactive program.
+ *
+ *  Input columns:  name, income, resident (Yes/No), weekly expenses [, amount, rate, weeks [, amount, rate, weeks]]
+ *  Output columns: see the OUTPUT_HEADING constant.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+
+public class BatchProcessor {
+
+	// The following constants are used for reading and writing the CSV.
+	private static final char SEPARATOR = ',';
+	private static final String NEW_LINE = System.getProperty("line.separator");
+	private static final String INPUT_HEADING = "name";
+	private static final String STANDARD_INPUT = "-";
+	private static final String OPTION_REPORT = "--report";
+	private static final String OPTION_COMPACT = "--compact";
+	private static final String OPTION_SAVE = "--save";
+	private static final String OUTPUT_HEADING = "name,income,resident,tax,medicare,netSalary,weeklyNetSalary,weeklyTax,"
+		+ "weeklyExpenses,availableFunds,account1Balance,account2Balance";
+	private static final String RESIDENT_YES = "Yes";
+	private static final String RESIDENT_NO = "No";
+	private static final String RESIDENT_TRUE = "true";
+	private static final String RESIDENT_FALSE = "false";
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAXIMUM_COLUMNS = 10;
+	private static final int INVESTMENT_COLUMNS = 3;
+	private static final int CLIENT_COLUMNS = 4;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_LINE = "Error: Line %d: %s";
+	private static final String ERROR_COLUMNS = "Expected 4, 7 or 10 columns.";
+	private static final String ERROR_NOT_NUMERIC = "The %s must be a numeric value.";
+	private static final String ERROR_NOT_INTEGER = "The %s must be an integer value.";
+	private static final String ERROR_NOT_POSITIVE = "The %s must be a positive number (and greater than zero).";
+	private static final String ERROR_RESIDENT = "The resident column must be either Yes or No.";
+	private static final String ERROR_EXPENDITURE = "The living expenditure is more than the weekly net salary.";
+	private static final String ERROR_INTEREST_RATE = "The interest rate must be between 1 and 100.";
+	private static final String ERROR_INVESTMENT = "The investments exceed the available funds.";
+	private static final String ERROR_MAXIMUM_WEEKS = "The %s can't be more than %d weeks.";
+	private static final String ERROR_TOO_LARGE = "The amounts are too large to be calculated.";
+	private static final String ERROR_READ = "Error: Unable to read the batch file: %s";
+	private static final String SUMMARY = "Processed %d lines (%d errors).";
+	private static final String SUMMARY_TOTALS = "Employees: %d%nInvalid lines: %d%nTotal income: %.2f%nTotal tax: %.2f%n"
+		+ "Total medicare: %.2f%nTotal net salary: %.2f%nTotal projected investments: %.2f%nElapsed: %d ms%n";
+	private static final long NANOS_PER_MILLISECOND = 1000000;
+	private static final String[] COLUMN_NAMES = {"name", "income", "resident", "weekly expenses",
+		"investment amount", "interest rate", "investment length", "investment amount", "interest rate", "investment length"};
+
+	// Instance attributes.
+	private final Client client;
+	private final Account account1, account2;
+	private final StringBuilder builder;
+	private final int[] columnStarts, columnEnds;
+	private ReportSink report;
+	private ClientRecordWriter records;
+	private String error;
+	private long lines;
+	private long errors;
+
+	/**
+	* The default constructor. It creates the Client and Account objects that are reused for every line.
+	*/
+	public BatchProcessor() {
+		this.client = new Client();
+		this.account1 = new Account();
+		this.account2 = new Account();
+		this.builder = new StringBuilder();
+		this.columnStarts = new int[MAXIMUM_COLUMNS];
+		this.columnEnds = new int[MAXIMUM_COLUMNS];
+	}
+
+	public long getLines() {
+		return this.lines;
+	}
+
+	public long getErrors() {
+		return this.errors;
+	}
+
+	/**
+	* The setReport method sets an optional sink, which receives the Client and Account results of every valid line (such as
+	* a statement file for the whole batch), in addition to the CSV output.
+	* @param report ReportSink - The sink, or null for none.
+	*/
+	public void setReport(ReportSink report) {
+		this.report = report;
+	}
+
+	public ReportSink getReport() {
+		return this.report;
+	}
+
+	/**
+	* The setRecords method sets an optional writer, which saves every valid client (with its accounts and calculated tax)
+	* into a client record file, so the batch can be reloaded without being calculated again.
+	* @param records ClientRecordWriter - The writer, or null for none.
+	*/
+	public void setRecords(ClientRecordWriter records) {
+		this.records = records;
+	}
+
+	public ClientRecordWriter getRecords() {
+		return this.records;
+	}
+
+	/**
+	* The process method reads every line from the input, and writes the results of each valid line to the output. An optional
+	* heading line (starting with "name") is skipped. A line whose results are too large to be written in cents is reported the
+	* same as an invalid line. The output isn't flushed, which is left to the caller.
+	* @param input BufferedReader - The CSV input.
+	* @param output Writer - The CSV output.
+	* @param errorOutput PrintStream - Receives an error message for each invalid line.
+	* @throws IOException - If the input couldn't be read, or the output couldn't be written.
+	*/
+	public void process(BufferedReader input, Writer output, PrintStream errorOutput) throws IOException {
+		output.write(OUTPUT_HEADING);
+		output.write(NEW_LINE);
+		long lineNumber = 0;
+		String line;
+		while ((line = input.readLine()) != null) {
+			lineNumber++;
+			// Skips the heading, and any empty lines.
+			if (line.isEmpty() || ((lineNumber == 1) && line.regionMatches(true, 0, INPUT_HEADING, 0, INPUT_HEADING.length()))) {
+				continue;
+			}
+			this.lines++;
+			this.builder.setLength(0);
+			boolean valid;
+			try {
+				valid = this.processLine(line);
+			} catch (ArithmeticException ex) {
+				// The Money class can't hold the amount in cents (such as an income of 1e18).
+				this.error = ERROR_TOO_LARGE;
+				valid = false;
+			}
+			if (valid) {
+				output.append(this.builder);
+			} else {
+				this.errors++;
+				errorOutput.println(String.format(ERROR_LINE, lineNumber, this.error));
+			}
+		}
+	}
+
+	/**
+	* The processLine method separates the line into its columns, validates them, and appends the results to the builder.
+	* @param line String - The line.
+	* @return boolean - Whether the line was valid. If it isn't, then the error attribute contains the reason.
+	* @throws IOException - If the results couldn't be written to the report.
+	*/
+	private boolean processLine(String line) throws IOException {
+		int columns = this.splitColumns(line);
+		if ((columns != CLIENT_COLUMNS) && (columns != (CLIENT_COLUMNS + INVESTMENT_COLUMNS))
+				&& (columns != (CLIENT_COLUMNS + (2 * INVESTMENT_COLUMNS)))) {
+			this.error = ERROR_COLUMNS;
+			return false;
+		}
+		// Reads the client's columns.
+		double income = this.parsePositive(line, 1);
+		String resident = this.column(line, 2);
+		double expenses = this.parsePositive(line, 3);
+		if ((income != income) || (expenses != expenses)) {
+			return false;
+		}
+		this.client.setName(this.column(line, 0));
+		this.client.setGrossSalary(income);
+		this.client.setResident(RESIDENT_YES.equalsIgnoreCase(resident) || RESIDENT_TRUE.equalsIgnoreCase(resident));
+		if (!(this.client.getResident() || RESIDENT_NO.equalsIgnoreCase(resident) || RESIDENT_FALSE.equalsIgnoreCase(resident))) {
+			this.error = ERROR_RESIDENT;
+			return false;
+		}
+		// The tax, medicare and net salary are calculated by the client when they are first retrieved (below). Since the client is
+		// reused, they are only calculated again when the income or residency differs from the previous line.
+		// Validates the living expenditure (the same as the livingExpenditure method of the CalculatorInterface).
+		this.client.setWeeklyExpenses(expenses);
+		if (this.client.getWeeklyExpenses() > this.client.getWeeklyNetSalary()) {
+			this.error = ERROR_EXPENDITURE;
+			return false;
+		}
+		// Reads the investments, if there are any.
+		Account first = ((columns > CLIENT_COLUMNS) ? this.parseAccount(line, CLIENT_COLUMNS, this.account1) : null);
+		Account second = ((columns > (CLIENT_COLUMNS + INVESTMENT_COLUMNS)) ?
+			this.parseAccount(line, CLIENT_COLUMNS + INVESTMENT_COLUMNS, this.account2) : null);
+		if (((columns > CLIENT_COLUMNS) && (first == null)) || ((columns > (CLIENT_COLUMNS + INVESTMENT_COLUMNS)) && (second == null))) {
+			return false;
+		}
+		double invested = (((first != null) ? first.getAmount() : 0) + ((second != null) ? second.getAmount() : 0));
+		if (invested > this.client.getAvailableFunds()) {
+			this.error = ERROR_INVESTMENT;
+			return false;
+		}
+		this.appendResult(first, second);
+		if (this.report != null) {
+			this.report.writeClient(this.client);
+			if (first != null) {
+				this.report.writeAccount(first);
+			}
+			if (second != null) {
+				this.report.writeAccount(second);
+			}
+		}
+		if (this.records != null) {
+			this.client.setAccount1(first);
+			this.client.setAccount2(second);
+			this.records.write(this.client);
+		}
+		return true;
+	}
+
+	/**
+	* The appendResult method appends the output columns of the current client to the builder. The final balance of each account
+	* is calculated directly (the same value as the last row of its table), so the memory used doesn't depend on its length.
+	* @param first Account - The first account, or null if there isn't one.
+	* @param second Account - The second account, or null if there isn't one.
+	*/
+	private void appendResult(Account first, Account second) {
+		StringBuilder line = this.builder;
+		line.append(this.client.getName()).append(SEPARATOR);
+		Money.append(line, this.client.getGrossSalary()).append(SEPARATOR);
+		line.append((this.client.getResident()) ? RESIDENT_YES : RESIDENT_NO).append(SEPARATOR);
+		Money.append(line, this.client.getTax()).append(SEPARATOR);
+		Money.append(line, this.client.getMedicare()).append(SEPARATOR);
+		Money.append(line, this.client.getNetSalary()).append(SEPARATOR);
+		Money.append(line, this.client.getWeeklyNetSalary()).append(SEPARATOR);
+		Money.append(line, this.client.getWeeklyTax()).append(SEPARATOR);
+		Money.append(line, this.client.getWeeklyExpenses()).append(SEPARATOR);
+		Money.append(line, this.client.getAvailableFunds()).append(SEPARATOR);
+		if (first != null) {
+			Money.append(line, InvestmentProjection.calcFinalBalance(first.getAmount(), first.getRate(), first.getNumberOfWeeks()));
+		}
+		line.append(SEPARATOR);
+		if (second != null) {
+			Money.append(line, InvestmentProjection.calcFinalBalance(second.getAmount(), second.getRate(), second.getNumberOfWeeks()));
+		}
+		line.append(NEW_LINE);
+	}
+
+	/**
+	* The parseAccount method reads the amount, rate and length of an investment into the received account, and validates them
+	* (the same as the createAccount method of the CalculatorInterface).
+	* @param line String - The line.
+	* @param column int - The column of the investment amount.
+	* @param account Account - The account that receives the values.
+	* @return Account - The received account, or null if the investment is invalid.
+	*/
+	private Account parseAccount(String line, int column, Account account) {
+		double amount = this.parsePositive(line, column);
+		double rate = this.parsePositive(line, column + 1);
+		double weeks = this.parsePositive(line, column + 2);
+		if ((amount != amount) || (rate != rate) || (weeks != weeks)) {
+			return null;
+		}
+		if (!(rate >= 1 && rate <= 100)) {
+			this.error = ERROR_INTEREST_RATE;
+			return null;
+		}
+		if (weeks != Math.floor(weeks)) {
+			this.error = String.format(ERROR_NOT_INTEGER, COLUMN_NAMES[column + 2]);
+			return null;
+		}
+		if (weeks > InvestmentProjection.MAXIMUM_WEEKS) {
+			this.error = String.format(ERROR_MAXIMUM_WEEKS, COLUMN_NAMES[column + 2], InvestmentProjection.MAXIMUM_WEEKS);
+			return null;
+		}
+		account.setAmount(amount);
+		account.setRate(rate);
+		account.setNumberOfWeeks((int)weeks);
+		return account;
+	}
+
+	/**
+	* The parsePositive method converts a column into a number that is greater than zero.
+	* @param line String - The line.
+	* @param column int - The column.
+	* @return double - The number, or NaN if the column isn't a positive number (in which case the error attribute is set).
+	*/
+	private double parsePositive(String line, int column) {
+		double value;
+		try {
+			value = Double.parseDouble(this.column(line, column));
+		} catch (NumberFormatException ex) {
+			this.error = String.format(ERROR_NOT_NUMERIC, COLUMN_NAMES[column]);
+			return Double.NaN;
+		}
+		if (!(value > 0) || Double.isInfinite(value)) {
+			this.error = String.format(ERROR_NOT_POSITIVE, COLUMN_NAMES[column]);
+			return Double.NaN;
+		}
+		return value;
+	}
+
+	/**
+	* The splitColumns method finds the start and end of each column, without creating a String for each column.
+	* @param line String - The line.
+	* @return int - The amount of columns, or -1 if there are too many.
+	*/
+	private int splitColumns(String line) {
+		int columns = 0;
+		int start = 0;
+		while (true) {
+			int end = line.indexOf(SEPARATOR, start);
+			if (columns == MAXIMUM_COLUMNS) {
+				return -1;
+			}
+			this.columnStarts[columns] = start;
+			this.columnEnds[columns++] = ((end < 0) ? line.length() : end);
+			if (end < 0) {
+				return columns;
+			}
+			start = end + 1;
+		}
+	}
+
+	/**
+	* The column method retrieves the trimmed text of a column.
+	* @param line String - The line.
+	* @param column int - The column.
+	* @return String - The text of the column.
+	*/
+	private String column(String line, int column) {
+		return line.substring(this.columnStarts[column], this.columnEnds[column]).trim();
+	}
+
+	/**
+	* The run method is the starting point of the batch mode. It reads from the file named by the first argument (or the
+	* standard input if there isn't one, or it is "-"), and writes the results to the standard output. The report option
+	* also writes the results of every client to the named file (in the text layout, or the compact layout if the compact
+	* option is given), and the save option saves every client into the named client record file. A summary is shown on the
+	* standard error once the batch has completed.
+	* @param args String[] - The arguments following the batch option.
+	*/
+	public static void run(String[] args) {
+		String inputName = STANDARD_INPUT, reportName = null, saveName = null;
+		ReportWriter.Format format = ReportWriter.Format.TEXT;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals(OPTION_REPORT) && ((i + 1) < args.length)) {
+				reportName = args[++i];
+			} else if (args[i].equals(OPTION_SAVE) && ((i + 1) < args.length)) {
+				saveName = args[++i];
+			} else if (args[i].equals(OPTION_COMPACT)) {
+				format = ReportWriter.Format.COMPACT;
+			} else {
+				inputName = args[i];
+			}
+		}
+		BatchProcessor processor = new BatchProcessor();
+		try (InputStream stream = ((!inputName.equals(STANDARD_INPUT)) ? new FileInputStream(inputName) : System.in);
+				BufferedReader input = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+				ReportWriter report = ((reportName != null) ? ReportWriter.open(Paths.get(reportName), format) : null);
+				ClientRecordWriter records = ((saveName != null) ? new ClientRecordWriter(Paths.get(saveName)) : null)) {
+			Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+			processor.setReport(report);
+			processor.setRecords(records);
+			try {
+				processor.process(input, output, System.err);
+			} finally {
+				// The lines that were already processed are written, even if the batch fails.
+				output.flush();
+			}
+		} catch (IOException ex) {
+			System.err.println(String.format(ERROR_READ, ex.getMessage()));
+		}
+		System.err.println(String.format(SUMMARY, processor.getLines(), processor.getErrors()));
+	}
+
+	/**
+	* The summarise method is the starting point of the summary mode. It reads the file named by the first argument with the
+	* MappedPayrollReader (parsing the file in parallel, directly from the mapped bytes), calculates every record, and displays
+	* the payroll totals. It is intended for files that are too large to be processed line by line.
+	* @param args String[] - The arguments following the summary option.
+	*/
+	public static void summarise(String[] args) {
+		if (args.length == 0) {
+			System.err.println(String.format(ERROR_READ, STANDARD_INPUT));
+			return;
+		}
+		MappedPayrollReader reader = new MappedPayrollReader(Paths.get(args[0]));
+		DoubleAdder income = new DoubleAdder(), tax = new DoubleAdder(), medicare = new DoubleAdder();
+		DoubleAdder netSalary = new DoubleAdder(), investments = new DoubleAdder();
+		long start = System.nanoTime();
+		try {
+			// Each batch has already been calculated (and its invalid records removed) by the reader.
+			reader.read(ForkJoinPool.commonPool(), records -> {
+				// Totals the batch locally, before adding it to the shared totals.
+				double batchIncome = 0, batchTax = 0, batchMedicare = 0, batchNetSalary = 0, batchInvestments = 0;
+				for (int i = 0; i < records.size(); i++) {
+					batchIncome += records.getGrossSalary(i);
+					batchTax += records.getTax(i);
+					batchMedicare += records.getMedicare(i);
+					batchNetSalary += records.getNetSalary(i);
+					for (int investment = 0; investment < records.getInvestments(i); investment++) {
+						batchInvestments += records.getBalance(i, investment);
+					}
+				}
+				income.add(batchIncome);
+				tax.add(batchTax);
+				medicare.add(batchMedicare);
+				netSalary.add(batchNetSalary);
+				investments.add(batchInvestments);
+			});
+		} catch (IOException ex) {
+			System.err.println(String.format(ERROR_READ, ex.getMessage()));
+			return;
+		}
+		System.out.printf(SUMMARY_TOTALS, reader.getRecords(), reader.getInvalidLines(), income.sum(), tax.sum(), medicare.sum(),
+			netSalary.sum(), investments.sum(), (System.nanoTime() - start) / NANOS_PER_MILLISECOND);
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to project many investments (each with its own weekly amount and interest rate) over the same investment
+ *  length at once, such as when analysing thousands of scenarios. Rather than iterating the months of one account at a time,
+ *  the accounts are stored in primitive arrays and each month is applied to a block of accounts in a simple loop, which the
+ *  JIT compiler turns into SIMD instructions (processing several accounts in each instruction). The same calculation is
+ *  performed in the same order as the InvestmentProjection class, so the balances are identical to the Account's table.
+ */
+
+public class BulkProjection {
+
+	// The amount of accounts processed together, which keeps the working arrays within the CPU cache.
+	private static final int BLOCK_SIZE = 512;
+	private static final int WEEKS_PER_MONTH = InvestmentProjection.WEEKS_PER_MONTH;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_NEGATIVE_WEEKS = "Error: The number of weeks can't be negative.";
+	private static final String ERROR_ARRAY_LENGTH = "Error: The %s array must have at least %d elements.";
+	private static final String ERROR_RANGE = "Error: The start %d must be between zero and the end %d.";
+
+	/**
+	* The constructor is private, since the class only contains static methods.
+	*/
+	private BulkProjection() {
+	}
+
+	/**
+	* The calcFinalBalances method calculates the final balance of every account.
+	* @param amount double[] - The amount invested each week, for each account.
+	* @param rate double[] - The annual interest rate percentage, for each account.
+	* @param numberOfWeeks int - The investment length (shared by every account).
+	* @param balances double[] - The array that receives the final balance of each account.
+	* @throws IllegalArgumentException - If the number of weeks is negative, or an array is too short.
+	*/
+	public static void calcFinalBalances(double[] amount, double[] rate, int numberOfWeeks, double[] balances) {
+		calcFinalBalances(amount, rate, numberOfWeeks, balances, 0, amount.length);
+	}
+
+	/**
+	* The calcFinalBalances method calculates the final balance of the accounts from the start index up to (but not including)
+	* the end index.
+	* @param amount double[] - The amount invested each week, for each account.
+	* @param rate double[] - The annual interest rate percentage, for each account.
+	* @param numberOfWeeks int - The investment length (shared by every account).
+	* @param balances double[] - The array that receives the final balance of each account.
+	* @param start int - The first account.
+	* @param end int - The end of the accounts.
+	* @throws IllegalArgumentException - If the number of weeks is negative, the start isn't between zero and the end, or an
+	* array is too short.
+	*/
+	public static void calcFinalBalances(double[] amount, double[] rate, int numberOfWeeks, double[] balances, int start, int end) {
+		if ((start < 0) || (start > end)) {
+			throw new IllegalArgumentException(String.format(ERROR_RANGE, start, end));
+		}
+		validate(amount, rate, numberOfWeeks, end);
+		if (balances.length < end) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, "balances", end));
+		}
+		int fullMonths = numberOfWeeks / WEEKS_PER_MONTH;
+		int remainingWeeks = numberOfWeeks % WEEKS_PER_MONTH;
+		double[] deposit = new double[BLOCK_SIZE];
+		double[] growth = new double[BLOCK_SIZE];
+		double[] total = new double[BLOCK_SIZE];
+		for (int block = start; block < end; block += BLOCK_SIZE) {
+			int size = Math.min(BLOCK_SIZE, end - block);
+			prepare(amount, rate, block, size, deposit, growth, total);
+			for (int month = 0; month < fullMonths; month++) {
+				for (int i = 0; i < size; i++) {
+					total[i] = ((total[i] + deposit[i]) * growth[i]);
+				}
+			}
+			// The remaining weeks of the partial month are added without any interest.
+			for (int i = 0; i < size; i++) {
+				balances[block + i] = ((remainingWeeks != 0) ? (total[i] + amount[block + i] * remainingWeeks) : total[i]);
+			}
+		}
+	}
+
+	/**
+	* The calcSeries method calculates the balance of every monthly row (including the trailing partial month) of every account.
+	* The series are stored by month, so the balance of an account at a month is series[month * accounts + account].
+	* @param amount double[] - The amount invested each week, for each account.
+	* @param rate double[] - The annual interest rate percentage, for each account.
+	* @param numberOfWeeks int - The investment length (shared by every account).
+	* @param series double[] - The array that receives the balances. It must have at least (months * accounts) elements.
+	* @return int - The number of monthly rows (the same as InvestmentProjection.getNumberOfMonths).
+	* @throws IllegalArgumentException - If the number of weeks is negative, or an array is too short.
+	*/
+	public static int calcSeries(double[] amount, double[] rate, int numberOfWeeks, double[] series) {
+		int accounts = amount.length;
+		validate(amount, rate, numberOfWeeks, accounts);
+		int months = InvestmentProjection.getNumberOfMonths(numberOfWeeks);
+		if (series.length < ((long)months * accounts)) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, "series", (long)months * accounts));
+		}
+		int fullMonths = numberOfWeeks / WEEKS_PER_MONTH;
+		int remainingWeeks = numberOfWeeks % WEEKS_PER_MONTH;
+		double[] deposit = new double[BLOCK_SIZE];
+		double[] growth = new double[BLOCK_SIZE];
+		double[] total = new double[BLOCK_SIZE];
+		for (int block = 0; block < accounts; block += BLOCK_SIZE) {
+			int size = Math.min(BLOCK_SIZE, accounts - block);
+			prepare(amount, rate, block, size, deposit, growth, total);
+			for (int month = 0; month < fullMonths; month++) {
+				int row = (month * accounts) + block;
+				for (int i = 0; i < size; i++) {
+					total[i] = ((total[i] + deposit[i]) * growth[i]);
+					series[row + i] = total[i];
+				}
+			}
+			if (remainingWeeks != 0) {
+				int row = (fullMonths * accounts) + block;
+				for (int i = 0; i < size; i++) {
+					series[row + i] = (total[i] + amount[block + i] * remainingWeeks);
+				}
+			}
+		}
+		return months;
+	}
+
+	/**
+	* The prepare method fills the working arrays for a block of accounts. The monthly deposit is four times the weekly amount
+	* (which is exact, so it is the same as the amount * 4 calculated each month by the InvestmentProjection class).
+	*/
+	private static void prepare(double[] amount, double[] rate, int block, int size, double[] deposit, double[] growth, double[] total) {
+		for (int i = 0; i < size; i++) {
+			deposit[i] = amount[block + i] * WEEKS_PER_MONTH;
+			growth[i] = InvestmentProjection.calcGrowth(rate[block + i]);
+			total[i] = 0;
+		}
+	}
+
+	/**
+	* The validate method checks the number of weeks, and the length of the input arrays.
+	*/
+	private static void validate(double[] amount, double[] rate, int numberOfWeeks, int end) {
+		if (numberOfWeeks < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+		}
+		if (amount.length < end) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, "amount", end));
+		}
+		if (rate.length < end) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, "rate", end));
+		}
+	}
+}
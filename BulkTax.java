@@ -0,0 +1,180 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to calculate the income tax, medicare levy and net salary for arrays of incomes, in the lane-wise form
+ *  used by SIMD instructions. Rather than finding the bracket of one income at a time, each bracket is applied to a block of
+ *  incomes in turn: the incomes over the bracket's threshold select (blend) the bracket's threshold, rate and base tax, so
+ *  once every bracket has been applied each income holds the values of its own bracket. There aren't any branches that
+ *  depend on the income. The tax is then calculated with the same operations (in the same order) as the TaxTable, so the
+ *  results are identical to the Client's calcTax, calcMedicare and calcNetSalary methods.
+ *  It is the scalar form of a Vector API kernel (each select being a masked blend), which is kept as the documented fallback
+ *  since the jdk.incubator.vector module has to be added when compiling and running the program. The selects are only turned
+ *  into SIMD blends by a JIT compiler that vectorises conditional moves, otherwise the PayrollBatch class (which finds the
+ *  bracket of each income in turn) is faster, and it remains the class used by the PayrollService and the batch readers.
+ *  The results are checked against the Client over randomised incomes by the BulkTaxVerification class.
+ */
+
+public class BulkTax {
+
+	// The amount of incomes processed together, which keeps the working arrays within the CPU cache.
+	private static final int BLOCK_SIZE = 512;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_ARRAY_LENGTH = "Error: The %s array must have at least %d elements.";
+	private static final String ERROR_RANGE = "Error: The range %d to %d is outside of the arrays.";
+
+	/**
+	* The constructor is private, since the class only contains static methods.
+	*/
+	private BulkTax() {
+	}
+
+	/**
+	* The calculate method calculates the tax, medicare and net salary of the incomes from the start index up to (but not
+	* including) the end index, using a single tax table.
+	* @param table TaxTable - The tax table of the financial year and residency.
+	* @param grossSalary double[] - The gross salary of each employee.
+	* @param tax double[] - The array that receives the calculated income tax.
+	* @param medicare double[] - The array that receives the calculated medicare levy.
+	* @param netSalary double[] - The array that receives the calculated net salary.
+	* @param start int - The first index to be calculated.
+	* @param end int - The index after the last one to be calculated.
+	* @throws IllegalArgumentException - If an array is too short, or the range is invalid.
+	*/
+	public static void calculate(TaxTable table, double[] grossSalary, double[] tax, double[] medicare, double[] netSalary,
+			int start, int end) {
+		validate(grossSalary, tax, medicare, netSalary, start, end);
+		Blend blend = new Blend(table);
+		for (int block = start; block < end; block += BLOCK_SIZE) {
+			int size = Math.min(BLOCK_SIZE, end - block);
+			blend.apply(grossSalary, block, size);
+			for (int i = 0; i < size; i++) {
+				int index = block + i;
+				tax[index] = blend.tax[i];
+				medicare[index] = blend.medicare[i];
+				netSalary[index] = ((grossSalary[index] - blend.tax[i]) - blend.medicare[i]);
+			}
+		}
+	}
+
+	/**
+	* The calculate method calculates the tax, medicare and net salary of the incomes from the start index up to (but not
+	* including) the end index, for a payroll of both residents and nonresidents. Both tables are applied to every income,
+	* and the result of each employee's residency is then selected, which avoids a branch on the residency.
+	* @param taxYear String - The financial year of the tax tables.
+	* @param grossSalary double[] - The gross salary of each employee.
+	* @param resident boolean[] - Whether each employee is a resident or not.
+	* @param tax double[] - The array that receives the calculated income tax.
+	* @param medicare double[] - The array that receives the calculated medicare levy.
+	* @param netSalary double[] - The array that receives the calculated net salary.
+	* @param start int - The first index to be calculated.
+	* @param end int - The index after the last one to be calculated.
+	* @throws IllegalArgumentException - If an array is too short, the range is invalid, or the year doesn't have tax tables.
+	*/
+	public static void calculate(String taxYear, double[] grossSalary, boolean[] resident, double[] tax, double[] medicare,
+			double[] netSalary, int start, int end) {
+		validate(grossSalary, tax, medicare, netSalary, start, end);
+		if (resident.length < end) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, "resident", end));
+		}
+		Blend residents = new Blend(TaxTable.getTable(taxYear, true));
+		Blend nonresidents = new Blend(TaxTable.getTable(taxYear, false));
+		for (int block = start; block < end; block += BLOCK_SIZE) {
+			int size = Math.min(BLOCK_SIZE, end - block);
+			residents.apply(grossSalary, block, size);
+			nonresidents.apply(grossSalary, block, size);
+			for (int i = 0; i < size; i++) {
+				int index = block + i;
+				double incomeTax = ((resident[index]) ? residents.tax[i] : nonresidents.tax[i]);
+				double levy = ((resident[index]) ? residents.medicare[i] : nonresidents.medicare[i]);
+				tax[index] = incomeTax;
+				medicare[index] = levy;
+				netSalary[index] = ((grossSalary[index] - incomeTax) - levy);
+			}
+		}
+	}
+
+	/**
+	* The Blend class holds the brackets of a table, and the working arrays that the brackets are blended into for a block.
+	*/
+	private static final class Blend {
+		private final double[] thresholds;
+		private final double[] rates;
+		private final double[] taxes;
+		private final double medicareThreshold;
+		private final double medicareRate;
+		private final double[] threshold = new double[BLOCK_SIZE];
+		private final double[] rate = new double[BLOCK_SIZE];
+		private final double[] base = new double[BLOCK_SIZE];
+		private final double[] tax = new double[BLOCK_SIZE];
+		private final double[] medicare = new double[BLOCK_SIZE];
+
+		Blend(TaxTable table) {
+			int brackets = table.getNumberOfBrackets();
+			this.thresholds = new double[brackets];
+			this.rates = new double[brackets];
+			this.taxes = new double[brackets];
+			for (int i = 0; i < brackets; i++) {
+				this.thresholds[i] = table.getThreshold(i);
+				this.rates[i] = table.getRate(i);
+				this.taxes[i] = table.getTax(i);
+			}
+			this.medicareThreshold = table.getMedicareThreshold();
+			this.medicareRate = table.getMedicareRate();
+		}
+
+		/**
+		* The apply method calculates the tax and medicare of a block of incomes into the working arrays.
+		* @param grossSalary double[] - The gross salary of each employee.
+		* @param block int - The first income of the block.
+		* @param size int - The amount of incomes in the block.
+		*/
+		void apply(double[] grossSalary, int block, int size) {
+			// Every income starts in the first bracket.
+			for (int i = 0; i < size; i++) {
+				this.threshold[i] = this.thresholds[0];
+				this.rate[i] = this.rates[0];
+				this.base[i] = this.taxes[0];
+			}
+			// The incomes over each threshold select that bracket. The thresholds are ascending, so the last bracket selected
+			// is the same bracket as the TaxTable.findBracket method.
+			for (int bracket = 1; bracket < this.thresholds.length; bracket++) {
+				double bracketThreshold = this.thresholds[bracket];
+				double bracketRate = this.rates[bracket];
+				double bracketTax = this.taxes[bracket];
+				for (int i = 0; i < size; i++) {
+					boolean over = (grossSalary[block + i] > bracketThreshold);
+					this.threshold[i] = (over ? bracketThreshold : this.threshold[i]);
+					this.rate[i] = (over ? bracketRate : this.rate[i]);
+					this.base[i] = (over ? bracketTax : this.base[i]);
+				}
+			}
+			// The same calculations as the TaxTable's calcTax and calcMedicare methods.
+			for (int i = 0; i < size; i++) {
+				double income = grossSalary[block + i];
+				this.tax[i] = (((income - this.threshold[i]) * this.rate[i]) + this.base[i]);
+				this.medicare[i] = ((income >= this.medicareThreshold) ? (income * this.medicareRate) : 0);
+			}
+		}
+	}
+
+	/**
+	* The validate method checks the range, and the length of the arrays.
+	*/
+	private static void validate(double[] grossSalary, double[] tax, double[] medicare, double[] netSalary, int start, int end) {
+		if ((start < 0) || (start > end) || (end > grossSalary.length)) {
+			throw new IllegalArgumentException(String.format(ERROR_RANGE, start, end));
+		}
+		if (tax.length < end) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, "tax", end));
+		}
+		if (medicare.length < end) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, "medicare", end));
+		}
+		if (netSalary.length < end) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, "netSalary", end));
+		}
+	}
+}
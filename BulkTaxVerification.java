@@ -0,0 +1,107 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to verify the BulkTax class against the Client. It creates a payroll of random incomes (with a mix of
+ *  residents and nonresidents, and incomes on and either side of every threshold), calculates it with the BulkTax class,
+ *  and compares the tax, medicare and net salary of each employee with the Client's results. The results must be identical
+ *  (bit for bit), so the amount of differences is displayed, and the program exits with an error status if there are any.
+ *  Usage: java BulkTaxVerification [incomes]
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class BulkTaxVerification {
+
+	// The following constants are the default verification settings.
+	private static final int DEFAULT_INCOMES = 1000000;
+	private static final double MAXIMUM_SALARY = 250000;
+	private static final double RESIDENT_RATIO = 0.8;
+	private static final double THRESHOLD_RATIO = 0.1;
+	private static final double CENT = 0.01;
+	private static final long SEED = 1;
+
+	// The following constants are used for the output.
+	private static final String RESULT = "Verified %d incomes: %d differences.";
+	private static final String DIFFERENCE = "Error: The income %.2f (resident %b) differs: tax %s/%s, medicare %s/%s, net salary %s/%s.";
+	private static final int MAXIMUM_REPORTED = 10;
+
+	/**
+	* The main method runs the verification.
+	* @param args String[] - The optional amount of incomes.
+	*/
+	public static void main(String[] args) {
+		int incomes = ((args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_INCOMES);
+		double[] thresholds = thresholds(TaxTable.getTable(true), TaxTable.getTable(false));
+		// Creates the random payroll, with some of the incomes placed on (or a cent either side of) a threshold.
+		Random random = new Random(SEED);
+		double[] grossSalary = new double[incomes];
+		boolean[] resident = new boolean[incomes];
+		for (int i = 0; i < incomes; i++) {
+			if (random.nextDouble() < THRESHOLD_RATIO) {
+				grossSalary[i] = Math.max(CENT, thresholds[random.nextInt(thresholds.length)] + ((random.nextInt(3) - 1) * CENT));
+			} else {
+				grossSalary[i] = Math.floor(random.nextDouble() * MAXIMUM_SALARY * 100) / 100;
+			}
+			resident[i] = (random.nextDouble() < RESIDENT_RATIO);
+		}
+		double[] tax = new double[incomes];
+		double[] medicare = new double[incomes];
+		double[] netSalary = new double[incomes];
+		BulkTax.calculate(TaxTable.DEFAULT_YEAR, grossSalary, resident, tax, medicare, netSalary, 0, incomes);
+		// Compares each employee with the Client's calculations.
+		Client client = new Client();
+		int differences = 0;
+		for (int i = 0; i < incomes; i++) {
+			client.setGrossSalary(grossSalary[i]);
+			client.setResident(resident[i]);
+			if (!same(tax[i], client.getTax()) || !same(medicare[i], client.getMedicare()) || !same(netSalary[i], client.getNetSalary())) {
+				if (differences < MAXIMUM_REPORTED) {
+					System.out.println(String.format(DIFFERENCE, grossSalary[i], resident[i], tax[i], client.getTax(),
+						medicare[i], client.getMedicare(), netSalary[i], client.getNetSalary()));
+				}
+				differences++;
+			}
+		}
+		System.out.println(String.format(RESULT, incomes, differences));
+		if (differences > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	* The thresholds method retrieves the bracket and medicare thresholds of the tables (a nonresident's medicare threshold is
+	* infinite, since they don't pay the levy, so only the finite thresholds are kept).
+	* @param tables TaxTable[] - The tables.
+	* @return double[] - The thresholds.
+	*/
+	private static double[] thresholds(TaxTable... tables) {
+		int count = 0;
+		for (TaxTable table : tables) {
+			count += table.getNumberOfBrackets() + 1;
+		}
+		double[] thresholds = new double[count];
+		int index = 0;
+		for (TaxTable table : tables) {
+			for (int bracket = 0; bracket < table.getNumberOfBrackets(); bracket++) {
+				thresholds[index++] = table.getThreshold(bracket);
+			}
+			if (Double.isFinite(table.getMedicareThreshold())) {
+				thresholds[index++] = table.getMedicareThreshold();
+			}
+		}
+		return Arrays.copyOf(thresholds, index);
+	}
+
+	/**
+	* The same method determines whether two results are identical (bit for bit).
+	* @param value double - The BulkTax result.
+	* @param expected double - The Client's result.
+	* @return boolean - Whether they are identical.
+	*/
+	private static boolean same(double value, double expected) {
+		return (Double.doubleToLongBits(value) == Double.doubleToLongBits(expected));
+	}
+}
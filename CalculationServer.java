@@ -0,0 +1,417 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is an embedded HTTP service for the calculator, so that many advisers can use a single server rather than a
+ *  terminal session each. It uses the HttpServer of the JDK, and has two endpoints which return JSON:
+ *    GET /tax?income=80000&resident=Yes[&year=2010-11][&expenses=300]
+ *      The income tax, medicare levy and net salary of a client (the same as the Client's calculations).
+ *    GET /investment?amount=100&rate=5&weeks=52
+ *      The final balance and the monthly rows of an investment (the same as the Account's calcInvestment table).
+ *  The values are validated the same as the BatchProcessor (and the investment length is limited to a hundred years), and an
+ *  invalid request receives a 400 response with the error message. Any other path receives a 404 response, and an unexpected
+ *  exception a 500 response. Each request is handled by a task on the server's executor. On a JVM with virtual threads (Java 21 or later) each
+ *  request runs on its own virtual thread, otherwise a fixed pool of platform threads (a few per processor core) is used,
+ *  since the calculations only take microseconds and the connections are accepted by the server's own selector thread.
+ *  Usage: java CalculationServer [port]
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CalculationServer {
+
+	// The following constants are the default server settings.
+	public static final int DEFAULT_PORT = 8080;
+	private static final int BACKLOG = 8192;
+	private static final int THREADS_PER_CORE = 4;
+	private static final String VIRTUAL_THREAD_FACTORY = "newVirtualThreadPerTaskExecutor";
+
+	// The paths of the endpoints.
+	public static final String PATH_TAX = "/tax";
+	public static final String PATH_INVESTMENT = "/investment";
+
+	// The following constants are the request parameters.
+	private static final String PARAMETER_INCOME = "income";
+	private static final String PARAMETER_RESIDENT = "resident";
+	private static final String PARAMETER_YEAR = "year";
+	private static final String PARAMETER_EXPENSES = "expenses";
+	private static final String PARAMETER_AMOUNT = "amount";
+	private static final String PARAMETER_RATE = "rate";
+	private static final String PARAMETER_WEEKS = "weeks";
+	private static final String RESIDENT_YES = "Yes";
+	private static final String RESIDENT_NO = "No";
+	private static final String RESIDENT_TRUE = "true";
+	private static final String RESIDENT_FALSE = "false";
+
+	// The following constants are used for the responses.
+	private static final String METHOD_GET = "GET";
+	private static final String HEADER_CONTENT_TYPE = "Content-Type";
+	private static final String HEADER_ALLOW = "Allow";
+	private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+	private static final int STATUS_OK = 200;
+	private static final int STATUS_BAD_REQUEST = 400;
+	private static final int STATUS_NOT_FOUND = 404;
+	private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+	private static final int STATUS_INTERNAL_ERROR = 500;
+	private static final String STARTED = "The calculation server is listening on port %d.";
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_METHOD = "Error: Only GET requests are supported.";
+	private static final String ERROR_NOT_FOUND = "Error: The path %s doesn't exist.";
+	private static final String ERROR_INTERNAL = "Error: The request couldn't be calculated.";
+	private static final String ERROR_TOO_LARGE = "Error: The amounts are too large to be calculated.";
+	private static final String ERROR_LOG = "Error: The request %s failed: %s";
+	private static final String ERROR_MAXIMUM_WEEKS = "Error: The weeks can't be more than %d.";
+	private static final String ERROR_MISSING = "Error: The %s parameter is required.";
+	private static final String ERROR_NOT_NUMERIC = "Error: The %s must be a numeric value.";
+	private static final String ERROR_NOT_INTEGER = "Error: The %s must be an integer value.";
+	private static final String ERROR_NOT_POSITIVE = "Error: The %s must be a positive number (and greater than zero).";
+	private static final String ERROR_RESIDENT = "Error: The resident parameter must be either Yes or No.";
+	private static final String ERROR_INTEREST_RATE = "Error: The interest rate must be between 1 and 100.";
+	private static final String ERROR_EXPENDITURE = "Error: The living expenditure is more than the weekly net salary.";
+
+	// Instance attributes.
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	/**
+	* The constructor creates the server on the received port, with the default executor (see the createExecutor method).
+	* The server isn't started until the start method is called.
+	* @param port int - The port, or zero for any free port.
+	* @throws IOException - If the server can't be bound to the port.
+	*/
+	public CalculationServer(int port) throws IOException {
+		this(new InetSocketAddress(port), createExecutor());
+	}
+
+	/**
+	* The main constructor creates the server on the received address, running the requests on the received executor. The
+	* executor is shut down when the server is stopped.
+	* @param address InetSocketAddress - The address that the server is bound to.
+	* @param executor ExecutorService - The executor that handles the requests.
+	* @throws IOException - If the server can't be bound to the address.
+	*/
+	public CalculationServer(InetSocketAddress address, ExecutorService executor) throws IOException {
+		this.executor = executor;
+		this.server = HttpServer.create(address, BACKLOG);
+		this.server.createContext(PATH_TAX, new Endpoint(PATH_TAX) {
+			protected void respond(Map<String, String> parameters, StringBuilder json) {
+				CalculationServer.respondTax(parameters, json);
+			}
+		});
+		this.server.createContext(PATH_INVESTMENT, new Endpoint(PATH_INVESTMENT) {
+			protected void respond(Map<String, String> parameters, StringBuilder json) {
+				CalculationServer.respondInvestment(parameters, json);
+			}
+		});
+		this.server.setExecutor(executor);
+	}
+
+	/**
+	* The static createExecutor method creates the executor of the requests. If the JVM supports virtual threads, then each request
+	* runs on a new virtual thread. The executor is found by reflection, so the server is still compatible with older JVMs, which
+	* use a fixed pool of platform threads instead.
+	* @return ExecutorService - The executor.
+	*/
+	public static ExecutorService createExecutor() {
+		try {
+			return (ExecutorService)Executors.class.getMethod(VIRTUAL_THREAD_FACTORY).invoke(null);
+		} catch (ReflectiveOperationException ex) {
+			return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * THREADS_PER_CORE);
+		}
+	}
+
+	/**
+	* The start method starts accepting requests.
+	*/
+	public void start() {
+		this.server.start();
+	}
+
+	/**
+	* The stop method stops the server, waiting up to the received delay for the current requests to complete, and then shuts
+	* down the executor.
+	* @param delay int - The maximum amount of seconds to wait.
+	*/
+	public void stop(int delay) {
+		this.server.stop(delay);
+		this.executor.shutdown();
+	}
+
+	/**
+	* The getPort method retrieves the port the server is bound to (which is useful when it was created with port zero).
+	* @return int - The port.
+	*/
+	public int getPort() {
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	* The Endpoint class is the handler of an endpoint. It parses the query parameters, and sends the JSON written by the respond
+	* method. If the respond method throws an IllegalArgumentException (the exception thrown for an invalid value throughout the
+	* calculator), then its message is sent back as the error of a 400 response, and an ArithmeticException (an amount too large
+	* to be written in cents) also receives a 400 response. Since the HttpServer matches a context by its
+	* prefix, a request for any other path (such as /taxes) receives a 404 response. Any other exception is logged, and a 500
+	* response is sent rather than leaving the exchange without a response.
+	*/
+	private abstract static class Endpoint implements HttpHandler {
+
+		private final String path;
+
+		/**
+		* The constructor receives the exact path of the endpoint.
+		* @param path String - The path.
+		*/
+		protected Endpoint(String path) {
+			this.path = path;
+		}
+
+		/**
+		* The respond method writes the JSON response of the request.
+		* @param parameters Map - The query parameters.
+		* @param json StringBuilder - The builder that receives the JSON.
+		* @throws IllegalArgumentException - If a parameter is invalid.
+		*/
+		protected abstract void respond(Map<String, String> parameters, StringBuilder json);
+
+		public void handle(HttpExchange exchange) throws IOException {
+			StringBuilder json = new StringBuilder();
+			int status = STATUS_OK;
+			try {
+				if (!exchange.getRequestURI().getPath().equals(this.path)) {
+					status = STATUS_NOT_FOUND;
+					appendError(json, String.format(ERROR_NOT_FOUND, exchange.getRequestURI().getPath()));
+				} else if (!exchange.getRequestMethod().equals(METHOD_GET)) {
+					exchange.getResponseHeaders().set(HEADER_ALLOW, METHOD_GET);
+					status = STATUS_METHOD_NOT_ALLOWED;
+					appendError(json, ERROR_METHOD);
+				} else {
+					this.respond(parseQuery(exchange.getRequestURI().getRawQuery()), json);
+				}
+			} catch (IllegalArgumentException ex) {
+				json.setLength(0);
+				status = STATUS_BAD_REQUEST;
+				appendError(json, ex.getMessage());
+			} catch (ArithmeticException ex) {
+				json.setLength(0);
+				status = STATUS_BAD_REQUEST;
+				appendError(json, ERROR_TOO_LARGE);
+			} catch (RuntimeException ex) {
+				System.err.println(String.format(ERROR_LOG, exchange.getRequestURI(), ex));
+				json.setLength(0);
+				status = STATUS_INTERNAL_ERROR;
+				appendError(json, ERROR_INTERNAL);
+			}
+			byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set(HEADER_CONTENT_TYPE, CONTENT_TYPE_JSON);
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		}
+	}
+
+	/**
+	* The respondTax method calculates the tax of a client, and writes the results as JSON.
+	* @param parameters Map - The query parameters.
+	* @param json StringBuilder - The builder that receives the JSON.
+	* @throws IllegalArgumentException - If a parameter is invalid.
+	*/
+	private static void respondTax(Map<String, String> parameters, StringBuilder json) {
+		Client client = new Client();
+		client.setGrossSalary(parsePositive(parameters, PARAMETER_INCOME));
+		client.setResident(parseResident(parameters.get(PARAMETER_RESIDENT)));
+		String year = parameters.get(PARAMETER_YEAR);
+		if (year != null) {
+			client.setTaxYear(year);
+		}
+		// The tax year is validated by the TaxTable, which throws an IllegalArgumentException if there aren't any tables for it.
+		// The medicare levy and net salary are calculated when they're retrieved (from the same cached result, if one is shared).
+		client.calcTax();
+		if (parameters.containsKey(PARAMETER_EXPENSES)) {
+			client.setWeeklyExpenses(parsePositive(parameters, PARAMETER_EXPENSES));
+			if (client.getWeeklyExpenses() > client.getWeeklyNetSalary()) {
+				throw new IllegalArgumentException(ERROR_EXPENDITURE);
+			}
+		}
+		json.append('{');
+		appendNumber(json, PARAMETER_INCOME, client.getGrossSalary()).append(',');
+		json.append("\"resident\":").append(client.getResident()).append(',');
+		json.append("\"year\":\"").append(escape(client.getTaxYear())).append("\",");
+		appendNumber(json, "tax", client.getTax()).append(',');
+		appendNumber(json, "medicare", client.getMedicare()).append(',');
+		appendNumber(json, "netSalary", client.getNetSalary()).append(',');
+		appendNumber(json, "weeklyNetSalary", client.getWeeklyNetSalary()).append(',');
+		appendNumber(json, "weeklyTax", client.getWeeklyTax());
+		if (parameters.containsKey(PARAMETER_EXPENSES)) {
+			json.append(',');
+			appendNumber(json, "weeklyExpenses", client.getWeeklyExpenses()).append(',');
+			appendNumber(json, "availableFunds", client.getAvailableFunds());
+		}
+		json.append('}');
+	}
+
+	/**
+	* The respondInvestment method calculates the projection of an investment, and writes the final balance and the monthly rows
+	* as JSON. The weeks are limited to the InvestmentProjection's maximum, since the response contains a row for every month.
+	* @param parameters Map - The query parameters.
+	* @param json StringBuilder - The builder that receives the JSON.
+	* @throws IllegalArgumentException - If a parameter is invalid.
+	*/
+	private static void respondInvestment(Map<String, String> parameters, StringBuilder json) {
+		double amount = parsePositive(parameters, PARAMETER_AMOUNT);
+		double rate = parsePositive(parameters, PARAMETER_RATE);
+		double weeks = parsePositive(parameters, PARAMETER_WEEKS);
+		if (!(rate >= 1 && rate <= 100)) {
+			throw new IllegalArgumentException(ERROR_INTEREST_RATE);
+		}
+		if (weeks != Math.floor(weeks)) {
+			throw new IllegalArgumentException(String.format(ERROR_NOT_INTEGER, PARAMETER_WEEKS));
+		}
+		if (weeks > InvestmentProjection.MAXIMUM_WEEKS) {
+			throw new IllegalArgumentException(String.format(ERROR_MAXIMUM_WEEKS, InvestmentProjection.MAXIMUM_WEEKS));
+		}
+		Account account = new Account(rate, (int)weeks, amount);
+		ProjectionResult result = account.calcProjection();
+		json.append('{');
+		appendNumber(json, PARAMETER_AMOUNT, amount).append(',');
+		json.append("\"rate\":").append(rate).append(',');
+		json.append("\"weeks\":").append(account.getNumberOfWeeks()).append(',');
+		appendNumber(json, "finalBalance", result.getFinalBalance()).append(',');
+		json.append("\"rows\":[");
+		for (int row = 0; row < result.size(); row++) {
+			if (row > 0) {
+				json.append(',');
+			}
+			json.append("{\"week\":").append(result.getWeek(row)).append(',');
+			appendNumber(json, "balance", result.getBalance(row)).append('}');
+		}
+		json.append("]}");
+	}
+
+	/**
+	* The parseQuery method splits the query of a URI into its decoded parameters.
+	* @param query String - The raw (encoded) query, or null if there isn't one.
+	* @return Map - The parameters. If a parameter is repeated, then the last value is kept.
+	*/
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> parameters = new HashMap<>();
+		if (query == null) {
+			return parameters;
+		}
+		for (String pair : query.split("&")) {
+			if (!pair.isEmpty()) {
+				int separator = pair.indexOf('=');
+				String name = ((separator < 0) ? pair : pair.substring(0, separator));
+				String value = ((separator < 0) ? "" : pair.substring(separator + 1));
+				parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+			}
+		}
+		return parameters;
+	}
+
+	/**
+	* The parsePositive method converts a parameter into a number that is greater than zero.
+	* @param parameters Map - The query parameters.
+	* @param name String - The name of the parameter.
+	* @return double - The number.
+	* @throws IllegalArgumentException - If the parameter is missing, or isn't a positive number.
+	*/
+	private static double parsePositive(Map<String, String> parameters, String name) {
+		String text = parameters.get(name);
+		if (text == null) {
+			throw new IllegalArgumentException(String.format(ERROR_MISSING, name));
+		}
+		double value;
+		try {
+			value = Double.parseDouble(text.trim());
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException(String.format(ERROR_NOT_NUMERIC, name));
+		}
+		if (!(value > 0) || Double.isInfinite(value)) {
+			throw new IllegalArgumentException(String.format(ERROR_NOT_POSITIVE, name));
+		}
+		return value;
+	}
+
+	/**
+	* The parseResident method converts the resident parameter (Yes, No, true or false, ignoring case) into a boolean. A client
+	* is a resident if the parameter is missing.
+	* @param text String - The parameter, or null if it is missing.
+	* @return boolean - Whether the client is a resident.
+	* @throws IllegalArgumentException - If the parameter isn't one of the accepted values.
+	*/
+	private static boolean parseResident(String text) {
+		if ((text == null) || text.equalsIgnoreCase(RESIDENT_YES) || text.equalsIgnoreCase(RESIDENT_TRUE)) {
+			return true;
+		}
+		if (text.equalsIgnoreCase(RESIDENT_NO) || text.equalsIgnoreCase(RESIDENT_FALSE)) {
+			return false;
+		}
+		throw new IllegalArgumentException(ERROR_RESIDENT);
+	}
+
+	/**
+	* The appendNumber method appends a currency value as a JSON member, with two decimal places.
+	* @param json StringBuilder - The builder that receives the member.
+	* @param name String - The name of the member.
+	* @param value double - The value.
+	* @return StringBuilder - The received builder.
+	*/
+	private static StringBuilder appendNumber(StringBuilder json, String name, double value) {
+		json.append('"').append(name).append("\":");
+		return Money.append(json, value);
+	}
+
+	/**
+	* The appendError method writes an error response.
+	* @param json StringBuilder - The builder that receives the JSON.
+	* @param message String - The error message.
+	*/
+	private static void appendError(StringBuilder json, String message) {
+		json.append("{\"error\":\"").append(escape(message)).append("\"}");
+	}
+
+	/**
+	* The escape method escapes the characters of a JSON string.
+	* @param text String - The text.
+	* @return String - The escaped text.
+	*/
+	private static String escape(String text) {
+		StringBuilder builder = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char character = text.charAt(i);
+			if ((character == '"') || (character == '\\')) {
+				builder.append('\\').append(character);
+			} else if (character < ' ') {
+				builder.append(String.format("\\u%04x", (int)character));
+			} else {
+				builder.append(character);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	* The main method starts the server on the port received as the first argument (or the default port), until the JVM is stopped.
+	* @param args String[] - The optional port.
+	* @throws IOException - If the server can't be bound to the port.
+	*/
+	public static void main(String[] args) throws IOException {
+		CalculationServer server = new CalculationServer((args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+		server.start();
+		System.out.println(String.format(STARTED, server.getPort()));
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is a load test of the CalculationServer. It sends a mix of tax and investment requests with random values
+ *  asynchronously (using the HttpClient of the JDK), keeping up to the received amount of requests in flight at once, and
+ *  records the latency of each response in a LatencyHistogram. It displays the throughput, the latency percentiles and the
+ *  amount of failed requests. If a URL isn't received, then a server is started within the same JVM on a free port.
+ *  The amount of concurrent requests is limited by the amount of connections (file descriptors) the operating system allows.
+ *  Usage: java CalculationServerBenchmark [requests] [concurrency] [url]
+ */
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CalculationServerBenchmark {
+
+	// The following constants are the default benchmark settings.
+	private static final int DEFAULT_REQUESTS = 100000;
+	private static final int DEFAULT_CONCURRENCY = 10000;
+	private static final int WARMUP_REQUESTS = 5000;
+	private static final double MAXIMUM_SALARY = 250000;
+	private static final double MAXIMUM_AMOUNT = 500;
+	private static final int MAXIMUM_WEEKS = 520;
+	private static final long SEED = 1;
+	private static final int TIMEOUT_SECONDS = 60;
+	private static final double NANOS_PER_SECOND = 1e9;
+	private static final double NANOS_PER_MILLI = 1e6;
+	private static final String LOCAL_URL = "http://127.0.0.1:%d";
+	private static final String TAX_QUERY = "%s" + CalculationServer.PATH_TAX + "?income=%.0f&resident=%s";
+	private static final String INVESTMENT_QUERY = "%s" + CalculationServer.PATH_INVESTMENT + "?amount=%.2f&rate=%d&weeks=%d";
+	private static final int STATUS_OK = 200;
+
+	// The following constants are used for formatting the output.
+	private static final String FORMAT_SUMMARY = "Requests: %d, concurrency: %d, failed: %d%n";
+	private static final String FORMAT_THROUGHPUT = "Throughput: %.0f requests/sec (%.2f sec)%n";
+	private static final String FORMAT_LATENCY = "Latency (ms): mean %.2f, p50 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n";
+
+	/**
+	* The main method runs the load test.
+	* @param args String[] - The optional amount of requests, the amount of concurrent requests, and the URL of the server.
+	* @throws Exception - If the server can't be started, or the test is interrupted.
+	*/
+	public static void main(String[] args) throws Exception {
+		int requests = ((args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_REQUESTS);
+		int concurrency = ((args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_CONCURRENCY);
+		CalculationServer server = null;
+		String url;
+		if (args.length > 2) {
+			url = args[2];
+		} else {
+			server = new CalculationServer(0);
+			server.start();
+			url = String.format(LOCAL_URL, server.getPort());
+		}
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(TIMEOUT_SECONDS)).build();
+		try {
+			run(client, url, Math.min(WARMUP_REQUESTS, requests), concurrency, new LatencyHistogram(), new LongAdder());
+			LatencyHistogram latencies = new LatencyHistogram();
+			LongAdder failures = new LongAdder();
+			long start = System.nanoTime();
+			run(client, url, requests, concurrency, latencies, failures);
+			double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+			System.out.printf(FORMAT_SUMMARY, requests, concurrency, failures.sum());
+			System.out.printf(FORMAT_THROUGHPUT, requests / seconds, seconds);
+			System.out.printf(FORMAT_LATENCY, latencies.getMean() / NANOS_PER_MILLI,
+				latencies.getValueAtPercentile(50) / NANOS_PER_MILLI, latencies.getValueAtPercentile(99) / NANOS_PER_MILLI,
+				latencies.getValueAtPercentile(99.9) / NANOS_PER_MILLI, latencies.getMax() / NANOS_PER_MILLI);
+		} finally {
+			if (server != null) {
+				server.stop(0);
+			}
+		}
+	}
+
+	/**
+	* The run method sends the requests, and waits for every response. A permit is taken before each request is sent and
+	* returned when its response (or failure) is received, which limits the amount of requests in flight.
+	* @param client HttpClient - The client that sends the requests.
+	* @param url String - The URL of the server.
+	* @param requests int - The amount of requests.
+	* @param concurrency int - The maximum amount of requests in flight.
+	* @param latencies LatencyHistogram - The histogram that receives the latency of each successful request.
+	* @param failures LongAdder - The counter of the failed requests (including responses other than 200).
+	* @throws InterruptedException - If the thread is interrupted while waiting.
+	*/
+	private static void run(HttpClient client, String url, int requests, int concurrency, LatencyHistogram latencies,
+			LongAdder failures) throws InterruptedException {
+		SplittableRandom random = new SplittableRandom(SEED);
+		Semaphore permits = new Semaphore(concurrency);
+		CountDownLatch completed = new CountDownLatch(requests);
+		for (int i = 0; i < requests; i++) {
+			// Alternates between the tax and investment endpoints.
+			String uri = (((i & 1) == 0) ?
+				String.format(TAX_QUERY, url, Math.floor(random.nextDouble(1, MAXIMUM_SALARY)), random.nextBoolean() ? "Yes" : "No") :
+				String.format(INVESTMENT_QUERY, url, random.nextDouble(1, MAXIMUM_AMOUNT), random.nextInt(1, 101),
+					random.nextInt(1, MAXIMUM_WEEKS + 1)));
+			HttpRequest request = HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(TIMEOUT_SECONDS)).build();
+			permits.acquire();
+			long start = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, failure) -> {
+				if ((failure == null) && (response.statusCode() == STATUS_OK)) {
+					latencies.record(System.nanoTime() - start);
+				} else {
+					failures.increment();
+				}
+				permits.release();
+				completed.countDown();
+			});
+		}
+		completed.await();
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is a benchmark suite for the Client and Account methods that are used the most (calcTax, getWeeklyNetSalary,
+ *  toString and calcInvestment). Each benchmark is run against realistic inputs (incomes within each tax bracket, a mix of
+ *  residents and nonresidents, and investment lengths from 4 to 2,000 weeks). Every benchmark is warmed up before it is
+ *  measured, and the throughput (operations per second) and allocation rate (bytes allocated per operation, retrieved from
+ *  the thread allocation counter of the JVM) are displayed for each one.
+ *  Usage: java CalculatorBenchmark [filter]   (only the benchmarks containing the filter are run)
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+public class CalculatorBenchmark {
+
+	// The following constants are the benchmark settings.
+	private static final int INPUTS = 4096;
+	private static final int BATCH = 1024;
+	private static final long WARMUP_NANOS = 1000000000L;
+	private static final long MEASURE_NANOS = 1000000000L;
+	private static final int MEASURE_ITERATIONS = 3;
+	private static final long SEED = 1;
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	// The income ranges of the tax brackets, and the investment lengths that are benchmarked.
+	private static final double[][] INCOME_RANGES = {{0, 6000}, {6000, 37000}, {37000, 80000}, {80000, 180000}, {180000, 500000}};
+	private static final String[] INCOME_NAMES = {"nil", "low", "middle", "high", "top"};
+	private static final double RESIDENT_RATIO = 0.8;
+	private static final int[] INVESTMENT_WEEKS = {4, 52, 520, 2000};
+
+	// The following constants are used for formatting the output.
+	private static final String FORMAT_HEADING = "%-40s %16s %12s%n";
+	private static final String FORMAT_ROW = "%-40s %16.0f %12.1f%n";
+	private static final String COLUMN_BENCHMARK = "Benchmark";
+	private static final String COLUMN_THROUGHPUT = "ops/s";
+	private static final String COLUMN_ALLOCATION = "B/op";
+
+	// Consumes the benchmark results, so the calculations can't be removed by the compiler.
+	private static volatile double sink;
+
+	/**
+	* The Operation interface is implemented by each benchmark. It performs one operation on the input at the received
+	* index, and returns a value derived from the result.
+	*/
+	private interface Operation {
+		double run(int index);
+	}
+
+	/**
+	* The main method creates the inputs and runs the benchmarks.
+	* @param args String[] - The optional filter.
+	*/
+	public static void main(String[] args) {
+		String filter = ((args.length > 0) ? args[0] : "");
+		Random random = new Random(SEED);
+		System.out.printf(FORMAT_HEADING, COLUMN_BENCHMARK, COLUMN_THROUGHPUT, COLUMN_ALLOCATION);
+
+		// The tax benchmarks are run for each bracket (for both residents and nonresidents), and for a mixed payroll.
+		for (int bracket = 0; bracket <= INCOME_RANGES.length; bracket++) {
+			String name = ((bracket < INCOME_RANGES.length) ? INCOME_NAMES[bracket] : "mixed");
+			for (int residency = 0; residency < 3; residency++) {
+				String suffix = name + ((residency == 0) ? "/resident" : ((residency == 1) ? "/nonresident" : "/mix"));
+				Client[] clients = new Client[INPUTS];
+				for (int i = 0; i < INPUTS; i++) {
+					double[] range = INCOME_RANGES[(bracket < INCOME_RANGES.length) ? bracket : random.nextInt(INCOME_RANGES.length)];
+					boolean resident = ((residency == 0) || ((residency == 2) && (random.nextDouble() < RESIDENT_RATIO)));
+					clients[i] = new Client("Lance Baker", Math.floor(range[0] + (random.nextDouble() * (range[1] - range[0]))), resident);
+					clients[i].calcTax();
+					clients[i].setWeeklyExpenses(Math.floor(clients[i].getWeeklyNetSalary() / 2));
+				}
+				run(filter, "Client.calcTax/" + suffix, index -> {
+					clients[index].calcTax();
+					return clients[index].getTax();
+				});
+				run(filter, "Client.getWeeklyNetSalary/" + suffix, index -> clients[index].getWeeklyNetSalary());
+				run(filter, "Client.getAvailableFunds/" + suffix, index -> clients[index].getAvailableFunds());
+				run(filter, "Client.toString/" + suffix, index -> clients[index].toString().length());
+			}
+		}
+
+		// The investment benchmarks are run for each investment length.
+		for (int weeks : INVESTMENT_WEEKS) {
+			Account[] accounts = new Account[INPUTS];
+			for (int i = 0; i < INPUTS; i++) {
+				accounts[i] = new Account(1 + Math.floor(random.nextDouble() * 100), weeks, Math.floor(random.nextDouble() * 500));
+			}
+			ProjectionResult result = new ProjectionResult();
+			run(filter, "Account.calcInvestment/" + weeks, index -> accounts[index].calcInvestment().length());
+			run(filter, "Account.calcProjection/" + weeks, index -> accounts[index].calcProjection(result).getFinalBalance());
+			run(filter, "Account.calcFinalBalance/" + weeks, index -> accounts[index].calcFinalBalance());
+		}
+	}
+
+	/**
+	* The run method warms up and measures a benchmark, if its name contains the filter. The operation is invoked in
+	* batches over the inputs, and the time and allocated bytes of the measured iterations are used to display the results.
+	* @param filter String - The filter.
+	* @param name String - The name of the benchmark.
+	* @param operation Operation - The benchmark.
+	*/
+	private static void run(String filter, String name, Operation operation) {
+		if (!name.contains(filter)) {
+			return;
+		}
+		iterate(operation, WARMUP_NANOS);
+		long operations = 0;
+		long nanos = 0;
+		long bytes = 0;
+		for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+			operations += iterate(operation, MEASURE_NANOS);
+			nanos += (System.nanoTime() - start);
+			bytes += (allocatedBytes() - allocated);
+		}
+		System.out.printf(FORMAT_ROW, name, operations / (nanos / NANOS_PER_SECOND), ((double)bytes) / operations);
+	}
+
+	/**
+	* The iterate method invokes the operation repeatedly until the duration has elapsed.
+	* @param operation Operation - The benchmark.
+	* @param duration long - The duration in nanoseconds.
+	* @return long - The amount of operations performed.
+	*/
+	private static long iterate(Operation operation, long duration) {
+		long operations = 0;
+		long end = System.nanoTime() + duration;
+		double total = 0;
+		int index = 0;
+		do {
+			for (int i = 0; i < BATCH; i++) {
+				total += operation.run(index);
+				index = ((index + 1) & (INPUTS - 1));
+			}
+			operations += BATCH;
+		} while (System.nanoTime() < end);
+		sink = total;
+		return operations;
+	}
+
+	/**
+	* The allocatedBytes method retrieves the amount of bytes allocated by the current thread, using the HotSpot extension
+	* of the ThreadMXBean. Zero is returned if the JVM doesn't support it.
+	* @return long - The allocated bytes.
+	*/
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,677 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class holds a single session of the interactive calculator (the prompts, the Client and the menus) as an explicit state
+ *  machine. Rather than blocking on a Scanner until each value is entered, the session is given each line of input as it
+ *  arrives (with the accept method), and the line is consumed by the current state, which then moves to the next state and
+ *  displays its prompt. The numeric, Yes or No and menu inputs are read as whitespace separated words (several can be entered
+ *  on a single line), and the full name is read as a whole line, the same as the Scanner's next and nextLine methods. The
+ *  text to be displayed is collected in a StringBuilder, which the caller writes out and clears, so the session doesn't do
+ *  any I/O itself. This enables a session to be driven by the console (see the CalculatorInterface), or many sessions to be
+ *  driven by a single thread (see the SessionServer). A session isn't thread safe, so it must only be used by one thread at a time.
+ */
+
+import java.util.StringTokenizer;
+
+public class CalculatorSession {
+
+	// The following constants are used for input prompts, and error messages relating to input given.
+	private static final String SPACE = " ";
+	private static final String NEW_LINE = System.getProperty("line.separator");
+	private static final String INPUT_NAME_MSG = "Please enter your full name: ";
+	private static final String INPUT_NAME_REGEX = "([a-zA-Z]+\\s[a-zA-Z]+)";
+	private static final String INPUT_NAME_ERR = "Error: Please enter your first and last name (separated by a space)";
+	private static final String INPUT_BOOLEAN_CRITERIA = "[Yes or No]: ";
+	private static final String INPUT_BOOLEAN_YES = "Yes";
+	private static final String INPUT_BOOLEAN_NO = "No";
+	private static final String INPUT_BOOLEAN_ERR = "Error: Must input either Yes or No.";
+	private static final String INPUT_INCOME_MSG = "Please enter your annual income: ";
+	private static final String INPUT_RESIDENT_MSG = "Are you currently a resident? " + INPUT_BOOLEAN_CRITERIA;
+	private static final String INPUT_LIVING_EXPENDITURE_MSG = "The amount (per week) used on living expenditures: ";
+	private static final String INPUT_LIVING_EXPENDITURE_WARNING = "Warning: The amount given is more than your earnings. You will need to enter \n a new amount less than $%.2f, otherwise the program will be terminated.";
+	private static final String INPUT_LIVING_EXPENDITURE_REENTER_MSG = "Would you like to enter a new living expenditure amount? " + INPUT_BOOLEAN_CRITERIA;
+	private static final String INPUT_INVESTMENT_VALUE_MSG = "Please enter the investment amount per week: ";
+	private static final String INPUT_INVESTMENT_VALUE_ERR = "Error: Your $%.2f investment exceeds your available funds of $%.2f.";
+	private static final String INPUT_INVESTMENT_NOTE = "Please note: You currently have $%.2f invested in your other account.\n So therefore you cannot exceed $%.2f.";
+	private static final String INPUT_INTEREST_RATE_MSG = "Please enter the interest rate percentage (between 1-100): ";
+	private static final String INPUT_INTEREST_RATE_ERR = "Error: The interest rate must be between 1 and 100.";
+	private static final String INPUT_INVESTMENT_LENGTH_MSG = "Please enter the investment length (# of weeks): ";
+	private static final String INPUT_INVESTMENT_LENGTH_ERR = "Error: The investment length can't be more than %d weeks.";
+	private static final String INPUT_GOAL_SEEK_MSG = "Would you like the weekly amount calculated from a target balance? " + INPUT_BOOLEAN_CRITERIA;
+	private static final String INPUT_TARGET_BALANCE_MSG = "Please enter the target balance: ";
+	private static final String GOAL_SEEK_RESULT = "You will need to invest $%.2f per week to reach $%.2f.";
+	private static final String ERROR_POSITIVE_AMOUNT_REQUIRED = "Error: The amount must be a positive number (and greater than zero).";
+	private static final String ERROR_NOT_NUMERIC = "Error: Must only enter a numeric value.";
+	private static final String ERROR_NOT_INTEGER = "Error: Must only enter a integer value.";
+
+	// The following constants are used by the investment and exit menu.
+	private static final String SEPARATOR = "---------------------";
+	private static final String INVESTMENT_MENU_OPTION1 = "1: Edit account 1";
+	private static final String INVESTMENT_MENU_OPTION2 = "2: Edit account 2";
+	private static final String INVESTMENT_MENU_OPTION3 = "3: Display account 1";
+	private static final String INVESTMENT_MENU_OPTION4 = "4: Display account 2";
+	private static final String INVESTMENT_MENU_OPTION5 = "5: Exit";
+	private static final String EXIT_MENU_OPTION1 = "1: Start the program again";
+	private static final String EXIT_MENU_OPTION2 = "2: Calculate a new investment";
+	private static final String EXIT_MENU_OPTION3 = "3: Exit";
+	private static final String INPUT_MENU_OPTION = "Option #: ";
+	private static final String INPUT_MENU_OPTION_ERR = "Error: Please enter a number corresponding to the options shown on the menu.";
+	private static final String ACCOUNT_DOESNT_EXIST = "Account does not exist";
+	private static final String TITLE_INVESTMENT_MENU = "Investment Menu";
+	private static final String TITLE_EDIT_ACCOUNT1 = "Edit Account 1";
+	private static final String TITLE_EDIT_ACCOUNT2 = "Edit Account 2";
+	private static final String TITLE_DISPLAY_ACCOUNT1 = "Display Account 1";
+	private static final String TITLE_DISPLAY_ACCOUNT2 = "Display Account 2";
+	private static final String TITLE_EXIT_MENU = "Exit Menu";
+	private static final int INVESTMENT_MENU_OPTIONS = 5;
+	private static final int EXIT_MENU_OPTIONS = 3;
+
+	/**
+	* The Input enum is the kind of value that a state reads.
+	*/
+	private enum Input {
+		LINE, DOUBLE, INTEGER, BOOLEAN, NONE
+	}
+
+	/**
+	* The State enum is the states of the session. Each state reads one kind of value, and has the message prompted for it.
+	*/
+	private enum State {
+		NAME(Input.LINE, INPUT_NAME_MSG),
+		INCOME(Input.DOUBLE, INPUT_INCOME_MSG),
+		RESIDENT(Input.BOOLEAN, INPUT_RESIDENT_MSG),
+		EXPENDITURE(Input.DOUBLE, INPUT_LIVING_EXPENDITURE_MSG),
+		REENTER_EXPENDITURE(Input.BOOLEAN, INPUT_LIVING_EXPENDITURE_REENTER_MSG),
+		INVESTMENT_MENU(Input.INTEGER, INPUT_MENU_OPTION),
+		GOAL_SEEK(Input.BOOLEAN, INPUT_GOAL_SEEK_MSG),
+		AMOUNT(Input.DOUBLE, INPUT_INVESTMENT_VALUE_MSG),
+		RATE(Input.DOUBLE, INPUT_INTEREST_RATE_MSG),
+		WEEKS(Input.INTEGER, INPUT_INVESTMENT_LENGTH_MSG),
+		TARGET(Input.DOUBLE, INPUT_TARGET_BALANCE_MSG),
+		EXIT_MENU(Input.INTEGER, INPUT_MENU_OPTION),
+		FINISHED(Input.NONE, null);
+
+		private final Input input;
+		private final String message;
+
+		State(Input input, String message) {
+			this.input = input;
+			this.message = message;
+		}
+	}
+
+	// Instance attributes.
+	private final StringBuilder output; // The text waiting to be displayed.
+	private final ProjectionResult projection; // Reused to display each account.
+	private Client client; // A reference to the Client object.
+	private State state;
+	private Account account; // The account being created.
+	private int accountNumber; // The account (1 or 2) being created.
+	private boolean goalSeek; // Whether the account's amount is calculated from a target balance.
+	private String line; // The line of input being consumed.
+	private int position; // The position of the next word within the line.
+	private Metrics metrics; // The metrics measuring the input being parsed, or null.
+	private long inputStart;
+	private long inputAllocation;
+
+	/**
+	* The constructor creates a new session, with a new Client. The session doesn't display anything until it is started.
+	*/
+	public CalculatorSession() {
+		this.output = new StringBuilder();
+		this.projection = new ProjectionResult();
+		this.client = new Client();
+		this.state = null;
+	}
+
+	/**
+	* The start method starts the session by prompting for the client's full name.
+	*/
+	public void start() {
+		if (this.state == null) {
+			this.enter(State.NAME);
+		}
+	}
+
+	/**
+	* The isFinished method determines whether the session has ended (either the user has exited, or there isn't any money to
+	* invest). Any further input is ignored.
+	* @return boolean - Whether the session has ended.
+	*/
+	public boolean isFinished() {
+		return (this.state == State.FINISHED);
+	}
+
+	/**
+	* The getOutput method retrieves the text that is waiting to be displayed. Once the text has been displayed, the caller
+	* removes it (with setLength(0)).
+	* @return StringBuilder - The text to be displayed.
+	*/
+	public StringBuilder getOutput() {
+		return this.output;
+	}
+
+	/**
+	* The accept method consumes a line of input (without its line terminator). Each word of the line is given to the current
+	* state in turn, until the line is used up or the session ends. The full name is read from a new line, so once a word
+	* has been read from a line the remainder of the line is skipped before the name (the same as the Scanner's nextLine call).
+	* @param input CharSequence - The line of input.
+	*/
+	public void accept(CharSequence input) {
+		this.start();
+		this.line = input.toString();
+		this.position = 0;
+		while ((this.state != State.FINISHED) && (this.line != null)) {
+			if (this.state.input == Input.LINE) {
+				// Only a new line is read as the full name. Otherwise the remainder of the line is skipped.
+				String value = ((this.position == 0) ? this.line : null);
+				this.line = null;
+				if (value != null) {
+					this.handleLine(value.trim());
+				}
+			} else {
+				String word = this.nextWord();
+				if (word == null) {
+					this.line = null;
+				} else {
+					this.handleWord(word);
+				}
+			}
+		}
+	}
+
+	/**
+	* The nextWord method retrieves the next whitespace separated word from the line.
+	* @return String - The word, or null if the rest of the line is whitespace.
+	*/
+	private String nextWord() {
+		int length = this.line.length();
+		int start = this.position;
+		while ((start < length) && Character.isWhitespace(this.line.charAt(start))) {
+			start++;
+		}
+		int end = start;
+		while ((end < length) && !Character.isWhitespace(this.line.charAt(end))) {
+			end++;
+		}
+		this.position = end;
+		return ((start < end) ? this.line.substring(start, end) : null);
+	}
+
+	/**
+	* The enter method moves to a state, and displays its prompt.
+	* @param state State - The new state.
+	*/
+	private void enter(State state) {
+		this.state = state;
+		if (state == State.FINISHED) {
+			return;
+		}
+		this.prompt();
+	}
+
+	/**
+	* The prompt method displays the message of the current state (after a line space), which is repeated whenever an invalid
+	* value is entered.
+	*/
+	private void prompt() {
+		this.println(SPACE);
+		this.output.append(this.state.message);
+	}
+
+	/**
+	* The parsing method starts measuring the parsing and validation of an input (if shared Metrics have been set). Only that step
+	* is measured, so the time the user takes to enter the input isn't included.
+	*/
+	private void parsing() {
+		this.metrics = Metrics.getShared();
+		if (this.metrics != null) {
+			this.inputStart = this.metrics.start();
+			this.inputAllocation = this.metrics.startAllocation();
+		}
+	}
+
+	/**
+	* The accepted method is called once an input has been parsed and validated, and records the time taken to do so.
+	*/
+	private void accepted() {
+		if (this.metrics != null) {
+			this.metrics.record(Metrics.Operation.INPUT, this.inputStart, this.inputAllocation);
+			this.metrics = null;
+		}
+	}
+
+	/**
+	* The rejected method is called when an input isn't valid. It records the time taken to parse and validate it, displays the
+	* error message, and prompts for the value again.
+	* @param error String - The error message.
+	*/
+	private void rejected(String error) {
+		this.accepted();
+		this.println(error);
+		this.prompt();
+	}
+
+	/**
+	* The handleLine method consumes the full name. If it doesn't match the criteria, then an error message is displayed and
+	* the name is prompted for again.
+	* @param input String - The trimmed line.
+	*/
+	private void handleLine(String input) {
+		this.parsing();
+		if (!input.matches(INPUT_NAME_REGEX)) {
+			this.rejected(INPUT_NAME_ERR);
+			return;
+		}
+		this.accepted();
+		this.getClient().setName(this.convertToUpper(input));
+		this.enter(State.INCOME);
+	}
+
+	/**
+	* The handleWord method converts a word into the value read by the current state. A numeric value must be finite (so Infinity
+	* and NaN aren't accepted) and greater than zero, and a boolean must be Yes or No (ignoring case). If the word isn't valid,
+	* then a friendly error message is displayed and the value is prompted for again. Otherwise the value is given to the
+	* current state.
+	* @param word String - The word.
+	*/
+	private void handleWord(String word) {
+		this.parsing();
+		double value = 0;
+		switch (this.state.input) {
+			case DOUBLE:
+			case INTEGER:
+				try {
+					// Converts the word to either a Double or an Integer (depending on the input of the state).
+					value = ((this.state.input == Input.DOUBLE) ? Double.parseDouble(word.trim()) : Integer.parseInt(word.trim()));
+				} catch (NumberFormatException ex) {
+					this.rejected((this.state.input == Input.DOUBLE) ? ERROR_NOT_NUMERIC : ERROR_NOT_INTEGER);
+					return;
+				}
+				if (!Double.isFinite(value)) {
+					this.rejected(ERROR_NOT_NUMERIC);
+					return;
+				}
+				if (value <= 0) {
+					this.rejected(ERROR_POSITIVE_AMOUNT_REQUIRED);
+					return;
+				}
+				break;
+			default:
+				if (!(word.equalsIgnoreCase(INPUT_BOOLEAN_YES) || word.equalsIgnoreCase(INPUT_BOOLEAN_NO))) {
+					this.rejected(INPUT_BOOLEAN_ERR);
+					return;
+				}
+				value = (word.equalsIgnoreCase(INPUT_BOOLEAN_YES) ? 1 : 0);
+				break;
+		}
+		this.accepted();
+		this.handleValue(value);
+	}
+
+	/**
+	* The handleValue method gives a valid value to the current state, which determines the next state. A Yes or No answer is
+	* received as one or zero.
+	* @param value double - The value.
+	*/
+	private void handleValue(double value) {
+		switch (this.state) {
+			case INCOME:
+				this.getClient().setGrossSalary(value);
+				this.enter(State.RESIDENT);
+				break;
+			case RESIDENT:
+				this.getClient().setResident(value != 0);
+				this.calcIncomeTax();
+				break;
+			case EXPENDITURE:
+				this.livingExpenditure(value);
+				break;
+			case REENTER_EXPENDITURE:
+				// If the user doesn't want to enter a new amount, then the session ends.
+				if (value != 0) {
+					this.enterExpenditure();
+				} else {
+					this.enter(State.FINISHED);
+				}
+				break;
+			case INVESTMENT_MENU:
+				this.investmentMenu((int)value);
+				break;
+			case GOAL_SEEK:
+				this.goalSeek = (value != 0);
+				this.enter(this.goalSeek ? State.RATE : State.AMOUNT);
+				break;
+			case AMOUNT:
+				this.investmentAmount(value);
+				break;
+			case RATE:
+				this.interestRate(value);
+				break;
+			case WEEKS:
+				this.investmentLength((int)value);
+				break;
+			case TARGET:
+				this.targetBalance(value);
+				break;
+			case EXIT_MENU:
+				this.exitMenu((int)value);
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	* The calcIncomeTax method displays the client (the same text as the overridden toString method) once the name, income and
+	* residency have been entered. The tax, medicare and net salary are calculated by the client as they are displayed. It then
+	* prompts for the living expenditure.
+	*/
+	private void calcIncomeTax() {
+		ReportWriter.appendClient(this.output, this.getClient());
+		this.enterExpenditure();
+	}
+
+	/**
+	* The enterExpenditure method prompts for the weekly living expenditure (after an extra line space).
+	*/
+	private void enterExpenditure() {
+		this.println(SPACE);
+		this.enter(State.EXPENDITURE);
+	}
+
+	/**
+	* The livingExpenditure method receives the weekly expenses. In the circumstance that the value given is greater than the weekly
+	* net salary, then a warning message will be shown, and the user is asked whether they want to enter a new amount. When the
+	* investment is restarted from the exit menu, the stored accounts are kept if they still fit within the new available funds
+	* (only the available funds depend on the expenses, so nothing else is calculated again), otherwise they are cleared. If the
+	* expenses are equal to the weekly net salary, then there isn't any money to invest, so the session ends. Otherwise the
+	* investment menu is shown.
+	* @param expenses double - The weekly expenses.
+	*/
+	private void livingExpenditure(double expenses) {
+		this.getClient().setWeeklyExpenses(expenses);
+		if (this.getClient().getWeeklyExpenses() > this.getClient().getWeeklyNetSalary()) {
+			this.println(String.format(INPUT_LIVING_EXPENDITURE_WARNING, this.getClient().getWeeklyNetSalary()));
+			this.enter(State.REENTER_EXPENDITURE);
+			return;
+		}
+		if (this.getClient().getInvestedFunds() > this.getClient().getAvailableFunds()) {
+			this.getClient().getPortfolio().clear();
+		}
+		if (this.getClient().getWeeklyExpenses() == this.getClient().getWeeklyNetSalary()) {
+			this.enter(State.FINISHED);
+		} else {
+			this.enterInvestmentMenu();
+		}
+	}
+
+	/**
+	* The enterInvestmentMenu method displays the investment menu options, and prompts for a selection.
+	*/
+	private void enterInvestmentMenu() {
+		this.println(SPACE);
+		this.displayTitle(TITLE_INVESTMENT_MENU);
+		this.println(INVESTMENT_MENU_OPTION1);
+		this.println(INVESTMENT_MENU_OPTION2);
+		this.println(INVESTMENT_MENU_OPTION3);
+		this.println(INVESTMENT_MENU_OPTION4);
+		this.println(INVESTMENT_MENU_OPTION5);
+		this.enter(State.INVESTMENT_MENU);
+	}
+
+	/**
+	* The investmentMenu method performs the selected option of the investment menu, which provides options for the user to edit
+	* (create) the two accounts, display the two accounts, and also the exit menu. If the selection is out of range, it shows an
+	* error message and displays the menu again.
+	* @param selection int - The selected option.
+	*/
+	private void investmentMenu(int selection) {
+		switch (selection) {
+			// If the selection is option 1 or 2: It prompts to create the account. The account is first cleared, which enables
+			// the ability to determine the other account when validating the investment amount.
+			case 1:
+				this.displayTitle(TITLE_EDIT_ACCOUNT1);
+				this.getClient().setAccount1(null);
+				this.createAccount(1);
+				break;
+			case 2:
+				this.displayTitle(TITLE_EDIT_ACCOUNT2);
+				this.getClient().setAccount2(null);
+				this.createAccount(2);
+				break;
+			// If the selection is option 3 or 4: It displays the account, and then the menu again.
+			case 3:
+				this.displayTitle(TITLE_DISPLAY_ACCOUNT1);
+				this.displayAccount(this.getClient().getAccount1());
+				this.enterInvestmentMenu();
+				break;
+			case 4:
+				this.displayTitle(TITLE_DISPLAY_ACCOUNT2);
+				this.displayAccount(this.getClient().getAccount2());
+				this.enterInvestmentMenu();
+				break;
+			case INVESTMENT_MENU_OPTIONS:
+				this.enterExitMenu();
+				break;
+			default:
+				this.println(INPUT_MENU_OPTION_ERR);
+				this.enterInvestmentMenu();
+				break;
+		}
+	}
+
+	/**
+	* The createAccount method starts creating a new account, by asking whether the weekly amount should be calculated from a
+	* target balance.
+	* @param accountNumber int - The account being created (1 or 2).
+	*/
+	private void createAccount(int accountNumber) {
+		this.account = new Account();
+		this.accountNumber = accountNumber;
+		this.enter(State.GOAL_SEEK);
+	}
+
+	/**
+	* The createdAccount method stores the completed account on the client, and displays the investment menu again.
+	*/
+	private void createdAccount() {
+		this.getClient().getPortfolio().setAccount(this.accountNumber - 1, this.account);
+		this.account = null;
+		this.enterInvestmentMenu();
+	}
+
+	/**
+	* The getOtherInvestment method determines the amount of funds invested in the other accounts (the account being created has
+	* been cleared). The total is maintained by the client's portfolio, so it isn't recalculated for each input.
+	* @return double - The amount invested in the other accounts.
+	*/
+	private double getOtherInvestment() {
+		return this.getClient().getInvestedFunds();
+	}
+
+	/**
+	* The investmentAmount method receives the amount of money that the user desires to invest (on a weekly basis). If the total
+	* investment (including the other account) is greater than the amount of weekly funds available, then it will show an error
+	* message (and a note mentioning the funds invested in the other account), and prompt for the amount again. Otherwise the
+	* interest rate is prompted for (unless the rate has already been entered for a target balance).
+	* @param investment double - The amount to invest each week.
+	*/
+	private void investmentAmount(double investment) {
+		double otherInvestment = this.getOtherInvestment();
+		double totalInvestment = investment + otherInvestment;
+		if (totalInvestment > this.getClient().getAvailableFunds()) {
+			this.println(String.format(INPUT_INVESTMENT_VALUE_ERR, totalInvestment, this.getClient().getAvailableFunds()));
+			if (otherInvestment > 0) {
+				this.println(String.format(INPUT_INVESTMENT_NOTE, otherInvestment, Math.abs(otherInvestment - this.getClient().getAvailableFunds())));
+			}
+			this.prompt();
+			return;
+		}
+		this.account.setAmount(investment);
+		if (this.goalSeek) {
+			this.createdAccount();
+		} else {
+			this.enter(State.RATE);
+		}
+	}
+
+	/**
+	* The interestRate method receives the interest rate percentage. If it is outside of the range 1 to 100, then it will display
+	* an error message and prompt for the rate again. Otherwise the investment length is prompted for.
+	* @param interest double - The interest rate.
+	*/
+	private void interestRate(double interest) {
+		if (!(interest >= 1 && interest <= 100)) {
+			this.println(INPUT_INTEREST_RATE_ERR);
+			this.prompt();
+			return;
+		}
+		this.account.setRate(interest);
+		this.enter(State.WEEKS);
+	}
+
+	/**
+	* The investmentLength method receives the investment length. If it is more than the maximum (which limits the size of the
+	* monthly table), then it will display an error message and prompt for the length again. Otherwise the target balance is
+	* prompted for when goal seeking, or the account is created.
+	* @param numberOfWeeks int - The investment length.
+	*/
+	private void investmentLength(int numberOfWeeks) {
+		if (numberOfWeeks > InvestmentProjection.MAXIMUM_WEEKS) {
+			this.println(String.format(INPUT_INVESTMENT_LENGTH_ERR, InvestmentProjection.MAXIMUM_WEEKS));
+			this.prompt();
+			return;
+		}
+		this.account.setNumberOfWeeks(numberOfWeeks);
+		if (this.goalSeek) {
+			this.enter(State.TARGET);
+		} else {
+			this.createdAccount();
+		}
+	}
+
+	/**
+	* The targetBalance method calculates the weekly amount required to reach the target balance using the GoalSeek class, once
+	* the interest rate and investment length have been entered. If the calculated amount (together with the other account)
+	* exceeds the available funds, then it will show the same error message as the investmentAmount method, and prompt for the
+	* amount instead. If the GoalSeek class rejects the target, then its error message is displayed and the target is prompted
+	* for again.
+	* @param target double - The target balance.
+	*/
+	private void targetBalance(double target) {
+		double investment;
+		try {
+			investment = GoalSeek.solveAmount(this.account, target);
+		} catch (IllegalArgumentException ex) {
+			this.println(ex.getMessage());
+			this.enter(State.TARGET);
+			return;
+		}
+		this.println(String.format(GOAL_SEEK_RESULT, investment, target));
+		double otherInvestment = this.getOtherInvestment();
+		if ((investment + otherInvestment) > this.getClient().getAvailableFunds()) {
+			this.println(String.format(INPUT_INVESTMENT_VALUE_ERR, investment + otherInvestment, this.getClient().getAvailableFunds()));
+			this.enter(State.AMOUNT);
+			return;
+		}
+		this.account.setAmount(investment);
+		this.createdAccount();
+	}
+
+	/**
+	* The displayAccount method displays the account, followed by the monthly investment outcomes for the entire duration of the
+	* investment length (the same as the calcInvestment method). If the account doesn't exist, then it shows a message stating so.
+	* @param account Account - The account object desired to be displayed.
+	*/
+	private void displayAccount(Account account) {
+		this.println(SPACE);
+		if (account != null) {
+			ReportWriter.appendAccount(this.output, account, account.calcProjection(this.projection));
+		} else {
+			this.println(ACCOUNT_DOESNT_EXIST);
+		}
+	}
+
+	/**
+	* The enterExitMenu method displays the exit menu options, and prompts for a selection.
+	*/
+	private void enterExitMenu() {
+		this.displayTitle(TITLE_EXIT_MENU);
+		this.println(EXIT_MENU_OPTION1);
+		this.println(EXIT_MENU_OPTION2);
+		this.println(EXIT_MENU_OPTION3);
+		this.enter(State.EXIT_MENU);
+	}
+
+	/**
+	* The exitMenu method performs the selected option of the exit menu. The first option restarts the program with a new client,
+	* the second option only restarts the investment (from the living expenditure), and the third option ends the session. If
+	* the selection is out of range, it shows an error message and displays the menu again.
+	* @param selection int - The selected option.
+	*/
+	private void exitMenu(int selection) {
+		switch (selection) {
+			case 1:
+				this.setClient(new Client());
+				this.enter(State.NAME);
+				break;
+			case 2:
+				this.enterExpenditure();
+				break;
+			case EXIT_MENU_OPTIONS:
+				this.enter(State.FINISHED);
+				break;
+			default:
+				this.println(INPUT_MENU_OPTION_ERR);
+				this.enterExitMenu();
+				break;
+		}
+	}
+
+	/**
+	* The displayTitle method is used by both menus to display an title.
+	* @param title String - The title that you wish to display.
+	*/
+	private void displayTitle(String title) {
+		this.println(SEPARATOR);
+		this.println(title);
+		this.println(SEPARATOR);
+	}
+
+	/**
+	* The println method appends the text, followed by a new line, to the output.
+	* @param text String - The text.
+	*/
+	private void println(String text) {
+		this.output.append(text).append(NEW_LINE);
+	}
+
+	/**
+	* The convertToUpper method is used to capitalise each starting letter of each word in a String.
+	* @param str String - The String that you desire to have the starting letter in each word to be capitalised.
+	* @return String - The resulting capitalised String.
+	*/
+	private String convertToUpper(String str) {
+		StringBuilder builder = new StringBuilder();
+		// It first converts the String to lowercase, and is used in a tokenizer to separate it into singular Strings based on spaces.
+		StringTokenizer tokens = new StringTokenizer(str.toLowerCase(), SPACE);
+		while (tokens.hasMoreTokens()) {
+			String text = tokens.nextToken(); // Receives the next word.
+			// Capitalises the starting letter of the word, and appends the remaining (lowercase) letters and a space.
+			builder.append(text.substring(0, 1).toUpperCase() + text.substring(1) + SPACE);
+		}
+		// Returns a the capitalised String, and trims it (to take out the last space added from the previous iteration).
+		return builder.toString().trim();
+	}
+
+	private void setClient(Client client) {
+		this.client = client;
+	}
+
+	public Client getClient() {
+		return this.client;
+	}
+}
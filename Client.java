@@ -7,46 +7,23 @@
  *  tax rate in which applies to that client's income & residential status (using the public 
  *  methods available). It also has a overridden toString method which is used to retrieve 
  *  preformatted String output that can be optionally used for basic displaying purposes.
- *  The class also contains two Account datatype reference attributes (account1, account2) in which 
- *  are both used for storing their investment Account objects. It doesn't do any management/ handling
- *  of the Account objects, but provides getter & setter methods so the handling can be done externally to
- *  the class.
+ *  The derived values (the tax, medicare, net salary, weekly figures and available funds) are calculated lazily: each is
+ *  calculated when it is first retrieved, and is kept until one of the values it depends on is changed. Changing the
+ *  gross salary, residency or financial year marks the tax and medicare (and everything derived from them) as changed,
+ *  whereas changing the weekly expenses only marks the available funds. The calcTax, calcMedicare and calcNetSalary
+ *  methods can still be called to calculate the values immediately, and the setters of the derived values store a value
+ *  (such as one loaded from a file) in place of the calculation.
+ *  The class also contains a Portfolio, which stores any amount of investment accounts for the client. The
+ *  first two accounts are also available through the account1 & account2 getter & setter methods (used by the
+ *  interactive program). It doesn't do any management/ handling of the accounts, so the handling can be done
+ *  externally to the class.
  */
 
-import java.text.NumberFormat;
-import java.text.DecimalFormat;
+import java.util.Objects;
 
 public class Client {
 
-	// The following constants are used for the resident tax calculations.
-	private static final int RESIDENT_TAXABLE_INCOME1 = 6000;
-	private static final int RESIDENT_TAXABLE_INCOME2 = 37000;
-	private static final double RESIDENT_TAXABLE_INCOME2_RATE = 0.15;
-	private static final int RESIDENT_TAXABLE_INCOME3 = 80000;
-	private static final int RESIDENT_TAXABLE_INCOME3_TAX = 4650;
-	private static final double RESIDENT_TAXABLE_INCOME3_RATE = 0.30;
-	private static final int RESIDENT_TAXABLE_INCOME4 = 180000;
-	private static final int RESIDENT_TAXABLE_INCOME4_TAX = 17550;
-	private static final double RESIDENT_TAXABLE_INCOME4_RATE = 0.37;
-	private static final int RESIDENT_TAXABLE_INCOME5_TAX = 54550;
-	private static final double RESIDENT_TAXABLE_INCOME5_RATE = 0.45;
-	private static final int MEDICARE_LEVY = 20000;
-	private static final double MEDICARE_LEVY_RATE = 0.015;
-	
-	// The following constants are used for the nonresident tax calculations.
-	private static final int NONRESIDENT_TAXABLE_INCOME1 = 37000;
-	private static final double NONRESIDENT_TAXABLE_INCOME1_RATE = 0.29;
-	private static final int NONRESIDENT_TAXABLE_INCOME2 = 80000;
-	private static final int NONRESIDENT_TAXABLE_INCOME2_TAX = 10730;
-	private static final double NONRESIDENT_TAXABLE_INCOME2_RATE = 0.30;
-	private static final int NONRESIDENT_TAXABLE_INCOME3 = 180000;
-	private static final int NONRESIDENT_TAXABLE_INCOME3_TAX = 23630;
-	private static final double NONRESIDENT_TAXABLE_INCOME3_RATE = 0.37;
-	private static final int NONRESIDENT_TAXABLE_INCOME4_TAX = 60630;
-	private static final double NONRESIDENT_TAXABLE_INCOME4_RATE = 0.45;
-	
 	// Some miscellaneous constants.
-	private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#0.00");
 	private static final int WEEKS_PER_YEAR = 52;
 	
 	// The following constants are used for formatting purposes by the toString method.
@@ -61,13 +38,24 @@ public class Client {
 
 	// Instance attributes.
 	private String name;
-	private Account account1, account2;
+	private final Portfolio portfolio;
 	private double grossSalary;
 	private double netSalary;
 	private boolean resident;
 	private double tax;
 	private double medicare;
 	private double weeklyExpenses;
+	private String taxYear;
+	private double weeklyNetSalary;
+	private double weeklyTax;
+	private double availableFunds;
+	
+	// The following attributes indicate whether each derived value is up to date with the values it depends on.
+	private boolean taxCalculated;
+	private boolean medicareCalculated;
+	private boolean netSalaryCalculated;
+	private boolean weeklyCalculated; // The weekly net salary and weekly tax.
+	private boolean fundsCalculated;
 	
 	/**
 	* The default constructor. It chains with initial values to the second constructor.
@@ -93,22 +81,11 @@ public class Client {
 	* @param resident boolean - A boolean value indicating whether the client is a resident or not.
 	*/
 	public Client(String name, double grossSalary, boolean resident) {
+		this.portfolio = new Portfolio();
 		this.setName(name);
 		this.setGrossSalary(grossSalary);
 		this.setResident(resident);
-	}
-	
-	/**
-	* The calcTaxFormula method is used by the calcTax method to calculate the income tax based on a set of parameters. It is a separate
-	* method to avoid the repeated logic experienced throughout the conditions. It receives the taxableIncome (in being the last amount of 
-	* the previous tax bracket) which is then subtracted from the gross salary, in order to get the range for the taxable income. It is then multiplied
-	* by the taxableRate variable. The taxAmount is just an additional tax amount that is added to the other calculated amount.
-	* @param taxableIncome double - The last amount of the previous tax bracket.
-	* @param taxableRate double - The tax rate for each dollar over the taxableIncome bracket.
-	* @param taxAmount double - An additional tax amount that is added to the calculated value.
-	*/
-	private double calcTaxFormula(double taxableIncome, double taxableRate, double taxAmount) {
-		return (((this.getGrossSalary() - taxableIncome) * taxableRate) + taxAmount);
+		this.setTaxYear(TaxTable.DEFAULT_YEAR);
 	}
 	
 	public void setName(String name) {
@@ -119,24 +96,54 @@ public class Client {
 		return this.name;
 	}
 	
+	/**
+	* The setAccount1 method stores the account into the first slot of the portfolio (or removes it, if the account is null).
+	* The values of the account are copied, so later changes to the Account object require it to be set again.
+	* @param account1 Account - The account, or null.
+	*/
 	public void setAccount1(Account account1) {
-		this.account1 = account1;
+		this.getPortfolio().setAccount(0, account1);
 	}
 	
+	/**
+	* The getAccount1 method retrieves a copy of the account in the first slot of the portfolio.
+	* @return Account - The account, or null if there isn't one.
+	*/
 	public Account getAccount1() {
-		return this.account1;
+		return this.getPortfolio().getAccount(0);
 	}
 	
 	public void setAccount2(Account account2) {
-		this.account2 = account2;
+		this.getPortfolio().setAccount(1, account2);
 	}
 	
 	public Account getAccount2() {
-		return this.account2;
+		return this.getPortfolio().getAccount(1);
+	}
+	
+	public Portfolio getPortfolio() {
+		return this.portfolio;
 	}
 	
+	/**
+	* The getInvestedFunds method retrieves the total amount invested each week by all of the client's accounts. The total is
+	* maintained by the portfolio, so it is retrieved in constant time.
+	* @return double - The total weekly investment.
+	*/
+	public double getInvestedFunds() {
+		return this.getPortfolio().getTotalAmount();
+	}
+	
+	/**
+	* The setGrossSalary method changes the gross salary. If the value is different, then the tax and medicare will be calculated
+	* again when they are next retrieved.
+	* @param grossSalary double - The gross salary.
+	*/
 	public void setGrossSalary(double grossSalary) {
-		this.grossSalary = grossSalary;
+		if (Double.compare(grossSalary, this.grossSalary) != 0) {
+			this.grossSalary = grossSalary;
+			this.invalidateTax();
+		}
 	}
 	
 	public double getGrossSalary() {
@@ -145,60 +152,111 @@ public class Client {
 	
 	public void setNetSalary(double netSalary) {
 		this.netSalary = netSalary;
+		this.netSalaryCalculated = true;
+		this.weeklyCalculated = false;
+		this.fundsCalculated = false;
 	}
 	
+	/**
+	* The getNetSalary method retrieves the net salary, calculating it first if the gross salary, tax or medicare have changed.
+	* @return double - The net salary.
+	*/
 	public double getNetSalary() {
+		if (!this.netSalaryCalculated) {
+			this.calcNetSalary();
+		}
 		return this.netSalary;
 	}
 	
 	/**
 	* The getWeeklyNetSalary method is used to retrieve the net salary for each week. It is calculated by dividing the annual amount by
-	* the amount of weeks in the year, and then rounded to two decimal places.
+	* the amount of weeks in the year, and then rounded to two decimal places. It is kept until the net salary changes.
 	* @return double - The weekly net salary rounded to two decimal places.
 	*/
 	public double getWeeklyNetSalary() {
-		// Performs the calculation, then formats the result with the DecimalFormat utility class instance. It then converts that 
-		// resulting String back to a double using the parseDouble method.
-		return Double.parseDouble(DECIMAL_FORMAT.format((this.getNetSalary() /WEEKS_PER_YEAR)));
+		if (!this.weeklyCalculated) {
+			this.calcWeekly();
+		}
+		return this.weeklyNetSalary;
 	}
 	
 	public void setResident(boolean resident) {
-		this.resident = resident;
+		if (resident != this.resident) {
+			this.resident = resident;
+			this.invalidateTax();
+		}
 	}
 	
 	public boolean getResident() {
 		return this.resident;
 	}
 	
+	public void setTaxYear(String taxYear) {
+		if (!Objects.equals(taxYear, this.taxYear)) {
+			this.taxYear = taxYear;
+			this.invalidateTax();
+		}
+	}
+	
+	public String getTaxYear() {
+		return this.taxYear;
+	}
+	
 	public void setTax(double tax) {
 		this.tax = tax;
+		this.taxCalculated = true;
+		this.invalidateNetSalary();
 	}
 	
+	/**
+	* The getTax method retrieves the income tax, calculating it first if the gross salary, residency or financial year have changed.
+	* @return double - The income tax.
+	*/
 	public double getTax() {
+		if (!this.taxCalculated) {
+			this.calcTax();
+		}
 		return this.tax;
 	}
 	
 	/**
 	* The getWeeklyTax method is used to retrieve the weekly amount of tax being paid. It is calculated based on the annual tax, that
-	* is then divided by the amount of weeks in a year. The result is then rounded to two decimal places.
+	* is then divided by the amount of weeks in a year. The result is then rounded to two decimal places. It is kept until the tax changes.
 	* @return double - The weekly tax rounded to two decimal places.
 	*/
 	public double getWeeklyTax() {
-		// Performs the calculation, then formats the result with the DecimalFormat utility class instance. It then converts that 
-		// resulting String back to a double using the parseDouble method.
-		return Double.parseDouble(DECIMAL_FORMAT.format((this.getTax() /WEEKS_PER_YEAR)));
+		if (!this.weeklyCalculated) {
+			this.calcWeekly();
+		}
+		return this.weeklyTax;
 	}
 	
 	public void setMedicare(double medicare) {
 		this.medicare = medicare;
+		this.medicareCalculated = true;
+		this.invalidateNetSalary();
 	}
 	
+	/**
+	* The getMedicare method retrieves the medicare levy, calculating it first if the gross salary, residency or financial year
+	* have changed.
+	* @return double - The medicare levy.
+	*/
 	public double getMedicare() {
+		if (!this.medicareCalculated) {
+			this.calcMedicare();
+		}
 		return this.medicare;
 	}
 	
+	/**
+	* The setWeeklyExpenses method changes the weekly expenses. Only the available funds depend on them, so the tax isn't
+	* calculated again.
+	* @param weeklyExpenses double - The weekly expenses.
+	*/
 	public void setWeeklyExpenses(double weeklyExpenses) {
 		this.weeklyExpenses = weeklyExpenses;
+		this.fundsCalculated = false;
 	}
 	
 	public double getWeeklyExpenses() {
@@ -207,89 +265,142 @@ public class Client {
 	
 	/**
 	* The getAvailableFunds method is used to retrieve the funds that are left after the weekly expenses have been deducted.
-	* It rounds the amount to two decimal places (which enables for the figure to be compared with other values easier).
+	* It rounds the amount to two decimal places (which enables for the figure to be compared with other values easier). It is
+	* kept until the net salary or the weekly expenses change.
 	* @return double - The remaining funds rounded to two decimal places.
 	*/
 	public double getAvailableFunds() {
-		// Performs the calculation, then formats the result with the DecimalFormat utility class instance. It then converts that 
-		// resulting String back to a double using the parseDouble method.
-		return Double.parseDouble(DECIMAL_FORMAT.format((this.getWeeklyNetSalary() - this.getWeeklyExpenses())));
+		if (!this.fundsCalculated) {
+			// Performs the calculation, then rounds the result to whole cents using the Money class.
+			this.availableFunds = Money.round(this.getWeeklyNetSalary() - this.getWeeklyExpenses());
+			this.fundsCalculated = true;
+		}
+		return this.availableFunds;
+	}
+	
+	/**
+	* The calcWeekly method calculates the weekly net salary and weekly tax, by dividing the annual amounts by the amount of weeks
+	* in the year. The results are rounded to whole cents using the Money class.
+	*/
+	private void calcWeekly() {
+		this.weeklyNetSalary = Money.round(this.getNetSalary() / WEEKS_PER_YEAR);
+		this.weeklyTax = Money.round(this.getTax() / WEEKS_PER_YEAR);
+		this.weeklyCalculated = true;
+	}
+	
+	/**
+	* The invalidateTax method marks the tax and medicare as changed, along with the values derived from them.
+	*/
+	private void invalidateTax() {
+		this.taxCalculated = false;
+		this.medicareCalculated = false;
+		this.invalidateNetSalary();
+	}
+	
+	/**
+	* The invalidateNetSalary method marks the net salary as changed, along with the weekly figures and available funds.
+	*/
+	private void invalidateNetSalary() {
+		this.netSalaryCalculated = false;
+		this.weeklyCalculated = false;
+		this.fundsCalculated = false;
+	}
+	
+	/**
+	* The static calcTax method performs the income tax calculation for the received gross salary and residency (using the default
+	* financial year), without requiring a Client object. It is shared by the PayrollBatch class, which calculates the tax for whole
+	* arrays of employees.
+	* @param grossSalary double - The gross salary.
+	* @param resident boolean - A boolean value indicating whether the client is a resident or not.
+	* @return double - The calculated income tax.
+	*/
+	public static double calcTax(double grossSalary, boolean resident) {
+		return TaxTable.getTable(resident).calcTax(grossSalary);
 	}
 	
 	/**
 	* The calcTax method is used to calculate the income tax; it performs the tax calculation based on their residency and gross salary.
-	* The result is then assigned to the tax instance attribute via the setter. It uses the partner method calcTaxFormula, passing in the
-	* different arguments for each condition, which is done to avoid repeated logic.
+	* The result is then assigned to the tax instance attribute via the setter. The brackets are retrieved from the TaxTable for the
+	* client's financial year and residency. If a shared TaxCache has been set, the result is retrieved from the cache instead, and
+	* the medicare levy is set from the same result (so each calculation only counts as a single lookup). If shared Metrics have
+	* been set, the calculation is measured.
 	*/
 	public void calcTax() {
-		double tax = 0;
-		// If the user is a resident, then it will complete the income calculations based on the tax rates for residents.
-		if (this.getResident()) {
-			// If the income is less than or equal to $6,000
-			if (this.getGrossSalary() <= RESIDENT_TAXABLE_INCOME1) {
-				tax = 0; // Then the tax would be nil.
-			// Otherwise, if the income is less than or equal to $37,000
-			} else if (this.getGrossSalary() <= RESIDENT_TAXABLE_INCOME2) {
-				// Then the tax would be 15c for each $1 over $6,000.
-				tax = this.calcTaxFormula(RESIDENT_TAXABLE_INCOME1, RESIDENT_TAXABLE_INCOME2_RATE, 0);
-			// Otherwise, if the income is less than or equal to $80,000
-			} else if (this.getGrossSalary() <= RESIDENT_TAXABLE_INCOME3) {
-				// Then the tax would be $4,650 plus 30c for each $1 over $37,000.
-				tax = this.calcTaxFormula(RESIDENT_TAXABLE_INCOME2, RESIDENT_TAXABLE_INCOME3_RATE, RESIDENT_TAXABLE_INCOME3_TAX);
-			// Otherwise, if the income is less than or equal to $180,000
-			} else if (this.getGrossSalary() <= RESIDENT_TAXABLE_INCOME4) {
-				// Then the tax would be $17,550 plus 37c for each $1 over $80,000
-				tax = this.calcTaxFormula(RESIDENT_TAXABLE_INCOME3, RESIDENT_TAXABLE_INCOME4_RATE, RESIDENT_TAXABLE_INCOME4_TAX);
-			// Otherwise, the income would be over $180,000
-			} else {
-				// Therefore, the tax would be $54,550 plus 45c for each $1 over $180,000
-				tax = this.calcTaxFormula(RESIDENT_TAXABLE_INCOME4, RESIDENT_TAXABLE_INCOME5_RATE, RESIDENT_TAXABLE_INCOME5_TAX);
-			}				
-		// Otherwise it will do the income calculations based on the tax rates for nonresidents.
+		Metrics metrics = Metrics.getShared();
+		long start = 0, allocation = 0;
+		if (metrics != null) {
+			start = metrics.start();
+			allocation = metrics.startAllocation();
+		}
+		TaxCache cache = TaxCache.getShared();
+		if (cache != null) {
+			this.setCachedResult(cache);
 		} else {
-			// If the income is less than or equal to $37,000
-			if (this.getGrossSalary() <= NONRESIDENT_TAXABLE_INCOME1) {
-				// Then the tax would be 29c for each $1.
-				tax = this.calcTaxFormula(0, NONRESIDENT_TAXABLE_INCOME1_RATE, 0);
-			// Otherwise, if the income is less than or equal to $80,000
-			} else if (this.getGrossSalary() <= NONRESIDENT_TAXABLE_INCOME2) {
-				// Then the tax would be $10,730 plus 30c for each $1 over $37,000.
-				tax = this.calcTaxFormula(NONRESIDENT_TAXABLE_INCOME1, NONRESIDENT_TAXABLE_INCOME2_RATE, NONRESIDENT_TAXABLE_INCOME2_TAX);
-			// Otherwise, if the income is less than or equal to $180,000
-			} else if (this.getGrossSalary() <= NONRESIDENT_TAXABLE_INCOME3) {
-				// Then the tax would be $23,630 plus 37c for each $1 over $80,000
-				tax = this.calcTaxFormula(NONRESIDENT_TAXABLE_INCOME2, NONRESIDENT_TAXABLE_INCOME3_RATE, NONRESIDENT_TAXABLE_INCOME3_TAX);
-			// Otherwise, the income would be over $180,000
-			} else {
-				// Therefore, the tax would be $60,630 plus 45c for each $1 over $180,000
-				tax = this.calcTaxFormula(NONRESIDENT_TAXABLE_INCOME3, NONRESIDENT_TAXABLE_INCOME4_RATE, NONRESIDENT_TAXABLE_INCOME4_TAX);
-			}
+			this.setTax(TaxTable.getTable(this.getTaxYear(), this.getResident()).calcTax(this.getGrossSalary()));
+		}
+		if (metrics != null) {
+			metrics.record(Metrics.Operation.CALC_TAX, start, allocation);
 		}
-		this.setTax(tax);
+	}
+	
+	/**
+	* The static calcMedicare method calculates the medicare levy for the received gross salary and residency (using the default
+	* financial year). A nonresident doesn't pay the levy, so therefore zero is returned for them.
+	* @param grossSalary double - The gross salary.
+	* @param resident boolean - A boolean value indicating whether the client is a resident or not.
+	* @return double - The calculated medicare levy.
+	*/
+	public static double calcMedicare(double grossSalary, boolean resident) {
+		return TaxTable.getTable(resident).calcMedicare(grossSalary);
 	}
 	
 	/**
 	* The calcMedicare method will only calculate the medicare tax if the client is a resident, and also if the client earns more than the medicare
-	* levy threshold. The calculation is done by multiplying the gross salary with the medicare levy rate. It sets the result to the medicare attribute
-	* via its setter.
+	* levy threshold. The levy threshold and rate are retrieved from the TaxTable for the client's financial year (or the result is
+	* retrieved from the shared TaxCache, if one has been set, which also sets the income tax). It sets the result to the medicare
+	* attribute via its setter. A nonresident doesn't pay the levy, so therefore it is set to zero for them.
 	*/
 	public void calcMedicare() {
-		// If the client is a resident it will calculate the medicare tax.
-		if (this.getResident()) {
-			// If the income is greater than or equal to the medicare levy amount (being $20,000) then 
-			// the medicare tax is calculated at 1.5% of the taxable income. It sets the calculated value
+		TaxCache cache = TaxCache.getShared();
+		if (cache != null) {
+			this.setCachedResult(cache);
+		} else if (this.getResident()) {
+			// If the client is a resident it will calculate the medicare tax, and set the calculated value
 			// to the medicare attribute via the setter method.
-			this.setMedicare((this.getGrossSalary() >= MEDICARE_LEVY) ? 
-				(this.getGrossSalary() * MEDICARE_LEVY_RATE) : 0);
+			this.setMedicare(TaxTable.getTable(this.getTaxYear(), true).calcMedicare(this.getGrossSalary()));
+		} else {
+			this.setMedicare(0);
 		}
 	}
 	
+	/**
+	* The setCachedResult method retrieves the TaxResult for the client's gross salary from the cache once, and sets both the
+	* income tax and the medicare levy from it (the levy is zero for a nonresident).
+	* @param cache TaxCache - The shared cache.
+	*/
+	private void setCachedResult(TaxCache cache) {
+		TaxResult result = cache.get(TaxTable.getTable(this.getTaxYear(), this.getResident()), this.getGrossSalary());
+		this.setTax(result.getTax());
+		this.setMedicare((this.getResident()) ? result.getMedicare() : 0);
+	}
+	
+	/**
+	* The static calcNetSalary method calculates the net salary from the gross salary, once the income and medicare tax are known.
+	* @param grossSalary double - The gross salary.
+	* @param tax double - The income tax.
+	* @param medicare double - The medicare levy.
+	* @return double - The net salary.
+	*/
+	public static double calcNetSalary(double grossSalary, double tax, double medicare) {
+		return ((grossSalary - tax) - medicare);
+	}
+	
 	/**
 	* The calcNetSalary method is used to calculate the net salary after the income and medicare tax have been calculated. It sets the result to
 	* the netSalary attribute via its setter.
 	*/
 	public void calcNetSalary() {
-		this.setNetSalary((this.getGrossSalary() - this.getTax()) - this.getMedicare());
+		this.setNetSalary(calcNetSalary(this.getGrossSalary(), this.getTax(), this.getMedicare()));
 	}
 	
 	/**
@@ -299,10 +410,39 @@ public class Client {
 	*/
 	public String toString() {
 		// Instantiates a StringBuilder which is used to concatenate the output.
-		StringBuilder builder = new StringBuilder();
-		// The NumberFormat utility class returns a currency instance,
-		// which is used to format the currency values.
-		NumberFormat currency = NumberFormat.getCurrencyInstance();
+		return this.appendTo(new StringBuilder()).toString(); // Returns a String.
+	}
+	
+	/**
+	* The appendTo method appends the same text as the toString method to the received StringBuilder. The currency values are
+	* written by the CurrencyFormatter directly into the builder, so a whole payroll can be rendered into one builder without
+	* creating a String for each value. It is used by every program (the interactive sessions, and the reports), so if shared
+	* Metrics have been set, the formatting is measured here.
+	* @param builder StringBuilder - The builder that receives the text.
+	* @return StringBuilder - The received builder.
+	*/
+	public StringBuilder appendTo(StringBuilder builder) {
+		Metrics metrics = Metrics.getShared();
+		long start = 0, allocation = 0;
+		if (metrics != null) {
+			start = metrics.start();
+			allocation = metrics.startAllocation();
+		}
+		this.appendText(builder);
+		if (metrics != null) {
+			metrics.record(Metrics.Operation.CLIENT_APPEND, start, allocation);
+		}
+		return builder;
+	}
+	
+	/**
+	* The appendText method appends the text of the appendTo method.
+	* @param builder StringBuilder - The builder that receives the text.
+	* @return StringBuilder - The received builder.
+	*/
+	private StringBuilder appendText(StringBuilder builder) {
+		// The CurrencyFormatter is used to format the currency values.
+		CurrencyFormatter currency = CurrencyFormatter.getInstance();
 		// The client's full name.
 		builder.append(NEW_LINE);  
 		builder.append(LABEL_NAME); 
@@ -315,11 +455,11 @@ public class Client {
 		builder.append(NEW_LINE); 
 		// The weekly net salary amount.
 		builder.append(LABEL_PER_WEEK); 
-		builder.append(currency.format(this.getWeeklyNetSalary()));
+		currency.append(builder, this.getWeeklyNetSalary());
 		builder.append(NEW_LINE);  
 		// The annual net salary amount.
 		builder.append(LABEL_PER_YEAR); 
-		builder.append(currency.format(this.getNetSalary()));
+		currency.append(builder, this.getNetSalary());
 		builder.append(NEW_LINE); 
 		
 		// The tax paid heading
@@ -328,18 +468,18 @@ public class Client {
 		builder.append(NEW_LINE); 
 		// The weekly tax being paid.
 		builder.append(LABEL_PER_WEEK); 
-		builder.append(currency.format(this.getWeeklyTax()));
+		currency.append(builder, this.getWeeklyTax());
 		builder.append(NEW_LINE); 
 		// The annual tax being paid.
 		builder.append(LABEL_PER_YEAR); 
-		builder.append(currency.format(this.getTax()));
+		currency.append(builder, this.getTax());
 		builder.append(NEW_LINE); 
 		
 		// The medicare tax.
 		builder.append(NEW_LINE); 
 		builder.append(LABEL_MEDICARE); 
-		builder.append(currency.format(this.getMedicare()));
+		currency.append(builder, this.getMedicare());
 		
-		return builder.toString(); // Returns a String.
+		return builder; // Returns the builder.
 	}	
 }
\ No newline at end of file
@@ -0,0 +1,264 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to read a file of client records (written by the ClientRecordWriter). The file is memory mapped, and
+ *  since every record has the same size, any record can be read by its index without reading the records before it. The
+ *  fields can be read individually (without creating any objects), or a whole record can be loaded into a Client with its
+ *  two accounts. The tax, medicare and net salary are stored in the record, so they aren't calculated again.
+ *
+ *  File layout (little-endian): a 16 byte header (the magic number, version, record size, and a reserved int), followed by
+ *  the records. Each record is 128 bytes:
+ *    0 gross salary, 8 tax, 16 medicare, 24 net salary, 32 weekly expenses (doubles)
+ *    40 account 1 amount, 48 account 1 rate, 56 account 2 amount, 64 account 2 rate (doubles)
+ *    72 account 1 weeks, 76 account 2 weeks, 80 flags (resident, account 1 exists, account 2 exists) (ints)
+ *    84 tax year (12 bytes), 96 name (32 bytes, UTF-8 padded with zeros, and truncated if it is longer)
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ClientRecordFile implements Closeable {
+
+	// The following constants describe the layout of the file, and are shared with the ClientRecordWriter.
+	static final int MAGIC = 0x544E4C43; // "CLNT"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	static final int RECORD_SIZE = 128;
+	static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	static final int GROSS_SALARY = 0;
+	static final int TAX = 8;
+	static final int MEDICARE = 16;
+	static final int NET_SALARY = 24;
+	static final int WEEKLY_EXPENSES = 32;
+	static final int[] AMOUNT = {40, 56};
+	static final int[] RATE = {48, 64};
+	static final int[] WEEKS = {72, 76};
+	static final int FLAGS = 80;
+	static final int TAX_YEAR = 84;
+	static final int TAX_YEAR_SIZE = 12;
+	static final int NAME = 96;
+	static final int NAME_SIZE = 32;
+	static final int FLAG_RESIDENT = 1;
+	static final int[] FLAG_ACCOUNT = {2, 4};
+
+	// The file is mapped in segments (of 1 GiB), since a single mapping is limited to 2 GiB.
+	private static final int SEGMENT_SHIFT = 23;
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_FORMAT = "Error: %s isn't a client record file.";
+	private static final String ERROR_VERSION = "Error: The client record file version %d isn't supported.";
+	private static final String ERROR_INDEX = "Error: The record %d must be between 0 and %d.";
+
+	// Instance attributes.
+	private final FileChannel channel;
+	private final ByteBuffer[] segments;
+	private final int size;
+
+	/**
+	* The constructor is private, since the open method is used to create the object.
+	*/
+	private ClientRecordFile(FileChannel channel, ByteBuffer[] segments, int size) {
+		this.channel = channel;
+		this.segments = segments;
+		this.size = size;
+	}
+
+	/**
+	* The static open method maps the file, and validates its header.
+	* @param path Path - The file.
+	* @return ClientRecordFile - The opened file, which should be closed once it is no longer required.
+	* @throws IOException - If the file couldn't be read, or isn't a client record file.
+	*/
+	public static ClientRecordFile open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long length = channel.size();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					break;
+				}
+			}
+			if (header.hasRemaining() || (header.getInt(0) != MAGIC) || (header.getInt(8) != RECORD_SIZE)) {
+				throw new IOException(String.format(ERROR_FORMAT, path));
+			}
+			if (header.getInt(4) != VERSION) {
+				throw new IOException(String.format(ERROR_VERSION, header.getInt(4)));
+			}
+			long records = (length - HEADER_SIZE) / RECORD_SIZE;
+			if (records > Integer.MAX_VALUE) {
+				throw new IOException(String.format(ERROR_FORMAT, path));
+			}
+			// Maps each segment of the records (a partial record at the end of the file is ignored).
+			ByteBuffer[] segments = new ByteBuffer[(int)((records + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+			for (int i = 0; i < segments.length; i++) {
+				long first = ((long)i) << SEGMENT_SHIFT;
+				long count = Math.min(records - first, SEGMENT_MASK + 1L);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + (first * RECORD_SIZE),
+					count * RECORD_SIZE).order(BYTE_ORDER);
+			}
+			return new ClientRecordFile(channel, segments, (int)records);
+		} catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	* The size method retrieves the amount of records in the file.
+	* @return int - The amount of records.
+	*/
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	* The segment method retrieves the mapped segment that contains the record.
+	* @param index int - The record.
+	* @return ByteBuffer - The segment.
+	* @throws IndexOutOfBoundsException - If the record doesn't exist.
+	*/
+	private ByteBuffer segment(int index) {
+		if ((index < 0) || (index >= this.size)) {
+			throw new IndexOutOfBoundsException(String.format(ERROR_INDEX, index, this.size - 1));
+		}
+		return this.segments[index >>> SEGMENT_SHIFT];
+	}
+
+	/**
+	* The offset method retrieves the position of a field within the segment of the record.
+	* @param index int - The record.
+	* @param field int - The position of the field within the record.
+	* @return int - The position within the segment.
+	*/
+	private static int offset(int index, int field) {
+		return ((index & SEGMENT_MASK) * RECORD_SIZE) + field;
+	}
+
+	public double getGrossSalary(int index) {
+		return this.segment(index).getDouble(offset(index, GROSS_SALARY));
+	}
+
+	public boolean getResident(int index) {
+		return ((this.segment(index).getInt(offset(index, FLAGS)) & FLAG_RESIDENT) != 0);
+	}
+
+	public double getTax(int index) {
+		return this.segment(index).getDouble(offset(index, TAX));
+	}
+
+	public double getMedicare(int index) {
+		return this.segment(index).getDouble(offset(index, MEDICARE));
+	}
+
+	public double getNetSalary(int index) {
+		return this.segment(index).getDouble(offset(index, NET_SALARY));
+	}
+
+	public double getWeeklyExpenses(int index) {
+		return this.segment(index).getDouble(offset(index, WEEKLY_EXPENSES));
+	}
+
+	public String getTaxYear(int index) {
+		return this.getString(index, TAX_YEAR, TAX_YEAR_SIZE);
+	}
+
+	public String getName(int index) {
+		return this.getString(index, NAME, NAME_SIZE);
+	}
+
+	/**
+	* The hasAccount method determines whether the client has the account.
+	* @param index int - The record.
+	* @param account int - The account (zero for account 1, or one for account 2).
+	* @return boolean - Whether the account exists.
+	*/
+	public boolean hasAccount(int index, int account) {
+		return ((this.segment(index).getInt(offset(index, FLAGS)) & FLAG_ACCOUNT[account]) != 0);
+	}
+
+	public double getAmount(int index, int account) {
+		return this.segment(index).getDouble(offset(index, AMOUNT[account]));
+	}
+
+	public double getRate(int index, int account) {
+		return this.segment(index).getDouble(offset(index, RATE[account]));
+	}
+
+	public int getNumberOfWeeks(int index, int account) {
+		return this.segment(index).getInt(offset(index, WEEKS[account]));
+	}
+
+	/**
+	* The getString method decodes a text field, which ends at the first zero byte (or the end of the field).
+	* @param index int - The record.
+	* @param field int - The position of the field within the record.
+	* @param fieldSize int - The size of the field.
+	* @return String - The text.
+	*/
+	private String getString(int index, int field, int fieldSize) {
+		ByteBuffer segment = this.segment(index);
+		int start = offset(index, field);
+		int length = 0;
+		while ((length < fieldSize) && (segment.get(start + length) != 0)) {
+			length++;
+		}
+		byte[] bytes = new byte[length];
+		segment.get(start, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	* The readClient method loads a record into a new Client object (with its accounts).
+	* @param index int - The record.
+	* @return Client - The client.
+	*/
+	public Client readClient(int index) {
+		return this.readClient(index, new Client());
+	}
+
+	/**
+	* The readClient method loads a record into the received Client object. The client's portfolio (and its arrays) is
+	* reused for the record's accounts.
+	* @param index int - The record.
+	* @param client Client - The client that receives the record.
+	* @return Client - The received client.
+	*/
+	public Client readClient(int index, Client client) {
+		client.setName(this.getName(index));
+		client.setTaxYear(this.getTaxYear(index));
+		client.setGrossSalary(this.getGrossSalary(index));
+		client.setResident(this.getResident(index));
+		client.setTax(this.getTax(index));
+		client.setMedicare(this.getMedicare(index));
+		client.setNetSalary(this.getNetSalary(index));
+		client.setWeeklyExpenses(this.getWeeklyExpenses(index));
+		// The accounts are stored into the client's portfolio directly (any accounts beyond the record's are removed).
+		Portfolio portfolio = client.getPortfolio();
+		portfolio.clear();
+		for (int account = 0; account < AMOUNT.length; account++) {
+			if (this.hasAccount(index, account)) {
+				portfolio.setAccount(account, this.getAmount(index, account), this.getRate(index, account),
+					this.getNumberOfWeeks(index, account));
+			}
+		}
+		return client;
+	}
+
+	/**
+	* The close method closes the file. The mapped records are released once they are no longer referenced.
+	* @throws IOException - If the file couldn't be closed.
+	*/
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to write clients (with their calculated tax, and their two accounts) sequentially into a client
+ *  record file, which can then be read back with the ClientRecordFile. The records are written into a direct ByteBuffer,
+ *  which is written to the file once it is full, or when the writer is flushed or closed. See the ClientRecordFile for
+ *  the layout of the file.
+ */
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ClientRecordWriter implements Closeable, Flushable {
+
+	// The amount of records buffered before they are written to the file.
+	private static final int BUFFERED_RECORDS = 8192;
+
+	// The following constant is used for the error message.
+	private static final String ERROR_ACCOUNTS = "Error: A client record can only hold %d accounts (the client has %d).";
+
+	// Instance attributes.
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final CharsetEncoder encoder;
+	private long records;
+
+	/**
+	* The constructor creates the file (replacing it if it already exists), and writes the header.
+	* @param path Path - The file.
+	* @throws IOException - If the file couldn't be created.
+	*/
+	public ClientRecordWriter(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING);
+		this.buffer = ByteBuffer.allocateDirect(BUFFERED_RECORDS * ClientRecordFile.RECORD_SIZE).order(ClientRecordFile.BYTE_ORDER);
+		this.encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.buffer.putInt(ClientRecordFile.MAGIC);
+		this.buffer.putInt(ClientRecordFile.VERSION);
+		this.buffer.putInt(ClientRecordFile.RECORD_SIZE);
+		this.buffer.putInt(0);
+	}
+
+	public long getRecords() {
+		return this.records;
+	}
+
+	/**
+	* The write method appends a record for the client. The tax, medicare and net salary must already be calculated.
+	* A record holds the first two slots of the client's portfolio, so a client with accounts beyond them is rejected.
+	* @param client Client - The client (including its accounts, if it has any).
+	* @throws IOException - If the buffered records couldn't be written to the file.
+	* @throws IllegalArgumentException - If the client has more accounts than a record can hold.
+	*/
+	public void write(Client client) throws IOException {
+		if (client.getPortfolio().size() > ClientRecordFile.AMOUNT.length) {
+			throw new IllegalArgumentException(String.format(ERROR_ACCOUNTS, ClientRecordFile.AMOUNT.length, client.getPortfolio().size()));
+		}
+		if (this.buffer.remaining() < ClientRecordFile.RECORD_SIZE) {
+			this.flush();
+		}
+		ByteBuffer record = this.buffer;
+		int start = record.position();
+		record.putDouble(start + ClientRecordFile.GROSS_SALARY, client.getGrossSalary());
+		record.putDouble(start + ClientRecordFile.TAX, client.getTax());
+		record.putDouble(start + ClientRecordFile.MEDICARE, client.getMedicare());
+		record.putDouble(start + ClientRecordFile.NET_SALARY, client.getNetSalary());
+		record.putDouble(start + ClientRecordFile.WEEKLY_EXPENSES, client.getWeeklyExpenses());
+		int flags = ((client.getResident()) ? ClientRecordFile.FLAG_RESIDENT : 0);
+		// The values are read from the client's portfolio directly, rather than creating a copy of each Account.
+		Portfolio portfolio = client.getPortfolio();
+		for (int i = 0; i < ClientRecordFile.AMOUNT.length; i++) {
+			boolean present = portfolio.hasAccount(i);
+			record.putDouble(start + ClientRecordFile.AMOUNT[i], present ? portfolio.getAmount(i) : 0);
+			record.putDouble(start + ClientRecordFile.RATE[i], present ? portfolio.getRate(i) : 0);
+			record.putInt(start + ClientRecordFile.WEEKS[i], present ? portfolio.getNumberOfWeeks(i) : 0);
+			flags |= (present ? ClientRecordFile.FLAG_ACCOUNT[i] : 0);
+		}
+		record.putInt(start + ClientRecordFile.FLAGS, flags);
+		this.putString(start + ClientRecordFile.TAX_YEAR, ClientRecordFile.TAX_YEAR_SIZE, client.getTaxYear());
+		this.putString(start + ClientRecordFile.NAME, ClientRecordFile.NAME_SIZE, client.getName());
+		record.position(start + ClientRecordFile.RECORD_SIZE);
+		this.records++;
+	}
+
+	/**
+	* The putString method encodes the text into a field, padding it with zeros. Text that is too long is truncated on a
+	* character boundary.
+	* @param position int - The position of the field within the buffer.
+	* @param fieldSize int - The size of the field.
+	* @param text String - The text, or null for an empty field.
+	*/
+	private void putString(int position, int fieldSize, String text) {
+		ByteBuffer field = this.buffer.duplicate();
+		field.limit(position + fieldSize).position(position);
+		if (text != null) {
+			this.encoder.reset();
+			this.encoder.encode(CharBuffer.wrap(text), field, true);
+		}
+		while (field.hasRemaining()) {
+			field.put((byte)0);
+		}
+	}
+
+	/**
+	* The flush method writes the buffered records to the file.
+	* @throws IOException - If the records couldn't be written.
+	*/
+	public void flush() throws IOException {
+		this.buffer.flip();
+		while (this.buffer.hasRemaining()) {
+			this.channel.write(this.buffer);
+		}
+		this.buffer.clear();
+	}
+
+	/**
+	* The close method writes the buffered records, and closes the file.
+	* @throws IOException - If the records couldn't be written, or the file couldn't be closed.
+	*/
+	public void close() throws IOException {
+		try {
+			this.flush();
+		} finally {
+			this.channel.close();
+		}
+	}
+}
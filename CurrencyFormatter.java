@@ -0,0 +1,251 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to format currency values, producing the same text as NumberFormat.getCurrencyInstance() for the
+ *  locale. Rather than creating a new String for each value, the amount is rounded to a whole number of cents (half-even,
+ *  using the exact value of the double), and the characters are written directly into a StringBuilder, CharBuffer, or
+ *  ByteBuffer supplied by the caller. An instance isn't thread-safe (it reuses an internal character array), so the
+ *  getInstance method provides a separate instance for each thread.
+ */
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+public class CurrencyFormatter {
+
+	// The size of the internal buffer. Amounts too large for the Money class to round (or not finite) are given to the NumberFormat.
+	private static final int BUFFER_SIZE = 64;
+	private static final char SPACE = ' ';
+
+	// The formatter used by each thread for the default locale.
+	private static final ThreadLocal<CurrencyFormatter> INSTANCE = ThreadLocal.withInitial(CurrencyFormatter::new);
+
+	// Instance attributes.
+	private final NumberFormat format;
+	private final String positivePrefix;
+	private final String positiveSuffix;
+	private final String negativePrefix;
+	private final String negativeSuffix;
+	private final char zeroDigit;
+	private final char decimalSeparator;
+	private final char groupingSeparator;
+	private final int groupingSize;
+	private final int fractionDigits;
+	private final long scale;
+	private final char[] buffer;
+
+	/**
+	* The default constructor. It chains with the default locale to the main constructor.
+	*/
+	public CurrencyFormatter() {
+		this(Locale.getDefault());
+	}
+
+	/**
+	* The main constructor retrieves the currency format of the locale, and copies the prefixes, suffixes, separators, digits,
+	* and the number of decimal places that are used when formatting.
+	* @param locale Locale - The locale of the currency.
+	*/
+	public CurrencyFormatter(Locale locale) {
+		this.format = NumberFormat.getCurrencyInstance(locale);
+		DecimalFormat decimal = (DecimalFormat)this.format;
+		DecimalFormatSymbols symbols = decimal.getDecimalFormatSymbols();
+		this.positivePrefix = decimal.getPositivePrefix();
+		this.positiveSuffix = decimal.getPositiveSuffix();
+		this.negativePrefix = decimal.getNegativePrefix();
+		this.negativeSuffix = decimal.getNegativeSuffix();
+		this.zeroDigit = symbols.getZeroDigit();
+		this.decimalSeparator = symbols.getMonetaryDecimalSeparator();
+		this.groupingSeparator = symbols.getMonetaryGroupingSeparator();
+		this.groupingSize = ((decimal.isGroupingUsed()) ? decimal.getGroupingSize() : 0);
+		this.fractionDigits = decimal.getMaximumFractionDigits();
+		long scale = 1;
+		for (int i = 0; i < this.fractionDigits; i++) {
+			scale *= 10;
+		}
+		this.scale = scale;
+		this.buffer = new char[BUFFER_SIZE];
+	}
+
+	/**
+	* The getInstance method retrieves the formatter for the default locale that belongs to the current thread.
+	* @return CurrencyFormatter - The formatter.
+	*/
+	public static CurrencyFormatter getInstance() {
+		return INSTANCE.get();
+	}
+
+	/**
+	* The append method formats the value, and appends it to the StringBuilder.
+	* @param builder StringBuilder - The builder that receives the formatted value.
+	* @param value double - The currency value.
+	* @return StringBuilder - The received builder.
+	*/
+	public StringBuilder append(StringBuilder builder, double value) {
+		return this.append(builder, value, 0);
+	}
+
+	/**
+	* The append method formats the value, and appends it to the StringBuilder. If the formatted value is shorter than
+	* the width, then it is padded with leading spaces (the same as the %s format with a width).
+	* @param builder StringBuilder - The builder that receives the formatted value.
+	* @param value double - The currency value.
+	* @param width int - The minimum amount of characters.
+	* @return StringBuilder - The received builder.
+	*/
+	public StringBuilder append(StringBuilder builder, double value, int width) {
+		int start = this.fill(value);
+		if (start < 0) {
+			String text = this.format.format(value);
+			for (int i = text.length(); i < width; i++) {
+				builder.append(SPACE);
+			}
+			return builder.append(text);
+		}
+		for (int i = (BUFFER_SIZE - start); i < width; i++) {
+			builder.append(SPACE);
+		}
+		return builder.append(this.buffer, start, BUFFER_SIZE - start);
+	}
+
+	/**
+	* The append method formats the value, and puts it into the CharBuffer.
+	* @param chars CharBuffer - The buffer that receives the formatted value.
+	* @param value double - The currency value.
+	* @return CharBuffer - The received buffer.
+	* @throws BufferOverflowException - If there isn't enough space remaining in the buffer.
+	*/
+	public CharBuffer append(CharBuffer chars, double value) {
+		int start = this.fill(value);
+		if (start < 0) {
+			return chars.put(this.format.format(value));
+		}
+		return chars.put(this.buffer, start, BUFFER_SIZE - start);
+	}
+
+	/**
+	* The append method formats the value, and puts it into the ByteBuffer encoded as UTF-8. Nothing is written
+	* if the buffer doesn't have enough space for the entire value.
+	* @param bytes ByteBuffer - The buffer that receives the formatted value.
+	* @param value double - The currency value.
+	* @return ByteBuffer - The received buffer.
+	* @throws BufferOverflowException - If there isn't enough space remaining in the buffer.
+	*/
+	public ByteBuffer append(ByteBuffer bytes, double value) {
+		int start = this.fill(value);
+		if (start < 0) {
+			// A value formatted by the NumberFormat may be longer than the internal buffer, so it is encoded separately.
+			byte[] encoded = this.format.format(value).getBytes(StandardCharsets.UTF_8);
+			if (bytes.remaining() < encoded.length) {
+				throw new BufferOverflowException();
+			}
+			return bytes.put(encoded);
+		}
+		return encode(bytes, this.buffer, start, BUFFER_SIZE);
+	}
+
+	/**
+	* The format method formats the value into a new String. It exists for convenience, and should be avoided when
+	* formatting many values.
+	* @param value double - The currency value.
+	* @return String - The formatted value.
+	*/
+	public String format(double value) {
+		int start = this.fill(value);
+		return ((start < 0) ? this.format.format(value) : new String(this.buffer, start, BUFFER_SIZE - start));
+	}
+
+	/**
+	* The fill method writes the formatted value into the end of the internal buffer. The value is multiplied by the scale
+	* (100 for cents), and rounded half-even on the exact value of the double by the Money class. This gives the same rounding
+	* as the NumberFormat.
+	* @param value double - The currency value.
+	* @return int - The index of the first character, or -1 if the value must be formatted by the NumberFormat.
+	*/
+	private int fill(double value) {
+		double rounded = Money.roundScaled(value, this.scale);
+		if (rounded != rounded) {
+			return -1;
+		}
+		// The sign bit is used, since a negative amount that rounds to zero is still shown as negative.
+		boolean negative = (Double.doubleToRawLongBits(value) < 0);
+		long amount = Math.abs((long)rounded);
+		int position = BUFFER_SIZE;
+		position = this.fillText(position, (negative) ? this.negativeSuffix : this.positiveSuffix);
+		// The fraction digits, which are padded with zeros.
+		if (this.fractionDigits > 0) {
+			long fraction = amount % this.scale;
+			for (int i = 0; i < this.fractionDigits; i++) {
+				this.buffer[--position] = (char)(this.zeroDigit + (fraction % 10));
+				fraction /= 10;
+			}
+			this.buffer[--position] = this.decimalSeparator;
+		}
+		// The whole digits, with the grouping separator inserted between each group.
+		long whole = amount / this.scale;
+		int digits = 0;
+		do {
+			if ((this.groupingSize > 0) && (digits > 0) && ((digits % this.groupingSize) == 0)) {
+				this.buffer[--position] = this.groupingSeparator;
+			}
+			this.buffer[--position] = (char)(this.zeroDigit + (whole % 10));
+			whole /= 10;
+			digits++;
+		} while (whole > 0);
+		return this.fillText(position, (negative) ? this.negativePrefix : this.positivePrefix);
+	}
+
+	/**
+	* The fillText method writes the text into the internal buffer, ending before the received position.
+	* @param position int - The index after the last character.
+	* @param text String - The text to be written.
+	* @return int - The index of the first character written.
+	*/
+	private int fillText(int position, String text) {
+		text.getChars(0, text.length(), this.buffer, position - text.length());
+		return (position - text.length());
+	}
+
+	/**
+	* The encode method writes the characters into the ByteBuffer as UTF-8. The encoded length is determined first,
+	* so nothing is written if the characters won't fit.
+	* @param bytes ByteBuffer - The buffer that receives the encoded characters.
+	* @param chars char[] - The characters.
+	* @param start int - The index of the first character.
+	* @param end int - The index after the last character.
+	* @return ByteBuffer - The received buffer.
+	* @throws BufferOverflowException - If there isn't enough space remaining in the buffer.
+	*/
+	private static ByteBuffer encode(ByteBuffer bytes, char[] chars, int start, int end) {
+		int length = 0;
+		for (int i = start; i < end; i++) {
+			length += ((chars[i] < 0x80) ? 1 : ((chars[i] < 0x800) ? 2 : 3));
+		}
+		if (bytes.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+		// The currency symbols are within the basic multilingual plane, so each character is either one, two or three bytes.
+		for (int i = start; i < end; i++) {
+			char c = chars[i];
+			if (c < 0x80) {
+				bytes.put((byte)c);
+			} else if (c < 0x800) {
+				bytes.put((byte)(0xC0 | (c >> 6)));
+				bytes.put((byte)(0x80 | (c & 0x3F)));
+			} else {
+				bytes.put((byte)(0xE0 | (c >> 12)));
+				bytes.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+				bytes.put((byte)(0x80 | (c & 0x3F)));
+			}
+		}
+		return bytes;
+	}
+}
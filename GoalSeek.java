@@ -0,0 +1,286 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to answer the questions that are otherwise answered by trying different accounts, such as "how much do
+ *  I need to invest each week to reach $X in N weeks?". It inverts the investment projection for the weekly amount, the
+ *  number of weeks or the interest rate, so that the final balance (the last row of the Account's calcInvestment table)
+ *  reaches the target balance. The balance is linear in the amount and a geometric series in the number of months, so the
+ *  closed form used by the InvestmentProjection class gives the initial estimate of the amount and the number of weeks. The
+ *  interest rate can't be isolated, so it is solved with Newton's method (using the derivative of the closed form), falling
+ *  back to bisection whenever a Newton step would leave the interval known to contain the rate. Since the closed form can
+ *  differ from the table in its last digits, every result is then checked with the month by month calculation of the table
+ *  (InvestmentProjection.calcFinalBalance), so the target is reached on the last row of the table. The methods are
+ *  thread-safe since they don't share any state.
+ */
+
+public class GoalSeek {
+
+	// The following constants are used by the calculations.
+	private static final int WEEKS_PER_MONTH = InvestmentProjection.WEEKS_PER_MONTH;
+	private static final double MONTHS_PER_YEAR = 13;
+	private static final double PERCENT = 100;
+	private static final double RATE_TOLERANCE = 1e-12;
+	private static final double MIN_INTEREST = 1e-7;
+	private static final double INITIAL_RATE = 10;
+	private static final int MAX_ITERATIONS = 200;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_TARGET = "Error: The target balance must be a positive number.";
+	private static final String ERROR_NEGATIVE_AMOUNT = "Error: The amount can't be negative.";
+	private static final String ERROR_NEGATIVE_RATE = "Error: The interest rate can't be negative.";
+	private static final String ERROR_NEGATIVE_WEEKS = "Error: The number of weeks can't be negative.";
+	private static final String ERROR_TARGET_TOO_LARGE = "Error: The target balance of $%.2f is too large.";
+	private static final String ERROR_UNREACHABLE = "Error: The target balance of $%.2f can't be reached %s.";
+	private static final String REASON_NO_AMOUNT = "without investing an amount each week";
+	private static final String REASON_NO_WEEKS = "within %d weeks";
+	private static final String REASON_NO_INTEREST = "in %d weeks, since there isn't a full month of interest";
+
+	/**
+	* The constructor is private, since the class only contains static methods.
+	*/
+	private GoalSeek() {
+	}
+
+	/**
+	* The solveAmount method calculates the smallest weekly amount (in whole cents) that reaches the target balance.
+	* @param target double - The target balance.
+	* @param rate double - The annual interest rate percentage.
+	* @param numberOfWeeks int - The investment length.
+	* @return double - The amount to invest each week.
+	* @throws IllegalArgumentException - If a value is invalid, there aren't any weeks to invest in, or the amount is too large to
+	* be held in cents.
+	*/
+	public static double solveAmount(double target, double rate, int numberOfWeeks) {
+		validateTarget(target);
+		validateRate(rate);
+		validateWeeks(numberOfWeeks);
+		// The balance of a dollar per week, which every amount is a multiple of.
+		double unitBalance = InvestmentProjection.calcBalance(1, rate, numberOfWeeks);
+		if (!(unitBalance > 0)) {
+			throw new IllegalArgumentException(String.format(ERROR_UNREACHABLE, target, String.format(REASON_NO_WEEKS, numberOfWeeks)));
+		}
+		// The exact amount is rounded to a whole cent, which is then corrected with the table's balance (raised while it falls
+		// short of the target, and lowered while the previous cent still reaches it).
+		long cents;
+		try {
+			cents = Money.toCents(target / unitBalance);
+		} catch (ArithmeticException ex) {
+			throw new IllegalArgumentException(String.format(ERROR_TARGET_TOO_LARGE, target), ex);
+		}
+		while (InvestmentProjection.calcFinalBalance(Money.toDollars(cents), rate, numberOfWeeks) < target) {
+			cents++;
+		}
+		while ((cents > 0) && (InvestmentProjection.calcFinalBalance(Money.toDollars(cents - 1), rate, numberOfWeeks) >= target)) {
+			cents--;
+		}
+		return Money.toDollars(cents);
+	}
+
+	/**
+	* The solveAmount method calculates the weekly amount that the account requires to reach the target balance, using the
+	* account's interest rate and investment length.
+	* @param account Account - The account.
+	* @param target double - The target balance.
+	* @return double - The amount to invest each week.
+	* @throws IllegalArgumentException - If a value is invalid, or there aren't any weeks to invest in.
+	*/
+	public static double solveAmount(Account account, double target) {
+		return solveAmount(target, account.getRate(), account.getNumberOfWeeks());
+	}
+
+	/**
+	* The solveWeeks method calculates the shortest investment length that reaches the target balance. The closed form
+	* (growth^months = 1 + target * interest / (deposit * growth)) determines whether the target can be reached at all, and
+	* the months are then calculated in turn (the same as the table) until the target is reached. The remaining weeks of a
+	* partial month are added without interest, so the target may be reached by one to three weeks of the last month.
+	* @param target double - The target balance.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @return int - The number of weeks.
+	* @throws IllegalArgumentException - If a value is invalid, or the target can't be reached within Integer.MAX_VALUE weeks.
+	*/
+	public static int solveWeeks(double target, double amount, double rate) {
+		validateTarget(target);
+		validateRate(rate);
+		if (amount < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_AMOUNT);
+		}
+		if (!(amount > 0)) {
+			throw new IllegalArgumentException(String.format(ERROR_UNREACHABLE, target, REASON_NO_AMOUNT));
+		}
+		double interest = InvestmentProjection.calcGrowth(rate) - 1;
+		double deposit = amount * WEEKS_PER_MONTH;
+		double estimate = ((interest == 0) ? (target / deposit) :
+			(Math.log1p(target * interest / (deposit * (interest + 1))) / Math.log1p(interest)));
+		long maxMonths = Integer.MAX_VALUE / WEEKS_PER_MONTH;
+		if (!(estimate <= maxMonths)) {
+			throw new IllegalArgumentException(String.format(ERROR_UNREACHABLE, target, String.format(REASON_NO_WEEKS, Integer.MAX_VALUE)));
+		}
+		// Each month is calculated the same as the table. Before the month's interest is applied, its weeks are checked as the
+		// partial month of a shorter investment.
+		double growth = InvestmentProjection.calcGrowth(rate);
+		double balance = 0;
+		for (int month = 1; month <= maxMonths; month++) {
+			for (int remaining = 1; remaining < WEEKS_PER_MONTH; remaining++) {
+				if ((balance + amount * remaining) >= target) {
+					return (((month - 1) * WEEKS_PER_MONTH) + remaining);
+				}
+			}
+			balance = ((balance + amount * WEEKS_PER_MONTH) * growth);
+			if (balance >= target) {
+				return (month * WEEKS_PER_MONTH);
+			}
+		}
+		throw new IllegalArgumentException(String.format(ERROR_UNREACHABLE, target, String.format(REASON_NO_WEEKS, Integer.MAX_VALUE)));
+	}
+
+	/**
+	* The solveWeeks method calculates the investment length that the account requires to reach the target balance, using the
+	* account's weekly amount and interest rate.
+	* @param account Account - The account.
+	* @param target double - The target balance.
+	* @return int - The number of weeks.
+	* @throws IllegalArgumentException - If a value is invalid, or the target can't be reached.
+	*/
+	public static int solveWeeks(Account account, double target) {
+		return solveWeeks(target, account.getAmount(), account.getRate());
+	}
+
+	/**
+	* The solveRate method calculates the annual interest rate percentage that reaches the target balance. If the amounts
+	* invested reach the target without any interest, then the rate is zero. Otherwise the rate is solved to within a relative
+	* tolerance of 1e-12, with Newton's method inside an interval that is known to contain the rate (the balance increases with
+	* the rate, so the interval is doubled until it reaches the target). If the table's balance at that rate falls short of the
+	* target (by a rounding error of the closed form), then the interval is bisected with the table's balance instead, so the
+	* returned rate always reaches the target on the table.
+	* @param target double - The target balance.
+	* @param amount double - The amount invested each week.
+	* @param numberOfWeeks int - The investment length.
+	* @return double - The annual interest rate percentage.
+	* @throws IllegalArgumentException - If a value is invalid, or the target can't be reached at any rate.
+	*/
+	public static double solveRate(double target, double amount, int numberOfWeeks) {
+		validateTarget(target);
+		validateWeeks(numberOfWeeks);
+		if (amount < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_AMOUNT);
+		}
+		if (!(amount > 0)) {
+			throw new IllegalArgumentException(String.format(ERROR_UNREACHABLE, target, REASON_NO_AMOUNT));
+		}
+		int months = numberOfWeeks / WEEKS_PER_MONTH;
+		// The balance of the partial month doesn't depend on the rate, so the full months must reach the remainder of the target.
+		double goal = target - (amount * (numberOfWeeks % WEEKS_PER_MONTH));
+		if (InvestmentProjection.calcFinalBalance(amount, 0, numberOfWeeks) >= target) {
+			return 0;
+		}
+		if (months == 0) {
+			throw new IllegalArgumentException(String.format(ERROR_UNREACHABLE, target, String.format(REASON_NO_INTEREST, numberOfWeeks)));
+		}
+		double low = 0;
+		double high = INITIAL_RATE;
+		while (InvestmentProjection.calcBalanceAtMonth(amount, high, months) < goal) {
+			low = high;
+			high *= 2;
+			if (Double.isInfinite(high)) {
+				throw new IllegalArgumentException(String.format(ERROR_UNREACHABLE, target, String.format(REASON_NO_WEEKS, numberOfWeeks)));
+			}
+		}
+		double deposit = amount * WEEKS_PER_MONTH;
+		double rate = (low + high) / 2;
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			double difference = InvestmentProjection.calcBalanceAtMonth(amount, rate, months) - goal;
+			if (difference < 0) {
+				low = rate;
+			} else {
+				high = rate;
+			}
+			if ((Math.abs(difference) <= (goal * RATE_TOLERANCE)) || ((high - low) <= (high * RATE_TOLERANCE))) {
+				break;
+			}
+			// Takes a Newton step, unless it leaves the interval (in which case the interval is bisected instead).
+			double next = rate - (difference / calcDerivative(deposit, rate, months));
+			rate = (((next > low) && (next < high)) ? next : ((low + high) / 2));
+		}
+		if (InvestmentProjection.calcFinalBalance(amount, rate, numberOfWeeks) >= target) {
+			return rate;
+		}
+		// The rate falls short on the table, so the upper end is raised until it reaches the target, and the interval is bisected.
+		low = rate;
+		high = Math.max(high, rate);
+		for (int iteration = 0; InvestmentProjection.calcFinalBalance(amount, high, numberOfWeeks) < target; iteration++) {
+			if (iteration == MAX_ITERATIONS) {
+				throw new IllegalArgumentException(String.format(ERROR_UNREACHABLE, target, String.format(REASON_NO_WEEKS, numberOfWeeks)));
+			}
+			high += Math.max(high * RATE_TOLERANCE, Math.ulp(high));
+		}
+		for (int iteration = 0; (iteration < MAX_ITERATIONS) && ((high - low) > (high * RATE_TOLERANCE)); iteration++) {
+			double middle = (low + high) / 2;
+			if (InvestmentProjection.calcFinalBalance(amount, middle, numberOfWeeks) < target) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return high;
+	}
+
+	/**
+	* The solveRate method calculates the interest rate that the account requires to reach the target balance, using the
+	* account's weekly amount and investment length.
+	* @param account Account - The account.
+	* @param target double - The target balance.
+	* @return double - The annual interest rate percentage.
+	* @throws IllegalArgumentException - If a value is invalid, or the target can't be reached at any rate.
+	*/
+	public static double solveRate(Account account, double target) {
+		return solveRate(target, account.getAmount(), account.getNumberOfWeeks());
+	}
+
+	/**
+	* The calcDerivative method calculates the rate of change of the balance after the full months, per percentage point of the
+	* annual rate. The balance is deposit * (g + g^2 + ... + g^months) where g is the monthly growth, so its derivative with
+	* respect to g is deposit * (months * g^(months + 1) - (months + 1) * g^months + 1) / (g - 1)^2. Since that subtracts nearly
+	* equal values when the interest is tiny, the limit at zero interest (deposit * months * (months + 1) / 2) is used instead.
+	* @param deposit double - The amount deposited each month.
+	* @param rate double - The annual interest rate percentage.
+	* @param months int - The number of full months.
+	* @return double - The derivative.
+	*/
+	private static double calcDerivative(double deposit, double rate, int months) {
+		double interest = InvestmentProjection.calcGrowth(rate) - 1;
+		double derivative;
+		if (interest < MIN_INTEREST) {
+			derivative = (deposit * months * (months + 1.0) / 2);
+		} else {
+			double growth = interest + 1;
+			double power = Math.pow(growth, months);
+			derivative = deposit * ((months * power * growth) - ((months + 1.0) * power) + 1) / (interest * interest);
+		}
+		// The growth changes by 1 / 1300 for each percentage point of the annual rate.
+		return (derivative / (MONTHS_PER_YEAR * PERCENT));
+	}
+
+	/**
+	* The following methods check the received values, throwing an IllegalArgumentException if they are invalid.
+	*/
+	private static void validateTarget(double target) {
+		if (!(target > 0) || Double.isInfinite(target)) {
+			throw new IllegalArgumentException(ERROR_TARGET);
+		}
+	}
+
+	private static void validateRate(double rate) {
+		if (!(rate >= 0) || Double.isInfinite(rate)) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_RATE);
+		}
+	}
+
+	private static void validateWeeks(int numberOfWeeks) {
+		if (numberOfWeeks < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+		}
+	}
+}
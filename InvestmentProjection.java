@@ -0,0 +1,175 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to calculate the numeric investment projections used by the Account class. Each month (being four
+ *  weeks) the weekly amount is added four times to the running total, and the total then has a month of interest applied
+ *  (the annual rate divided into thirteen periods). Since the same growth is applied every month, the balance after any
+ *  number of months is a geometric series, which enables it to be calculated directly without iterating the previous months.
+ *  A trailing partial month (when the investment length isn't divisible by four) adds the remaining weeks without interest.
+ */
+
+public class InvestmentProjection {
+
+	// The following constants are used by the projection calculations.
+	public static final int WEEKS_PER_MONTH = 4;
+	// The longest investment accepted from a user (a hundred years), which limits the size of the monthly table.
+	public static final int MAXIMUM_WEEKS = 5200;
+	private static final int MONTHS_PER_YEAR = 13;
+	private static final int PERCENT = 100;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_NEGATIVE_WEEKS = "Error: The number of weeks can't be negative.";
+	private static final String ERROR_BUFFER_LENGTH = "Error: The balances array must have at least %d elements.";
+
+	/**
+	* The constructor is private, since the class only contains static methods.
+	*/
+	private InvestmentProjection() {
+	}
+
+	/**
+	* The calcGrowth method converts the annual interest rate percentage into the monthly multiplier. It is the same calculation
+	* used by the calcInvestment method on the Account.
+	* @param rate double - The annual interest rate percentage.
+	* @return double - The amount that the total is multiplied by each month.
+	*/
+	public static double calcGrowth(double rate) {
+		return (((rate / MONTHS_PER_YEAR) / PERCENT) + 1);
+	}
+
+	/**
+	* The getNumberOfMonths method determines the amount of monthly rows for an investment length, including the trailing
+	* partial month when the weeks aren't evenly divisible by four.
+	* @param numberOfWeeks int - The investment length.
+	* @return int - The number of monthly rows.
+	*/
+	public static int getNumberOfMonths(int numberOfWeeks) {
+		return ((numberOfWeeks + (WEEKS_PER_MONTH - 1)) / WEEKS_PER_MONTH);
+	}
+
+	/**
+	* The calcBalanceAtMonth method calculates the balance after the received number of full months, using the closed form of
+	* the geometric series (4 * amount * growth * (growth^months - 1) / (growth - 1)). The expm1 and log1p methods are used to
+	* calculate growth^months - 1, which keeps the result accurate for small interest rates. When the rate is zero, the balance is
+	* just the amount invested.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @param months int - The number of full months.
+	* @return double - The balance after the months.
+	*/
+	public static double calcBalanceAtMonth(double amount, double rate, int months) {
+		double interest = calcGrowth(rate) - 1;
+		double deposit = amount * WEEKS_PER_MONTH;
+		if (interest == 0) {
+			return (deposit * months);
+		}
+		return ((deposit * (interest + 1)) * (Math.expm1(months * Math.log1p(interest)) / interest));
+	}
+
+	/**
+	* The calcBalance method calculates the final balance of the investment in constant time. The full months are calculated
+	* with the calcBalanceAtMonth method, and the remaining weeks of the partial month are then added without interest.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @param numberOfWeeks int - The investment length.
+	* @return double - The final balance.
+	* @throws IllegalArgumentException - If the number of weeks is negative.
+	*/
+	public static double calcBalance(double amount, double rate, int numberOfWeeks) {
+		if (numberOfWeeks < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+		}
+		return (calcBalanceAtMonth(amount, rate, numberOfWeeks / WEEKS_PER_MONTH) + (amount * (numberOfWeeks % WEEKS_PER_MONTH)));
+	}
+
+	/**
+	* The calcFinalBalance method calculates the final balance by iterating once per month, applying the same calculation in the
+	* same order as the calcBalances method (without storing each row). The result is therefore identical to the last row of the
+	* Account's table, whereas the closed form of the calcBalance method can differ from it in the last few digits.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @param numberOfWeeks int - The investment length.
+	* @return double - The final balance.
+	* @throws IllegalArgumentException - If the number of weeks is negative.
+	*/
+	public static double calcFinalBalance(double amount, double rate, int numberOfWeeks) {
+		if (numberOfWeeks < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+		}
+		double growth = calcGrowth(rate);
+		double total = 0;
+		// The months are counted (rather than the weeks), so the loop can't overflow for any number of weeks.
+		int fullMonths = numberOfWeeks / WEEKS_PER_MONTH;
+		for (int month = 0; month < fullMonths; month++) {
+			total = ((total + amount * WEEKS_PER_MONTH) * growth);
+		}
+		if ((numberOfWeeks % WEEKS_PER_MONTH) != 0) {
+			total = (total + amount * (numberOfWeeks % WEEKS_PER_MONTH));
+		}
+		return total;
+	}
+
+	/**
+	* The calcBalances method fills the received array with the balance of every monthly row, including the trailing partial month.
+	* It iterates once per month (rather than once per week), applying the same calculation in the same order as the calcInvestment
+	* method on the Account, so the values are identical to the displayed table.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @param numberOfWeeks int - The investment length.
+	* @param balances double[] - The array that receives the balances. It must be at least getNumberOfMonths long.
+	* @return int - The number of monthly rows written to the array.
+	* @throws IllegalArgumentException - If the number of weeks is negative, or the array is too short.
+	*/
+	public static int calcBalances(double amount, double rate, int numberOfWeeks, double[] balances) {
+		if (numberOfWeeks < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+		}
+		int months = getNumberOfMonths(numberOfWeeks);
+		if (balances.length < months) {
+			throw new IllegalArgumentException(String.format(ERROR_BUFFER_LENGTH, months));
+		}
+		double growth = calcGrowth(rate);
+		double total = 0;
+		int month = 0;
+		// Iterates for each full month, adding the four weekly amounts and then applying the interest. The months are counted
+		// (rather than the weeks), so the loop can't overflow for any number of weeks.
+		int fullMonths = numberOfWeeks / WEEKS_PER_MONTH;
+		while (month < fullMonths) {
+			total = ((total + amount * WEEKS_PER_MONTH) * growth);
+			balances[month++] = total;
+		}
+		// If there is a partial month, then the remaining weeks are added without any interest.
+		if ((numberOfWeeks % WEEKS_PER_MONTH) != 0) {
+			total = (total + amount * (numberOfWeeks % WEEKS_PER_MONTH));
+			balances[month++] = total;
+		}
+		return month;
+	}
+
+	/**
+	* The calcProjection method fills the received result with the week number and balance of every monthly row. The arrays
+	* within the result are enlarged if required, otherwise they are reused.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @param numberOfWeeks int - The investment length.
+	* @param result ProjectionResult - The result that receives the rows.
+	* @return ProjectionResult - The received result.
+	* @throws IllegalArgumentException - If the number of weeks is negative.
+	*/
+	public static ProjectionResult calcProjection(double amount, double rate, int numberOfWeeks, ProjectionResult result) {
+		if (numberOfWeeks < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+		}
+		result.ensureCapacity(getNumberOfMonths(numberOfWeeks));
+		int months = calcBalances(amount, rate, numberOfWeeks, result.getBalances());
+		int[] weeks = result.getWeeks();
+		// Each row ends four weeks after the previous, except for the partial month which ends on the last week.
+		for (int month = 0; month < months; month++) {
+			weeks[month] = Math.min((month + 1) * WEEKS_PER_MONTH, numberOfWeeks);
+		}
+		result.setSize(months);
+		return result;
+	}
+}
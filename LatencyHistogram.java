@@ -0,0 +1,145 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is a histogram of latencies (in nanoseconds), in the same layout as an HdrHistogram. The values are counted in
+ *  buckets that double in size, and each bucket is divided into 32 sub-buckets, so a value is counted to within about 3% of
+ *  its size, from a nanosecond up to the largest long, in a fixed array of 1920 counters. Recording a value is a few shifts
+ *  and an atomic increment, without any objects being created, so it is cheap enough to be used on the hot paths.
+ *  The methods are thread-safe. The percentiles are calculated from the counts at the time, which may include values that
+ *  are recorded while they are being read.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+
+	// The amount of sub-buckets in each bucket is 2^SUB_BUCKET_BITS. The values below 2 * SUB_BUCKETS are counted exactly.
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int COUNTERS = ((Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS) + (2 * SUB_BUCKETS);
+
+	// The following constant is used for the error message.
+	private static final String ERROR_PERCENTILE = "Error: The percentile %s must be between 0 and 100.";
+
+	// Instance attributes.
+	private final AtomicLongArray counts;
+	private final LongAdder count;
+	private final LongAdder total;
+	private final LongAccumulator max;
+
+	/**
+	* The constructor creates an empty histogram.
+	*/
+	public LatencyHistogram() {
+		this.counts = new AtomicLongArray(COUNTERS);
+		this.count = new LongAdder();
+		this.total = new LongAdder();
+		this.max = new LongAccumulator(Math::max, 0);
+	}
+
+	/**
+	* The record method counts a value. Negative values are counted as zero.
+	* @param value long - The value (such as a latency in nanoseconds).
+	*/
+	public void record(long value) {
+		long nanos = Math.max(value, 0);
+		this.counts.incrementAndGet(indexOf(nanos));
+		this.count.increment();
+		this.total.add(nanos);
+		this.max.accumulate(nanos);
+	}
+
+	/**
+	* The indexOf method retrieves the counter of a value. The values below 2 * SUB_BUCKETS are their own counter. Above that,
+	* the value is shifted right until it has SUB_BUCKET_BITS + 1 bits, and the counter is the shifted value (its sub-bucket)
+	* offset by SUB_BUCKETS for each bit that was shifted out (its bucket).
+	* @param value long - The value (which isn't negative).
+	* @return int - The index of the counter.
+	*/
+	private static int indexOf(long value) {
+		int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+		if (shift <= 0) {
+			return (int)value;
+		}
+		return (shift * SUB_BUCKETS) + (int)(value >>> shift);
+	}
+
+	/**
+	* The highestValueOf method retrieves the largest value that is counted by a counter.
+	* @param index int - The index of the counter.
+	* @return long - The largest value of the counter.
+	*/
+	private static long highestValueOf(int index) {
+		if (index < (2 * SUB_BUCKETS)) {
+			return index;
+		}
+		int shift = (index / SUB_BUCKETS) - 1;
+		long subBucket = (index % SUB_BUCKETS) + SUB_BUCKETS;
+		return (((subBucket + 1) << shift) - 1);
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	public long getTotal() {
+		return this.total.sum();
+	}
+
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	* The getMean method retrieves the average of the values.
+	* @return double - The mean, or zero if there aren't any values.
+	*/
+	public double getMean() {
+		long count = this.getCount();
+		return ((count > 0) ? ((double)this.getTotal() / count) : 0);
+	}
+
+	/**
+	* The getValueAtPercentile method retrieves the value that the received percentage of the values are less than or equal to.
+	* Since the values are counted in sub-buckets, the largest value of the percentile's sub-bucket is returned (which is at most
+	* about 3% larger than the actual value), limited by the largest value recorded.
+	* @param percentile double - The percentile (between 0 and 100).
+	* @return long - The value at the percentile, or zero if there aren't any values.
+	* @throws IllegalArgumentException - If the percentile is outside of the range.
+	*/
+	public long getValueAtPercentile(double percentile) {
+		if (!(percentile >= 0 && percentile <= 100)) {
+			throw new IllegalArgumentException(String.format(ERROR_PERCENTILE, percentile));
+		}
+		long total = 0;
+		for (int index = 0; index < COUNTERS; index++) {
+			total += this.counts.get(index);
+		}
+		// The nearest rank of the percentile, being at least the first value.
+		long rank = Math.max(1, (long)Math.ceil((percentile / 100) * total));
+		long seen = 0;
+		for (int index = 0; index < COUNTERS; index++) {
+			seen += this.counts.get(index);
+			if (seen >= rank) {
+				return Math.min(highestValueOf(index), this.getMax());
+			}
+		}
+		return 0;
+	}
+
+	/**
+	* The reset method removes every value. Values recorded while the histogram is being reset may be partly kept.
+	*/
+	public void reset() {
+		for (int index = 0; index < COUNTERS; index++) {
+			this.counts.set(index, 0);
+		}
+		this.count.reset();
+		this.total.reset();
+		this.max.reset();
+	}
+}
@@ -0,0 +1,379 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to read very large payroll files (in the same CSV layout as the BatchProcessor) by memory mapping the
+ *  file, rather than reading it line by line through a Scanner or BufferedReader. The file is divided into chunks that end
+ *  on a line boundary, and the chunks are parsed in parallel. The numeric columns are parsed directly from the bytes into a
+ *  PayrollRecords batch without creating a String for each column, and each batch is calculated and given to a Handler once
+ *  it is full. Lines that are invalid (including the expenses and investments that exceed the calculated funds, the same as
+ *  the BatchProcessor) are counted and skipped.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MappedPayrollReader {
+
+	// The following constants are the reader settings.
+	public static final int DEFAULT_BATCH_SIZE = 4096;
+	private static final long MAXIMUM_CHUNK_SIZE = 1L << 30;
+	private static final int MINIMUM_CHUNK_SIZE = 1 << 20;
+
+	// The following constants are the characters used by the CSV.
+	private static final byte SEPARATOR = ',';
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final byte SPACE = ' ';
+	private static final byte MINUS = '-';
+	private static final byte PLUS = '+';
+	private static final byte POINT = '.';
+	private static final byte ZERO = '0';
+	private static final byte[] INPUT_HEADING = {'n', 'a', 'm', 'e'};
+	private static final byte[][] RESIDENT_YES = {{'y', 'e', 's'}, {'t', 'r', 'u', 'e'}};
+	private static final byte[][] RESIDENT_NO = {{'n', 'o'}, {'f', 'a', 'l', 's', 'e'}};
+	private static final int CLIENT_COLUMNS = 4;
+	private static final int INVESTMENT_COLUMNS = 3;
+	private static final int MAXIMUM_DIGITS = 18;
+	private static final double MAXIMUM_EXACT = 0x1p53;
+	private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+	/**
+	* The Handler interface receives each batch of records once it is full (and the final partial batch of each chunk), after
+	* the records have been calculated and the invalid records removed. The handler is called from multiple threads at the same time, with a separate PayrollRecords object for each thread, so it
+	* must be thread-safe. The records are reused once the handler returns.
+	*/
+	public interface Handler {
+		void process(PayrollRecords records);
+	}
+
+	// Instance attributes.
+	private final Path path;
+	private final int batchSize;
+	private final AtomicLong records;
+	private final AtomicLong invalidLines;
+
+	/**
+	* The constructor chains with the default batch size to the main constructor.
+	* @param path Path - The payroll file.
+	*/
+	public MappedPayrollReader(Path path) {
+		this(path, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	* The main constructor receives the file and the amount of records in each batch.
+	* @param path Path - The payroll file.
+	* @param batchSize int - The amount of records given to the handler at a time.
+	*/
+	public MappedPayrollReader(Path path, int batchSize) {
+		this.path = path;
+		this.batchSize = batchSize;
+		this.records = new AtomicLong();
+		this.invalidLines = new AtomicLong();
+	}
+
+	public long getRecords() {
+		return this.records.get();
+	}
+
+	public long getInvalidLines() {
+		return this.invalidLines.get();
+	}
+
+	/**
+	* The read method maps the file, divides it into chunks that end on a line boundary, and parses the chunks in parallel
+	* on the received pool. It returns once every chunk has been parsed and handled.
+	* @param pool ForkJoinPool - The pool used to parse the chunks.
+	* @param handler Handler - Receives each batch of records.
+	* @throws IOException - If the file couldn't be read.
+	*/
+	public void read(ForkJoinPool pool, Handler handler) throws IOException {
+		try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			// Each thread receives a few chunks (so a slow chunk doesn't hold up the others), with each chunk small enough to be mapped.
+			long chunkSize = Math.min(MAXIMUM_CHUNK_SIZE, Math.max(MINIMUM_CHUNK_SIZE, size / (pool.getParallelism() * 4L)));
+			List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+			long start = 0;
+			while (start < size) {
+				long end = this.findLineEnd(channel, Math.min(size, start + chunkSize), size);
+				MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+				boolean first = (start == 0);
+				tasks.add(pool.submit(() -> this.parseChunk(chunk, first, handler)));
+				start = end;
+			}
+			for (ForkJoinTask<?> task : tasks) {
+				task.join();
+			}
+		}
+	}
+
+	/**
+	* The findLineEnd method finds the position after the end of the line that contains the received position.
+	* @param channel FileChannel - The file.
+	* @param position long - The position to start searching from.
+	* @param size long - The size of the file.
+	* @return long - The position after the line feed, or the size of the file.
+	* @throws IOException - If the file couldn't be read.
+	*/
+	private long findLineEnd(FileChannel channel, long position, long size) throws IOException {
+		if (position >= size) {
+			return size;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		while (position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == LINE_FEED) {
+					return (position + i + 1);
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	* The parseChunk method parses every line in the chunk into the records, giving the records to the handler each time the
+	* batch is full, and once the chunk has been completed.
+	* @param chunk ByteBuffer - The mapped chunk.
+	* @param first boolean - Whether it is the first chunk of the file (which may contain a heading).
+	* @param handler Handler - Receives each batch of records.
+	*/
+	private void parseChunk(ByteBuffer chunk, boolean first, Handler handler) {
+		PayrollRecords batch = new PayrollRecords(this.batchSize);
+		batch.clear(chunk);
+		int limit = chunk.limit();
+		int start = 0;
+		long count = 0, invalid = 0;
+		while (start < limit) {
+			int end = start;
+			while ((end < limit) && (chunk.get(end) != LINE_FEED)) {
+				end++;
+			}
+			int lineEnd = (((end > start) && (chunk.get(end - 1) == CARRIAGE_RETURN)) ? (end - 1) : end);
+			// Skips empty lines, and the heading of the file.
+			if ((lineEnd > start) && !(first && (start == 0) && startsWith(chunk, start, lineEnd, INPUT_HEADING))) {
+				if (this.parseLine(chunk, start, lineEnd, batch)) {
+					count++;
+					if (batch.size() == batch.getCapacity()) {
+						int removed = process(batch, handler);
+						count -= removed;
+						invalid += removed;
+						batch.clear(chunk);
+					}
+				} else {
+					invalid++;
+				}
+			}
+			start = end + 1;
+		}
+		if (batch.size() > 0) {
+			int removed = process(batch, handler);
+			count -= removed;
+			invalid += removed;
+		}
+		this.records.addAndGet(count);
+		this.invalidLines.addAndGet(invalid);
+	}
+
+	/**
+	* The static process method calculates the batch, removes the records that fail the checks depending on the calculated
+	* values, and gives the remaining records to the handler.
+	* @param batch PayrollRecords - The parsed records.
+	* @param handler Handler - Receives the records.
+	* @return int - The amount of records removed.
+	*/
+	private static int process(PayrollRecords batch, Handler handler) {
+		batch.calculate();
+		int removed = batch.removeInvalid();
+		if (batch.size() > 0) {
+			handler.process(batch);
+		}
+		return removed;
+	}
+
+	/**
+	* The parseLine method parses the columns of a line into a new record. The same validation as the BatchProcessor is applied
+	* to each column (positive numbers, a Yes or No residency, an interest rate between 1 and 100, and an integer length of at
+	* most the InvestmentProjection's maximum weeks). The
+	* checks that depend on the calculated net salary are applied once the batch is calculated (see the process method).
+	* @param chunk ByteBuffer - The mapped chunk.
+	* @param start int - The position of the first byte of the line.
+	* @param end int - The position after the last byte of the line.
+	* @param batch PayrollRecords - The records that receive the line.
+	* @return boolean - Whether the line was valid.
+	*/
+	private boolean parseLine(ByteBuffer chunk, int start, int end, PayrollRecords batch) {
+		// Finds the separators of the columns.
+		int columns = 1;
+		for (int i = start; i < end; i++) {
+			columns += ((chunk.get(i) == SEPARATOR) ? 1 : 0);
+		}
+		if ((columns != CLIENT_COLUMNS) && (columns != (CLIENT_COLUMNS + INVESTMENT_COLUMNS))
+				&& (columns != (CLIENT_COLUMNS + (2 * INVESTMENT_COLUMNS)))) {
+			return false;
+		}
+		int nameEnd = indexOf(chunk, start, end);
+		int incomeEnd = indexOf(chunk, nameEnd + 1, end);
+		int residentEnd = indexOf(chunk, incomeEnd + 1, end);
+		int expensesEnd = indexOf(chunk, residentEnd + 1, end);
+		double income = parseNumber(chunk, nameEnd + 1, incomeEnd);
+		double expenses = parseNumber(chunk, residentEnd + 1, expensesEnd);
+		int resident = parseResident(chunk, incomeEnd + 1, residentEnd);
+		if (!(income > 0) || !(expenses > 0) || (resident < 0) || Double.isInfinite(income) || Double.isInfinite(expenses)) {
+			return false;
+		}
+		batch.add(income, (resident == 1), expenses, start, nameEnd);
+		// Parses each investment.
+		int position = expensesEnd;
+		while (position < end) {
+			int amountEnd = indexOf(chunk, position + 1, end);
+			int rateEnd = indexOf(chunk, amountEnd + 1, end);
+			int weeksEnd = indexOf(chunk, rateEnd + 1, end);
+			double amount = parseNumber(chunk, position + 1, amountEnd);
+			double rate = parseNumber(chunk, amountEnd + 1, rateEnd);
+			double weeks = parseNumber(chunk, rateEnd + 1, weeksEnd);
+			if (!(amount > 0) || Double.isInfinite(amount) || !(rate >= 1 && rate <= 100) || !(weeks > 0)
+					|| (weeks != Math.floor(weeks)) || (weeks > InvestmentProjection.MAXIMUM_WEEKS)) {
+				batch.removeLast();
+				return false;
+			}
+			batch.addInvestment(amount, rate, (int)weeks);
+			position = weeksEnd;
+		}
+		return true;
+	}
+
+	/**
+	* The indexOf method finds the next separator.
+	* @param chunk ByteBuffer - The mapped chunk.
+	* @param start int - The position to start searching from.
+	* @param end int - The end of the line.
+	* @return int - The position of the separator, or the end of the line if there isn't one.
+	*/
+	private static int indexOf(ByteBuffer chunk, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (chunk.get(i) == SEPARATOR) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	/**
+	* The parseNumber method parses a decimal number (such as -1234.56) directly from the bytes. The digits are accumulated into a
+	* long, and then divided by the power of ten of the decimal places. When the digits and the power of ten are both exactly
+	* representable as a double, the division is correctly rounded, giving the same value as Double.parseDouble. Any other number
+	* (such as one with an exponent, or too many digits) is given to Double.parseDouble.
+	* @param chunk ByteBuffer - The mapped chunk.
+	* @param start int - The position of the first byte of the column.
+	* @param end int - The position after the last byte of the column.
+	* @return double - The number, or NaN if the column isn't a number.
+	*/
+	static double parseNumber(ByteBuffer chunk, int start, int end) {
+		// Trims the surrounding spaces.
+		while ((start < end) && (chunk.get(start) == SPACE)) {
+			start++;
+		}
+		while ((end > start) && (chunk.get(end - 1) == SPACE)) {
+			end--;
+		}
+		int position = start;
+		boolean negative = false;
+		if ((position < end) && ((chunk.get(position) == MINUS) || (chunk.get(position) == PLUS))) {
+			negative = (chunk.get(position++) == MINUS);
+		}
+		long digits = 0;
+		int count = 0, decimals = 0;
+		boolean point = false, found = false, simple = true;
+		for (; (position < end) && simple; position++) {
+			int value = chunk.get(position) - ZERO;
+			if ((value >= 0) && (value <= 9)) {
+				// Leading zeros aren't counted, since they don't affect the precision.
+				found = true;
+				count += (((count > 0) || (value != 0)) ? 1 : 0);
+				digits = (digits * 10) + value;
+				decimals += ((point) ? 1 : 0);
+				simple = (count < MAXIMUM_DIGITS);
+			} else if ((chunk.get(position) == POINT) && !point) {
+				point = true;
+			} else {
+				simple = false;
+			}
+		}
+		if (simple && found && (digits < MAXIMUM_EXACT) && (decimals < POWERS_OF_TEN.length)) {
+			double result = (digits / POWERS_OF_TEN[decimals]);
+			return ((negative) ? -result : result);
+		}
+		// The number is given to Double.parseDouble, which requires a String.
+		byte[] bytes = new byte[end - start];
+		chunk.get(start, bytes);
+		try {
+			return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+		} catch (NumberFormatException ex) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	* The parseResident method parses the residency column (either Yes or No, or true or false, ignoring case).
+	* @param chunk ByteBuffer - The mapped chunk.
+	* @param start int - The position of the first byte of the column.
+	* @param end int - The position after the last byte of the column.
+	* @return int - 1 for a resident, 0 for a nonresident, or -1 if the column is invalid.
+	*/
+	private static int parseResident(ByteBuffer chunk, int start, int end) {
+		while ((start < end) && (chunk.get(start) == SPACE)) {
+			start++;
+		}
+		while ((end > start) && (chunk.get(end - 1) == SPACE)) {
+			end--;
+		}
+		for (byte[] value : RESIDENT_YES) {
+			if (((end - start) == value.length) && startsWith(chunk, start, end, value)) {
+				return 1;
+			}
+		}
+		for (byte[] value : RESIDENT_NO) {
+			if (((end - start) == value.length) && startsWith(chunk, start, end, value)) {
+				return 0;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	* The startsWith method determines whether the bytes start with the received lowercase text (ignoring case).
+	* @param chunk ByteBuffer - The mapped chunk.
+	* @param start int - The position of the first byte.
+	* @param end int - The position after the last byte.
+	* @param text byte[] - The lowercase text.
+	* @return boolean - Whether the bytes start with the text.
+	*/
+	private static boolean startsWith(ByteBuffer chunk, int start, int end, byte[] text) {
+		if ((end - start) < text.length) {
+			return false;
+		}
+		for (int i = 0; i < text.length; i++) {
+			// Converts an uppercase letter to lowercase by setting the lowercase bit.
+			if ((chunk.get(start + i) | 0x20) != text[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
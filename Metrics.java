@@ -0,0 +1,330 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to measure the operations on the hot paths (the tax calculation, the projection, the client and
+ *  investment output, and the parsing of each input by the CalculatorSession). Each operation has a count, a LatencyHistogram of its durations and,
+ *  optionally, the amount of bytes it allocated (which is measured with the thread's allocation counter, so it is only
+ *  enabled on request). The metrics can be displayed as a text snapshot, written out periodically, or registered as a JMX
+ *  MBean. The instrumented classes consult the shared metrics (if they have been set with the setShared method), so when the
+ *  metrics are disabled the only cost is reading the shared field. The methods are thread-safe.
+ */
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class Metrics implements MetricsMBean {
+
+	/**
+	* The Operation enum is the operations that are measured.
+	*/
+	public enum Operation {
+		CALC_TAX("Client.calcTax"),
+		CLIENT_APPEND("Client.appendTo"),
+		CALC_PROJECTION("Account.calcProjection"),
+		APPEND_INVESTMENT("Account.appendInvestment"),
+		INPUT("CalculatorSession.input");
+
+		private final String label;
+
+		Operation(String label) {
+			this.label = label;
+		}
+
+		public String getLabel() {
+			return this.label;
+		}
+	}
+
+	// The name the metrics are registered under as a JMX MBean.
+	public static final String OBJECT_NAME = "SENG1110:type=Metrics";
+
+	// The following constants are used for formatting purposes by the appendTo method.
+	private static final String FORMAT_TITLE = "%-26s %10s %12s %12s %12s %12s %12s";
+	private static final String FORMAT_ROW = "%-26s %10d %12.2f %12.2f %12.2f %12.2f %12s";
+	private static final String NEW_LINE = System.getProperty("line.separator");
+	private static final String TITLE = String.format(FORMAT_TITLE, "Operation", "Count", "Mean (us)", "P50 (us)", "P99 (us)",
+		"Max (us)", "Bytes/op") + NEW_LINE;
+	private static final String NOT_TRACKED = "-";
+	private static final double NANOS_PER_MICRO = 1000;
+	private static final double MEDIAN = 50;
+	private static final double P99 = 99;
+	private static final String REPORTER_NAME = "metrics-reporter";
+
+	// The following constant is used for the error message.
+	private static final String ERROR_PERIOD = "Error: The period must be greater than zero.";
+
+	// The metrics used by the instrumented classes, or null if the operations aren't measured.
+	private static volatile Metrics shared;
+
+	// Instance attributes.
+	private final LatencyHistogram[] latencies;
+	private final LongAdder[] allocated;
+	private final LongAdder[] tracked;
+	private final com.sun.management.ThreadMXBean threads;
+	private volatile boolean allocationTracking;
+	private ScheduledExecutorService reporter;
+
+	/**
+	* The default constructor. It chains with the allocation tracking disabled to the main constructor.
+	*/
+	public Metrics() {
+		this(false);
+	}
+
+	/**
+	* The main constructor creates the empty metrics of each operation.
+	* @param allocationTracking boolean - Whether the bytes allocated by each operation are counted (if the JVM supports it).
+	*/
+	public Metrics(boolean allocationTracking) {
+		int operations = Operation.values().length;
+		this.latencies = new LatencyHistogram[operations];
+		this.allocated = new LongAdder[operations];
+		this.tracked = new LongAdder[operations];
+		for (int i = 0; i < operations; i++) {
+			this.latencies[i] = new LatencyHistogram();
+			this.allocated[i] = new LongAdder();
+			this.tracked[i] = new LongAdder();
+		}
+		// The allocation counter is only available on JVMs that provide the extended ThreadMXBean.
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		this.threads = (((bean instanceof com.sun.management.ThreadMXBean)
+			&& ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported()) ? (com.sun.management.ThreadMXBean)bean : null);
+		this.setAllocationTracking(allocationTracking);
+	}
+
+	/**
+	* The static getShared method retrieves the metrics used by the instrumented classes.
+	* @return Metrics - The shared metrics, or null if there aren't any.
+	*/
+	public static Metrics getShared() {
+		return shared;
+	}
+
+	/**
+	* The static setShared method sets the metrics used by the instrumented classes.
+	* @param metrics Metrics - The metrics, or null to stop measuring the operations.
+	*/
+	public static void setShared(Metrics metrics) {
+		shared = metrics;
+	}
+
+	/**
+	* The start method retrieves the time that an operation starts, which is then passed to the record method.
+	* @return long - The current time in nanoseconds.
+	*/
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	* The startAllocation method retrieves the bytes allocated by the current thread when an operation starts, which is then
+	* passed to the record method.
+	* @return long - The bytes allocated so far, or -1 if the allocations aren't being tracked.
+	*/
+	public long startAllocation() {
+		return (this.allocationTracking ? this.threads.getCurrentThreadAllocatedBytes() : -1);
+	}
+
+	/**
+	* The record method records an operation that has completed on the current thread.
+	* @param operation Operation - The operation.
+	* @param start long - The time returned by the start method.
+	* @param startAllocation long - The bytes returned by the startAllocation method.
+	*/
+	public void record(Operation operation, long start, long startAllocation) {
+		long elapsed = System.nanoTime() - start;
+		int index = operation.ordinal();
+		this.latencies[index].record(elapsed);
+		if ((startAllocation >= 0) && this.allocationTracking) {
+			this.allocated[index].add(this.threads.getCurrentThreadAllocatedBytes() - startAllocation);
+			this.tracked[index].increment();
+		}
+	}
+
+	/**
+	* The getLatencies method retrieves the histogram of the durations of an operation (in nanoseconds).
+	* @param operation Operation - The operation.
+	* @return LatencyHistogram - The histogram.
+	*/
+	public LatencyHistogram getLatencies(Operation operation) {
+		return this.latencies[operation.ordinal()];
+	}
+
+	/**
+	* The getAllocatedBytes method retrieves the bytes allocated by an operation, while the allocations were being tracked.
+	* @param operation Operation - The operation.
+	* @return long - The allocated bytes.
+	*/
+	public long getAllocatedBytes(Operation operation) {
+		return this.allocated[operation.ordinal()].sum();
+	}
+
+	/**
+	* The setAllocationTracking method sets whether the bytes allocated by each operation are counted. It is ignored if the
+	* JVM can't count the bytes allocated by a thread.
+	* @param tracking boolean - Whether the allocations are tracked.
+	*/
+	public void setAllocationTracking(boolean tracking) {
+		if (tracking && (this.threads != null) && !this.threads.isThreadAllocatedMemoryEnabled()) {
+			this.threads.setThreadAllocatedMemoryEnabled(true);
+		}
+		this.allocationTracking = (tracking && (this.threads != null));
+	}
+
+	public boolean isAllocationTracking() {
+		return this.allocationTracking;
+	}
+
+	public String getSnapshot() {
+		return this.toString();
+	}
+
+	public String[] getOperationNames() {
+		Operation[] operations = Operation.values();
+		String[] names = new String[operations.length];
+		for (int i = 0; i < operations.length; i++) {
+			names[i] = operations[i].getLabel();
+		}
+		return names;
+	}
+
+	public long[] getCounts() {
+		long[] counts = new long[this.latencies.length];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = this.latencies[i].getCount();
+		}
+		return counts;
+	}
+
+	public long[] getMedianNanos() {
+		return this.getPercentiles(MEDIAN);
+	}
+
+	public long[] getP99Nanos() {
+		return this.getPercentiles(P99);
+	}
+
+	public long[] getMaxNanos() {
+		long[] max = new long[this.latencies.length];
+		for (int i = 0; i < max.length; i++) {
+			max[i] = this.latencies[i].getMax();
+		}
+		return max;
+	}
+
+	public long[] getAllocatedBytes() {
+		long[] bytes = new long[this.allocated.length];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = this.allocated[i].sum();
+		}
+		return bytes;
+	}
+
+	/**
+	* The getPercentiles method retrieves a percentile of the durations of each operation.
+	* @param percentile double - The percentile (between 0 and 100).
+	* @return long[] - The duration in nanoseconds of each operation.
+	*/
+	private long[] getPercentiles(double percentile) {
+		long[] values = new long[this.latencies.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = this.latencies[i].getValueAtPercentile(percentile);
+		}
+		return values;
+	}
+
+	public void reset() {
+		for (int i = 0; i < this.latencies.length; i++) {
+			this.latencies[i].reset();
+			this.allocated[i].reset();
+			this.tracked[i].reset();
+		}
+	}
+
+	/**
+	* The register method registers the metrics as a JMX MBean with the platform MBean server, under the OBJECT_NAME.
+	* @throws JMException - If the metrics couldn't be registered (such as if another object has the name).
+	*/
+	public void register() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		server.registerMBean(this, new ObjectName(OBJECT_NAME));
+	}
+
+	/**
+	* The unregister method removes the metrics from the platform MBean server.
+	* @throws JMException - If the metrics aren't registered.
+	*/
+	public void unregister() throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+	}
+
+	/**
+	* The startReporting method writes a snapshot of the metrics to the output periodically, from a daemon thread (so it doesn't
+	* keep the program running). Any previous reporting is stopped.
+	* @param period long - The time between each snapshot.
+	* @param unit TimeUnit - The unit of the period.
+	* @param output PrintStream - The stream that receives the snapshots.
+	* @throws IllegalArgumentException - If the period isn't greater than zero.
+	*/
+	public synchronized void startReporting(long period, TimeUnit unit, PrintStream output) {
+		if (period <= 0) {
+			throw new IllegalArgumentException(ERROR_PERIOD);
+		}
+		this.stopReporting();
+		this.reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, REPORTER_NAME);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.reporter.scheduleAtFixedRate(() -> output.print(this.toString()), period, period, unit);
+	}
+
+	/**
+	* The stopReporting method stops writing the periodic snapshots.
+	*/
+	public synchronized void stopReporting() {
+		if (this.reporter != null) {
+			this.reporter.shutdownNow();
+			this.reporter = null;
+		}
+	}
+
+	/**
+	* The appendTo method appends a text-based table of the metrics to the received StringBuilder, with a row for each operation
+	* showing its count, the mean, median, 99th percentile and maximum durations (in microseconds), and the average bytes
+	* allocated (if the allocations were tracked).
+	* @param builder StringBuilder - The builder that receives the table.
+	* @return StringBuilder - The received builder.
+	*/
+	public StringBuilder appendTo(StringBuilder builder) {
+		builder.append(TITLE);
+		for (Operation operation : Operation.values()) {
+			LatencyHistogram histogram = this.latencies[operation.ordinal()];
+			long tracked = this.tracked[operation.ordinal()].sum();
+			String bytes = ((tracked > 0) ? Long.toString(this.allocated[operation.ordinal()].sum() / tracked) : NOT_TRACKED);
+			builder.append(String.format(FORMAT_ROW, operation.getLabel(), histogram.getCount(),
+				histogram.getMean() / NANOS_PER_MICRO, histogram.getValueAtPercentile(MEDIAN) / NANOS_PER_MICRO,
+				histogram.getValueAtPercentile(P99) / NANOS_PER_MICRO, histogram.getMax() / NANOS_PER_MICRO, bytes));
+			builder.append(NEW_LINE);
+		}
+		return builder;
+	}
+
+	/**
+	* The toString method is overridden from the super Object, and returns the same table as the appendTo method.
+	* @return String - The text-based table.
+	*/
+	public String toString() {
+		return this.appendTo(new StringBuilder()).toString();
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The interface is the management interface of the Metrics class, which is used when the metrics are registered as a JMX
+ *  MBean (and viewed with a tool such as JConsole). Each array has one element for each operation, in the same order as
+ *  the operation names.
+ */
+
+public interface MetricsMBean {
+
+	/**
+	* The getSnapshot method retrieves the metrics as a text-based table (the same as the Metrics toString method).
+	* @return String - The snapshot.
+	*/
+	String getSnapshot();
+
+	String[] getOperationNames();
+
+	long[] getCounts();
+
+	long[] getMedianNanos();
+
+	long[] getP99Nanos();
+
+	long[] getMaxNanos();
+
+	/**
+	* The getAllocatedBytes method retrieves the bytes allocated by each operation, which are only counted while the allocation
+	* tracking is enabled.
+	* @return long[] - The allocated bytes of each operation.
+	*/
+	long[] getAllocatedBytes();
+
+	boolean isAllocationTracking();
+
+	void setAllocationTracking(boolean tracking);
+
+	/**
+	* The reset method removes every recorded value.
+	*/
+	void reset();
+}
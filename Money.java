@@ -0,0 +1,135 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to round currency amounts to whole cents, storing them as a long number of cents. The rounding is
+ *  half-even on the exact value of the double (the same as a DecimalFormat with two decimal places), but is done with
+ *  arithmetic rather than formatting the amount into a String and parsing it back. It doesn't create any objects (for
+ *  amounts below 45 trillion dollars), and is safe to use from multiple threads since it doesn't share any state.
+ */
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class Money {
+
+	// The amount of cents in a dollar.
+	public static final long CENTS_PER_DOLLAR = 100;
+	private static final int DECIMAL_PLACES = 2;
+
+	// The largest scaled amount that is rounded with double arithmetic. Larger amounts are rounded by a BigDecimal.
+	private static final double MAX_EXACT = 0x1p52;
+
+	// The following constant is used for the error message.
+	private static final String ERROR_NOT_FINITE = "Error: The amount must be a finite number.";
+
+	/**
+	* The constructor is private, since the class only contains static methods.
+	*/
+	private Money() {
+	}
+
+	/**
+	* The roundScaled method multiplies the value by the scale (such as 100 for cents), and rounds the result half-even to
+	* a whole number. When the multiplication lands exactly halfway between two numbers, the fma method is used to retrieve the
+	* rounding error of the multiplication, which determines the side the exact value was on.
+	* @param value double - The amount.
+	* @param scale long - The amount of units in a dollar.
+	* @return double - The rounded amount of units, or NaN if the scaled amount is too large (or not finite).
+	*/
+	public static double roundScaled(double value, long scale) {
+		double scaled = value * scale;
+		if (!(Math.abs(scaled) < MAX_EXACT)) {
+			return Double.NaN;
+		}
+		double floor = Math.floor(scaled);
+		if ((scaled - floor) == 0.5) {
+			double error = Math.fma(value, (double)scale, -scaled);
+			if (error > 0) {
+				return (floor + 1);
+			} else if (error < 0) {
+				return floor;
+			}
+		}
+		return Math.rint(scaled);
+	}
+
+	/**
+	* The toCents method rounds the amount half-even to a whole number of cents.
+	* @param value double - The amount in dollars.
+	* @return long - The amount of cents.
+	* @throws ArithmeticException - If the amount isn't finite, or doesn't fit into a long.
+	*/
+	public static long toCents(double value) {
+		double cents = roundScaled(value, CENTS_PER_DOLLAR);
+		if (cents != cents) {
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				throw new ArithmeticException(ERROR_NOT_FINITE);
+			}
+			// The amount is too large to be rounded with double arithmetic.
+			return new BigDecimal(value).setScale(DECIMAL_PLACES, RoundingMode.HALF_EVEN).movePointRight(DECIMAL_PLACES).longValueExact();
+		}
+		return (long)cents;
+	}
+
+	/**
+	* The toDollars method converts an amount of cents back into dollars. The division is correctly rounded, so the result
+	* is the closest double to the decimal amount (the same value that Double.parseDouble would give).
+	* @param cents long - The amount of cents.
+	* @return double - The amount in dollars.
+	*/
+	public static double toDollars(long cents) {
+		return (cents / (double)CENTS_PER_DOLLAR);
+	}
+
+	/**
+	* The round method rounds the amount half-even to two decimal places. The sign of the amount is kept, so a small negative
+	* amount becomes negative zero, which is the same as parsing the "-0.00" produced by a DecimalFormat. Amounts that aren't
+	* finite are returned unchanged.
+	* @param value double - The amount in dollars.
+	* @return double - The rounded amount.
+	*/
+	public static double round(double value) {
+		double cents = roundScaled(value, CENTS_PER_DOLLAR);
+		if (cents != cents) {
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				return value;
+			}
+			return new BigDecimal(value).setScale(DECIMAL_PLACES, RoundingMode.HALF_EVEN).doubleValue();
+		}
+		return Math.copySign(cents / CENTS_PER_DOLLAR, value);
+	}
+
+	/**
+	* The compare method compares two amounts once they have both been rounded to whole cents.
+	* @param value1 double - The first amount.
+	* @param value2 double - The second amount.
+	* @return int - Less than zero if the first amount is smaller, zero if they are equal, otherwise greater than zero.
+	*/
+	public static int compare(double value1, double value2) {
+		return Long.compare(toCents(value1), toCents(value2));
+	}
+
+	/**
+	* The append method appends the amount to the StringBuilder as a plain number with two decimal places (such as -1234.56),
+	* without any currency symbol or grouping. It is used for machine readable output, and doesn't create any objects.
+	* @param builder StringBuilder - The builder that receives the amount.
+	* @param value double - The amount in dollars.
+	* @return StringBuilder - The received builder.
+	*/
+	public static StringBuilder append(StringBuilder builder, double value) {
+		long cents = toCents(value);
+		if (cents < 0) {
+			builder.append('-');
+		}
+		cents = Math.abs(cents);
+		long fraction = cents % CENTS_PER_DOLLAR;
+		builder.append(cents / CENTS_PER_DOLLAR);
+		builder.append('.');
+		if (fraction < 10) {
+			builder.append('0');
+		}
+		return builder.append(fraction);
+	}
+}
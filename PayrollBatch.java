@@ -0,0 +1,109 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to calculate the income tax, medicare levy and net salary for a whole payroll at once. Rather
+ *  than instantiating a Client object for each employee, the employee data is stored in parallel primitive arrays
+ *  (in which the same index refers to the same employee), and the results are written into the received output arrays.
+ *  No objects are created per employee, and it uses the same TaxTable brackets as the Client class, so therefore
+ *  the results are identical to calling calcTax, calcMedicare and calcNetSalary on a Client.
+ */
+
+public class PayrollBatch {
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_ARRAY_LENGTH = "Error: The %s array must have at least %d elements.";
+	private static final String ERROR_RANGE = "Error: The range %d to %d is outside of the arrays.";
+	private static final String NAME_RESIDENT = "resident";
+	private static final String NAME_TAX = "tax";
+	private static final String NAME_MEDICARE = "medicare";
+	private static final String NAME_NET_SALARY = "netSalary";
+
+	/**
+	* The constructor is private, since the class only contains static methods.
+	*/
+	private PayrollBatch() {
+	}
+
+	/**
+	* The calculate method calculates the tax, medicare and net salary for every element in the grossSalary array.
+	* It chains to the range based calculate method, passing the entire length of the grossSalary array.
+	* @param grossSalary double[] - The gross salary of each employee.
+	* @param resident boolean[] - Whether each employee is a resident or not.
+	* @param tax double[] - The array that receives the calculated income tax.
+	* @param medicare double[] - The array that receives the calculated medicare levy.
+	* @param netSalary double[] - The array that receives the calculated net salary.
+	*/
+	public static void calculate(double[] grossSalary, boolean[] resident, double[] tax, double[] medicare, double[] netSalary) {
+		calculate(TaxTable.DEFAULT_YEAR, grossSalary, resident, tax, medicare, netSalary, 0, grossSalary.length);
+	}
+
+	/**
+	* The range based calculate method calculates the tax, medicare and net salary for the employees from the start index
+	* (inclusive) up to the end index (exclusive), using the default financial year.
+	* @param grossSalary double[] - The gross salary of each employee.
+	* @param resident boolean[] - Whether each employee is a resident or not.
+	* @param tax double[] - The array that receives the calculated income tax.
+	* @param medicare double[] - The array that receives the calculated medicare levy.
+	* @param netSalary double[] - The array that receives the calculated net salary.
+	* @param start int - The first index to be calculated.
+	* @param end int - The index after the last one to be calculated.
+	*/
+	public static void calculate(double[] grossSalary, boolean[] resident, double[] tax, double[] medicare, double[] netSalary,
+			int start, int end) {
+		calculate(TaxTable.DEFAULT_YEAR, grossSalary, resident, tax, medicare, netSalary, start, end);
+	}
+
+	/**
+	* The main calculate method calculates the tax, medicare and net salary for the employees from the start index
+	* (inclusive) up to the end index (exclusive), using the tax tables of the received financial year. The output arrays 
+	* are filled in place, which enables them to be reused between pay runs, and also for separate ranges to be calculated 
+	* by different threads.
+	* @param taxYear String - The financial year of the tax tables.
+	* @param grossSalary double[] - The gross salary of each employee.
+	* @param resident boolean[] - Whether each employee is a resident or not.
+	* @param tax double[] - The array that receives the calculated income tax.
+	* @param medicare double[] - The array that receives the calculated medicare levy.
+	* @param netSalary double[] - The array that receives the calculated net salary.
+	* @param start int - The first index to be calculated.
+	* @param end int - The index after the last one to be calculated.
+	* @throws IllegalArgumentException - If an array is shorter than the grossSalary array, the range is invalid, 
+	*                                    or the year doesn't have tax tables.
+	*/
+	public static void calculate(String taxYear, double[] grossSalary, boolean[] resident, double[] tax, double[] medicare, double[] netSalary,
+			int start, int end) {
+		// Validates the arrays before any calculations are done.
+		checkLength(NAME_RESIDENT, resident.length, grossSalary.length);
+		checkLength(NAME_TAX, tax.length, grossSalary.length);
+		checkLength(NAME_MEDICARE, medicare.length, grossSalary.length);
+		checkLength(NAME_NET_SALARY, netSalary.length, grossSalary.length);
+		if ((start < 0) || (end > grossSalary.length) || (start > end)) {
+			throw new IllegalArgumentException(String.format(ERROR_RANGE, start, end));
+		}
+		// The tables are retrieved once, rather than for each employee.
+		TaxTable residentTable = TaxTable.getTable(taxYear, true);
+		TaxTable nonresidentTable = TaxTable.getTable(taxYear, false);
+		// Iterates for each employee in the range, performing the same calculations (in the same order)
+		// as the calcTax, calcMedicare, and calcNetSalary methods on the Client.
+		for (int i = start; i < end; i++) {
+			TaxTable table = ((resident[i]) ? residentTable : nonresidentTable);
+			tax[i] = table.calcTax(grossSalary[i]);
+			medicare[i] = table.calcMedicare(grossSalary[i]);
+			netSalary[i] = Client.calcNetSalary(grossSalary[i], tax[i], medicare[i]);
+		}
+	}
+
+	/**
+	* The checkLength method is used to ensure that an array is long enough to hold an element for every employee.
+	* @param name String - The name of the array (used in the error message).
+	* @param length int - The length of the array.
+	* @param required int - The required length.
+	* @throws IllegalArgumentException - If the length is less than the required length.
+	*/
+	private static void checkLength(String name, int length, int required) {
+		if (length < required) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, name, required));
+		}
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to store a batch of payroll records in columns (one primitive array for each field), rather than as a
+ *  Client object with two Account objects per employee. It is filled by the MappedPayrollReader, and the calculate method
+ *  then performs the tax calculations with the PayrollBatch class, and the investment projections with the
+ *  InvestmentProjection class. The removeInvalid method then applies the checks that depend on the calculated values. The arrays are reused for every batch, so reading a file doesn't create objects per record.
+ *  The names aren't decoded while reading; the position of each name within the file is stored instead.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class PayrollRecords {
+
+	// The maximum amount of investments for each record.
+	public static final int MAXIMUM_INVESTMENTS = 2;
+	private static final int WEEKS_PER_YEAR = 52;
+
+	// The following constant is used for the error message.
+	private static final String ERROR_FULL = "Error: The records are full (capacity %d).";
+
+	// Instance attributes.
+	private final int capacity;
+	private final double[] grossSalary;
+	private final boolean[] resident;
+	private final double[] weeklyExpenses;
+	private final int[] investments;
+	private final double[][] amount;
+	private final double[][] rate;
+	private final int[][] numberOfWeeks;
+	private final int[] nameStart;
+	private final int[] nameEnd;
+	private final double[] tax;
+	private final double[] medicare;
+	private final double[] netSalary;
+	private final double[][] balance;
+	private ByteBuffer source;
+	private int size;
+
+	/**
+	* The constructor creates the arrays for the received amount of records.
+	* @param capacity int - The maximum amount of records in a batch.
+	*/
+	public PayrollRecords(int capacity) {
+		this.capacity = capacity;
+		this.grossSalary = new double[capacity];
+		this.resident = new boolean[capacity];
+		this.weeklyExpenses = new double[capacity];
+		this.investments = new int[capacity];
+		this.amount = new double[MAXIMUM_INVESTMENTS][capacity];
+		this.rate = new double[MAXIMUM_INVESTMENTS][capacity];
+		this.numberOfWeeks = new int[MAXIMUM_INVESTMENTS][capacity];
+		this.nameStart = new int[capacity];
+		this.nameEnd = new int[capacity];
+		this.tax = new double[capacity];
+		this.medicare = new double[capacity];
+		this.netSalary = new double[capacity];
+		this.balance = new double[MAXIMUM_INVESTMENTS][capacity];
+	}
+
+	/**
+	* The clear method removes the records, so the batch can be refilled.
+	* @param source ByteBuffer - The buffer that the names of the next records are read from.
+	*/
+	public void clear(ByteBuffer source) {
+		this.source = source;
+		this.size = 0;
+	}
+
+	/**
+	* The add method appends a record to the batch.
+	* @param grossSalary double - The gross salary.
+	* @param resident boolean - Whether the employee is a resident or not.
+	* @param weeklyExpenses double - The weekly living expenditure.
+	* @param nameStart int - The position of the first byte of the name within the source buffer.
+	* @param nameEnd int - The position after the last byte of the name.
+	* @return int - The index of the record.
+	* @throws IllegalStateException - If the batch is full.
+	*/
+	public int add(double grossSalary, boolean resident, double weeklyExpenses, int nameStart, int nameEnd) {
+		if (this.size == this.capacity) {
+			throw new IllegalStateException(String.format(ERROR_FULL, this.capacity));
+		}
+		int index = this.size++;
+		this.grossSalary[index] = grossSalary;
+		this.resident[index] = resident;
+		this.weeklyExpenses[index] = weeklyExpenses;
+		this.nameStart[index] = nameStart;
+		this.nameEnd[index] = nameEnd;
+		this.investments[index] = 0;
+		return index;
+	}
+
+	/**
+	* The addInvestment method adds an investment to the last record.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The interest rate.
+	* @param numberOfWeeks int - The investment length.
+	*/
+	public void addInvestment(double amount, double rate, int numberOfWeeks) {
+		int index = this.size - 1;
+		int investment = this.investments[index]++;
+		this.amount[investment][index] = amount;
+		this.rate[investment][index] = rate;
+		this.numberOfWeeks[investment][index] = numberOfWeeks;
+	}
+
+	/**
+	* The removeLast method removes the last record, which is used when a record is found to be invalid part of the way through.
+	*/
+	public void removeLast() {
+		this.size--;
+	}
+
+	/**
+	* The calculate method calculates the tax, medicare and net salary of every record (using the PayrollBatch class), and the
+	* final balance of every investment (iterating each month, the same as the Account's table in the batch mode).
+	*/
+	public void calculate() {
+		PayrollBatch.calculate(this.grossSalary, this.resident, this.tax, this.medicare, this.netSalary, 0, this.size);
+		for (int investment = 0; investment < MAXIMUM_INVESTMENTS; investment++) {
+			double[] amounts = this.amount[investment];
+			double[] rates = this.rate[investment];
+			int[] weeks = this.numberOfWeeks[investment];
+			double[] balances = this.balance[investment];
+			for (int i = 0; i < this.size; i++) {
+				balances[i] = ((investment < this.investments[i]) ? InvestmentProjection.calcFinalBalance(amounts[i], rates[i], weeks[i]) : 0);
+			}
+		}
+	}
+
+	/**
+	* The removeInvalid method removes the records that fail the same checks as the BatchProcessor applies once the tax is known:
+	* the weekly expenses must not be more than the weekly net salary, and the total investment must not exceed the available
+	* funds (both rounded to whole cents, the same as the Client). The remaining records are moved down to keep them in order.
+	* It must be called after the calculate method.
+	* @return int - The amount of records removed.
+	*/
+	public int removeInvalid() {
+		int size = 0;
+		for (int i = 0; i < this.size; i++) {
+			double weeklyNetSalary = Money.round(this.netSalary[i] / WEEKS_PER_YEAR);
+			double invested = 0;
+			for (int investment = 0; investment < this.investments[i]; investment++) {
+				invested += this.amount[investment][i];
+			}
+			if ((this.weeklyExpenses[i] > weeklyNetSalary) || (invested > Money.round(weeklyNetSalary - this.weeklyExpenses[i]))) {
+				continue;
+			}
+			if (size != i) {
+				this.move(i, size);
+			}
+			size++;
+		}
+		int removed = this.size - size;
+		this.size = size;
+		return removed;
+	}
+
+	/**
+	* The move method copies a record (including its calculated values) to another index.
+	* @param from int - The record.
+	* @param to int - The index that receives the record.
+	*/
+	private void move(int from, int to) {
+		this.grossSalary[to] = this.grossSalary[from];
+		this.resident[to] = this.resident[from];
+		this.weeklyExpenses[to] = this.weeklyExpenses[from];
+		this.investments[to] = this.investments[from];
+		this.nameStart[to] = this.nameStart[from];
+		this.nameEnd[to] = this.nameEnd[from];
+		this.tax[to] = this.tax[from];
+		this.medicare[to] = this.medicare[from];
+		this.netSalary[to] = this.netSalary[from];
+		for (int investment = 0; investment < MAXIMUM_INVESTMENTS; investment++) {
+			this.amount[investment][to] = this.amount[investment][from];
+			this.rate[investment][to] = this.rate[investment][from];
+			this.numberOfWeeks[investment][to] = this.numberOfWeeks[investment][from];
+			this.balance[investment][to] = this.balance[investment][from];
+		}
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public double getGrossSalary(int index) {
+		return this.grossSalary[index];
+	}
+
+	public boolean getResident(int index) {
+		return this.resident[index];
+	}
+
+	public double getWeeklyExpenses(int index) {
+		return this.weeklyExpenses[index];
+	}
+
+	public int getInvestments(int index) {
+		return this.investments[index];
+	}
+
+	public double getAmount(int index, int investment) {
+		return this.amount[investment][index];
+	}
+
+	public double getRate(int index, int investment) {
+		return this.rate[investment][index];
+	}
+
+	public int getNumberOfWeeks(int index, int investment) {
+		return this.numberOfWeeks[investment][index];
+	}
+
+	public double getTax(int index) {
+		return this.tax[index];
+	}
+
+	public double getMedicare(int index) {
+		return this.medicare[index];
+	}
+
+	public double getNetSalary(int index) {
+		return this.netSalary[index];
+	}
+
+	/**
+	* The getBalance method retrieves the final balance of an investment, once the calculate method has been called.
+	* @param index int - The record.
+	* @param investment int - The investment (starting from zero).
+	* @return double - The final balance.
+	*/
+	public double getBalance(int index, int investment) {
+		return this.balance[investment][index];
+	}
+
+	/**
+	* The getName method decodes the name of a record from the source buffer. It creates a String, so it should only be used
+	* when the name is actually required.
+	* @param index int - The record.
+	* @return String - The name.
+	*/
+	public String getName(int index) {
+		byte[] bytes = new byte[this.nameEnd[index] - this.nameStart[index]];
+		this.source.get(this.nameStart[index], bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
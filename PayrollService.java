@@ -0,0 +1,162 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to calculate the tax for a payroll using multiple processor cores. The work is divided into ranges
+ *  of employees which are calculated in parallel on a ForkJoinPool. The calculations don't share any mutable state (the
+ *  TaxTable brackets are immutable, and the rounding is done by the Money class), so the ranges can be calculated at the
+ *  same time without any locking.
+ */
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class PayrollService {
+
+	// The amount of employees calculated by a single task, before the range is divided further.
+	private static final int TASK_SIZE = 16384;
+
+	// The following constant is used for the error message.
+	private static final String ERROR_ARRAY_LENGTH = "Error: The arrays must have at least %d elements.";
+
+	// Instance attributes.
+	private final ForkJoinPool pool;
+	private final String taxYear;
+
+	/**
+	* The default constructor. It chains with the common ForkJoinPool to the second constructor.
+	*/
+	public PayrollService() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	* The second constructor receives the pool, and chains with the default financial year to the main constructor.
+	* @param pool ForkJoinPool - The pool used to run the calculations.
+	*/
+	public PayrollService(ForkJoinPool pool) {
+		this(pool, TaxTable.DEFAULT_YEAR);
+	}
+
+	/**
+	* The main constructor receives the pool used to run the calculations, and the financial year of the tax tables.
+	* @param pool ForkJoinPool - The pool used to run the calculations.
+	* @param taxYear String - The financial year of the tax tables.
+	*/
+	public PayrollService(ForkJoinPool pool, String taxYear) {
+		// Retrieves the tables, which ensures the financial year exists before any calculations are done.
+		TaxTable.getTable(taxYear, true);
+		TaxTable.getTable(taxYear, false);
+		this.pool = pool;
+		this.taxYear = taxYear;
+	}
+
+	public ForkJoinPool getPool() {
+		return this.pool;
+	}
+
+	public String getTaxYear() {
+		return this.taxYear;
+	}
+
+	/**
+	* The calculate method calculates the tax, medicare and net salary for every employee, filling the output arrays in place. The
+	* arrays are divided into ranges that are calculated in parallel by the PayrollBatch class, so no objects are created per employee.
+	* @param grossSalary double[] - The gross salary of each employee.
+	* @param resident boolean[] - Whether each employee is a resident or not.
+	* @param tax double[] - The array that receives the calculated income tax.
+	* @param medicare double[] - The array that receives the calculated medicare levy.
+	* @param netSalary double[] - The array that receives the calculated net salary.
+	* @throws IllegalArgumentException - If an array is shorter than the grossSalary array.
+	*/
+	public void calculate(double[] grossSalary, boolean[] resident, double[] tax, double[] medicare, double[] netSalary) {
+		int length = grossSalary.length;
+		if ((resident.length < length) || (tax.length < length) || (medicare.length < length) || (netSalary.length < length)) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, length));
+		}
+		this.pool.invoke(new PayrollTask(this.taxYear, grossSalary, resident, tax, medicare, netSalary, 0, length));
+	}
+
+	/**
+	* The calculate method calculates a TaxResult for every employee in parallel.
+	* @param grossSalary double[] - The gross salary of each employee.
+	* @param resident boolean[] - Whether each employee is a resident or not.
+	* @return TaxResult[] - The results, in the same order as the received arrays.
+	* @throws IllegalArgumentException - If the resident array is shorter than the grossSalary array.
+	*/
+	public TaxResult[] calculate(double[] grossSalary, boolean[] resident) {
+		if (resident.length < grossSalary.length) {
+			throw new IllegalArgumentException(String.format(ERROR_ARRAY_LENGTH, grossSalary.length));
+		}
+		TaxTable residentTable = TaxTable.getTable(this.taxYear, true);
+		TaxTable nonresidentTable = TaxTable.getTable(this.taxYear, false);
+		// The stream is run from within the pool, so the parallel stream uses the pool's threads.
+		return this.pool.submit(() -> IntStream.range(0, grossSalary.length).parallel()
+			.mapToObj(i -> TaxResult.calculate((resident[i]) ? residentTable : nonresidentTable, grossSalary[i]))
+			.toArray(TaxResult[]::new)).join();
+	}
+
+	/**
+	* The calculate method calculates a TaxResult for every input in the stream in parallel. The gross salary and residency are
+	* retrieved from each input using the received functions, so any type of employee record can be used.
+	* @param inputs Stream - The employee records.
+	* @param grossSalary ToDoubleFunction - Retrieves the gross salary of an employee record.
+	* @param resident Predicate - Determines whether an employee record is a resident.
+	* @return List - The results, in the same order as the stream.
+	*/
+	public <T> List<TaxResult> calculate(Stream<T> inputs, ToDoubleFunction<? super T> grossSalary, Predicate<? super T> resident) {
+		TaxTable residentTable = TaxTable.getTable(this.taxYear, true);
+		TaxTable nonresidentTable = TaxTable.getTable(this.taxYear, false);
+		return this.pool.submit(() -> inputs.parallel()
+			.map(input -> TaxResult.calculate((resident.test(input)) ? residentTable : nonresidentTable, grossSalary.applyAsDouble(input)))
+			.collect(Collectors.toList())).join();
+	}
+
+	/**
+	* The PayrollTask class divides a range of employees in half until it is small enough, and then calculates the range
+	* using the PayrollBatch class.
+	*/
+	private static class PayrollTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String taxYear;
+		private final double[] grossSalary;
+		private final boolean[] resident;
+		private final double[] tax;
+		private final double[] medicare;
+		private final double[] netSalary;
+		private final int start;
+		private final int end;
+
+		PayrollTask(String taxYear, double[] grossSalary, boolean[] resident, double[] tax, double[] medicare, double[] netSalary,
+				int start, int end) {
+			this.taxYear = taxYear;
+			this.grossSalary = grossSalary;
+			this.resident = resident;
+			this.tax = tax;
+			this.medicare = medicare;
+			this.netSalary = netSalary;
+			this.start = start;
+			this.end = end;
+		}
+
+		protected void compute() {
+			if ((this.end - this.start) <= TASK_SIZE) {
+				PayrollBatch.calculate(this.taxYear, this.grossSalary, this.resident, this.tax, this.medicare, this.netSalary,
+					this.start, this.end);
+			} else {
+				int middle = (this.start + this.end) >>> 1;
+				invokeAll(new PayrollTask(this.taxYear, this.grossSalary, this.resident, this.tax, this.medicare, this.netSalary, this.start, middle),
+					new PayrollTask(this.taxYear, this.grossSalary, this.resident, this.tax, this.medicare, this.netSalary, middle, this.end));
+			}
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to measure the throughput of the PayrollService as the amount of processor cores increases. It creates
+ *  a payroll of random salaries (with a mix of residents and nonresidents), and calculates it with a ForkJoinPool of one
+ *  thread, then two threads, and so on up to the amount of available processors. It displays the amount of employees
+ *  calculated per second, and the speedup compared to a single thread.
+ *  Usage: java PayrollServiceBenchmark [employees] [iterations]
+ */
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class PayrollServiceBenchmark {
+
+	// The following constants are the default benchmark settings.
+	private static final int DEFAULT_EMPLOYEES = 4000000;
+	private static final int DEFAULT_ITERATIONS = 10;
+	private static final int WARMUP_ITERATIONS = 5;
+	private static final double MAXIMUM_SALARY = 250000;
+	private static final double RESIDENT_RATIO = 0.8;
+	private static final long SEED = 1;
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	// The following constants are used for formatting the output.
+	private static final String FORMAT_HEADING = "%-8s %-9s %16s %8s%n";
+	private static final String FORMAT_ROW = "%-8d %-9s %16.0f %8.2f%n";
+	private static final String COLUMN_THREADS = "Threads";
+	private static final String COLUMN_MODE = "Mode";
+	private static final String COLUMN_THROUGHPUT = "Employees/sec";
+	private static final String COLUMN_SPEEDUP = "Speedup";
+	private static final String MODE_ARRAYS = "arrays";
+	private static final String MODE_RESULTS = "results";
+
+	/**
+	* The main method runs the benchmark.
+	* @param args String[] - The optional amount of employees, and amount of measured iterations.
+	*/
+	public static void main(String[] args) {
+		int employees = ((args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_EMPLOYEES);
+		int iterations = ((args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS);
+		// Creates the random payroll.
+		Random random = new Random(SEED);
+		double[] grossSalary = new double[employees];
+		boolean[] resident = new boolean[employees];
+		for (int i = 0; i < employees; i++) {
+			grossSalary[i] = Math.floor(random.nextDouble() * MAXIMUM_SALARY);
+			resident[i] = (random.nextDouble() < RESIDENT_RATIO);
+		}
+		double[] tax = new double[employees];
+		double[] medicare = new double[employees];
+		double[] netSalary = new double[employees];
+
+		System.out.printf(FORMAT_HEADING, COLUMN_THREADS, COLUMN_MODE, COLUMN_THROUGHPUT, COLUMN_SPEEDUP);
+		double baseArrays = 0, baseResults = 0;
+		for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads++) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				PayrollService service = new PayrollService(pool);
+				// Measures the in place calculation.
+				for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+					service.calculate(grossSalary, resident, tax, medicare, netSalary);
+				}
+				long start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					service.calculate(grossSalary, resident, tax, medicare, netSalary);
+				}
+				double arrays = throughput(employees, iterations, System.nanoTime() - start);
+				baseArrays = ((threads == 1) ? arrays : baseArrays);
+				System.out.printf(FORMAT_ROW, threads, MODE_ARRAYS, arrays, arrays / baseArrays);
+				// Measures the calculation of the immutable results.
+				for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+					service.calculate(grossSalary, resident);
+				}
+				start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					service.calculate(grossSalary, resident);
+				}
+				double results = throughput(employees, iterations, System.nanoTime() - start);
+				baseResults = ((threads == 1) ? results : baseResults);
+				System.out.printf(FORMAT_ROW, threads, MODE_RESULTS, results, results / baseResults);
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	* The throughput method calculates the amount of employees calculated per second.
+	* @param employees int - The amount of employees in the payroll.
+	* @param iterations int - The amount of times the payroll was calculated.
+	* @param nanos long - The elapsed time in nanoseconds.
+	* @return double - The employees calculated per second.
+	*/
+	private static double throughput(int employees, int iterations, long nanos) {
+		return ((((double)employees) * iterations) / (nanos / NANOS_PER_SECOND));
+	}
+}
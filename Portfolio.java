@@ -0,0 +1,354 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to store any amount of investment accounts for a Client. Rather than holding an Account object for
+ *  each, the amount, interest rate and investment length of every account are stored in primitive arrays (indexed by the
+ *  account's slot), which are only enlarged when a slot beyond their length is used. A slot can be empty, so the accounts
+ *  keep their numbers as others are removed (such as account 1 being removed while account 2 remains).
+ *  The total amount invested each week is maintained as the accounts are changed, so checking a new investment against
+ *  the available funds doesn't iterate the accounts. The sum is compensated (the rounding error of each change is kept
+ *  separately), so removing an account returns the total to the same value as the sum of the remaining accounts.
+ *  The calcProjection method combines the monthly projections of every account in a single pass over the accounts. The
+ *  combined projection is kept by the getProjection method until an account is changed.
+ */
+
+import java.util.Arrays;
+
+public class Portfolio {
+
+	// The following constants are used by the arrays.
+	private static final int DEFAULT_CAPACITY = 2;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_SLOT_RANGE = "Error: The account %d must be between 0 and %d.";
+	private static final String ERROR_NEGATIVE_SLOT = "Error: The account %d can't be negative.";
+
+	// Instance attributes.
+	private double[] amounts;
+	private double[] rates;
+	private int[] weeks;
+	private boolean[] present;
+	private int size; // The amount of slots in use (one more than the last account).
+	private int count; // The amount of accounts.
+	private double totalAmount;
+	private double totalError; // The rounding error of the total amount.
+	private double[] held; // Reused by the calcProjection method.
+	private ProjectionResult projection; // The combined projection of the current accounts.
+	private boolean projectionCalculated;
+
+	/**
+	* The default constructor. It chains with the default capacity (being the two accounts of the interactive program) to the
+	* main constructor.
+	*/
+	public Portfolio() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	* The main constructor receives the initial amount of accounts that can be stored without enlarging the arrays.
+	* @param capacity int - The initial amount of accounts.
+	*/
+	public Portfolio(int capacity) {
+		this.amounts = new double[capacity];
+		this.rates = new double[capacity];
+		this.weeks = new int[capacity];
+		this.present = new boolean[capacity];
+		this.held = new double[0];
+		this.projection = new ProjectionResult();
+	}
+
+	/**
+	* The size method retrieves the amount of slots in use, which is one more than the slot of the last account. Some of the
+	* slots before it may be empty.
+	* @return int - The amount of slots.
+	*/
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	* The getAccountCount method retrieves the amount of accounts (not including the empty slots).
+	* @return int - The amount of accounts.
+	*/
+	public int getAccountCount() {
+		return this.count;
+	}
+
+	/**
+	* The getTotalAmount method retrieves the total amount invested each week by all of the accounts, in constant time.
+	* @return double - The total weekly investment.
+	*/
+	public double getTotalAmount() {
+		return (this.totalAmount + this.totalError);
+	}
+
+	/**
+	* The hasAccount method determines whether the slot holds an account.
+	* @param slot int - The slot.
+	* @return boolean - Whether there is an account in the slot.
+	*/
+	public boolean hasAccount(int slot) {
+		return ((slot >= 0) && (slot < this.size) && this.present[slot]);
+	}
+
+	public double getAmount(int slot) {
+		return this.amounts[this.checkSlot(slot)];
+	}
+
+	public double getRate(int slot) {
+		return this.rates[this.checkSlot(slot)];
+	}
+
+	public int getNumberOfWeeks(int slot) {
+		return this.weeks[this.checkSlot(slot)];
+	}
+
+	/**
+	* The getAccount method creates an Account object holding the values of the slot. The Account is a copy, so changing it
+	* doesn't change the portfolio (until it is set again).
+	* @param slot int - The slot.
+	* @return Account - The account, or null if the slot is empty.
+	*/
+	public Account getAccount(int slot) {
+		return (this.hasAccount(slot) ? this.getAccount(slot, new Account()) : null);
+	}
+
+	/**
+	* The getAccount method copies the values of the slot into the received Account object, which avoids creating a new one.
+	* @param slot int - The slot.
+	* @param account Account - The account that receives the values.
+	* @return Account - The received account, or null if the slot is empty.
+	*/
+	public Account getAccount(int slot, Account account) {
+		if (!this.hasAccount(slot)) {
+			return null;
+		}
+		account.setAmount(this.amounts[slot]);
+		account.setRate(this.rates[slot]);
+		account.setNumberOfWeeks(this.weeks[slot]);
+		return account;
+	}
+
+	/**
+	* The setAccount method copies the values of the received Account object into the slot (replacing any existing account).
+	* If the account is null, then the slot is emptied.
+	* @param slot int - The slot.
+	* @param account Account - The account, or null.
+	* @throws IllegalArgumentException - If the slot is negative.
+	*/
+	public void setAccount(int slot, Account account) {
+		if (account == null) {
+			this.removeAccount(slot);
+		} else {
+			this.setAccount(slot, account.getAmount(), account.getRate(), account.getNumberOfWeeks());
+		}
+	}
+
+	/**
+	* The setAccount method stores an account into the slot (replacing any existing account). The arrays are enlarged if the
+	* slot is beyond their length.
+	* @param slot int - The slot.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The interest rate.
+	* @param numberOfWeeks int - The investment length.
+	* @throws IllegalArgumentException - If the slot is negative.
+	*/
+	public void setAccount(int slot, double amount, double rate, int numberOfWeeks) {
+		if (slot < 0) {
+			throw new IllegalArgumentException(String.format(ERROR_NEGATIVE_SLOT, slot));
+		}
+		if (slot >= this.amounts.length) {
+			this.grow(slot + 1);
+		}
+		if (this.present[slot]) {
+			this.addToTotal(-this.amounts[slot]);
+		} else {
+			this.present[slot] = true;
+			this.count++;
+		}
+		this.amounts[slot] = amount;
+		this.rates[slot] = rate;
+		this.weeks[slot] = numberOfWeeks;
+		this.addToTotal(amount);
+		this.size = Math.max(this.size, slot + 1);
+		this.projectionCalculated = false;
+	}
+
+	/**
+	* The addAccount method stores the account into the slot after the last account.
+	* @param account Account - The account.
+	* @return int - The slot of the account.
+	*/
+	public int addAccount(Account account) {
+		int slot = this.size;
+		this.setAccount(slot, account.getAmount(), account.getRate(), account.getNumberOfWeeks());
+		return slot;
+	}
+
+	/**
+	* The removeAccount method empties the slot. The slots of the other accounts don't change.
+	* @param slot int - The slot, which is ignored if it is already empty.
+	*/
+	public void removeAccount(int slot) {
+		if (!this.hasAccount(slot)) {
+			return;
+		}
+		this.present[slot] = false;
+		this.count--;
+		this.addToTotal(-this.amounts[slot]);
+		this.amounts[slot] = 0;
+		this.rates[slot] = 0;
+		this.weeks[slot] = 0;
+		this.projectionCalculated = false;
+		// The trailing empty slots are no longer in use.
+		while ((this.size > 0) && !this.present[this.size - 1]) {
+			this.size--;
+		}
+		if (this.count == 0) {
+			this.totalAmount = 0;
+			this.totalError = 0;
+		}
+	}
+
+	/**
+	* The clear method removes every account. The arrays are kept, so they can be reused.
+	*/
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.present[i] = false;
+			this.amounts[i] = 0;
+			this.rates[i] = 0;
+			this.weeks[i] = 0;
+		}
+		this.size = 0;
+		this.count = 0;
+		this.totalAmount = 0;
+		this.totalError = 0;
+		this.projectionCalculated = false;
+	}
+
+	/**
+	* The getMaximumWeeks method determines the longest investment length of the accounts.
+	* @return int - The longest investment length, or zero if there aren't any accounts.
+	*/
+	public int getMaximumWeeks() {
+		int maximum = 0;
+		for (int i = 0; i < this.size; i++) {
+			if (this.present[i]) {
+				maximum = Math.max(maximum, this.weeks[i]);
+			}
+		}
+		return maximum;
+	}
+
+	/**
+	* The calcProjection method calculates the combined monthly projection of every account, storing the total balance of each
+	* month into the received ProjectionResult. The rows are the same as the projection of an account with the longest investment
+	* length. Each account adds its balances (calculated the same as the InvestmentProjection class) while it is invested, and an
+	* account that has ended keeps its final balance for the remaining months. The final balances are accumulated into the month
+	* after each account ends and carried forward once at the end, so each account only iterates its own months.
+	* @param result ProjectionResult - The result that receives the week and total balance of each monthly row.
+	* @return ProjectionResult - The received result.
+	*/
+	public ProjectionResult calcProjection(ProjectionResult result) {
+		int maximumWeeks = this.getMaximumWeeks();
+		int months = InvestmentProjection.getNumberOfMonths(maximumWeeks);
+		result.ensureCapacity(months);
+		if (this.held.length < (months + 1)) {
+			this.held = new double[months + 1];
+		}
+		double[] balances = result.getBalances();
+		double[] held = this.held;
+		Arrays.fill(balances, 0, months, 0);
+		Arrays.fill(held, 0, months + 1, 0);
+		for (int i = 0; i < this.size; i++) {
+			if (!this.present[i] || (this.weeks[i] <= 0)) {
+				continue;
+			}
+			double amount = this.amounts[i];
+			double growth = InvestmentProjection.calcGrowth(this.rates[i]);
+			int numberOfWeeks = this.weeks[i];
+			double total = 0;
+			int month = 0;
+			for (int week = InvestmentProjection.WEEKS_PER_MONTH; week <= numberOfWeeks; week += InvestmentProjection.WEEKS_PER_MONTH) {
+				total = ((total + amount * InvestmentProjection.WEEKS_PER_MONTH) * growth);
+				balances[month++] += total;
+			}
+			if ((numberOfWeeks % InvestmentProjection.WEEKS_PER_MONTH) != 0) {
+				total = (total + amount * (numberOfWeeks % InvestmentProjection.WEEKS_PER_MONTH));
+				balances[month++] += total;
+			}
+			held[month] += total;
+		}
+		// Carries the final balance of each ended account forward into the following months.
+		double carried = 0;
+		int[] rows = result.getWeeks();
+		for (int month = 0; month < months; month++) {
+			carried += held[month];
+			balances[month] += carried;
+			rows[month] = Math.min((month + 1) * InvestmentProjection.WEEKS_PER_MONTH, maximumWeeks);
+		}
+		result.setSize(months);
+		return result;
+	}
+
+	/**
+	* The getProjection method retrieves the combined monthly projection of every account. It is calculated when it is first
+	* retrieved, and is then kept until an account is set or removed. The result belongs to the portfolio, so it must not be changed.
+	* @return ProjectionResult - The week and total balance of each monthly row.
+	*/
+	public ProjectionResult getProjection() {
+		if (!this.projectionCalculated) {
+			this.calcProjection(this.projection);
+			this.projectionCalculated = true;
+		}
+		return this.projection;
+	}
+
+	/**
+	* The calcProjection method calculates the combined monthly projection into a new ProjectionResult.
+	* @return ProjectionResult - The week and total balance of each monthly row.
+	*/
+	public ProjectionResult calcProjection() {
+		return this.calcProjection(new ProjectionResult(InvestmentProjection.getNumberOfMonths(this.getMaximumWeeks())));
+	}
+
+	/**
+	* The addToTotal method adds a change to the total amount. The rounding error of the addition is calculated exactly (using
+	* the two-sum method) and kept separately, so the total doesn't drift as accounts are replaced and removed.
+	* @param value double - The change.
+	*/
+	private void addToTotal(double value) {
+		double sum = this.totalAmount + value;
+		double virtual = sum - value;
+		this.totalError += ((this.totalAmount - virtual) + (value - (sum - virtual)));
+		this.totalAmount = sum;
+	}
+
+	/**
+	* The grow method enlarges the arrays to hold at least the received amount of slots (doubling their length).
+	* @param capacity int - The amount of slots required.
+	*/
+	private void grow(int capacity) {
+		int length = Math.max(capacity, this.amounts.length * 2);
+		this.amounts = Arrays.copyOf(this.amounts, length);
+		this.rates = Arrays.copyOf(this.rates, length);
+		this.weeks = Arrays.copyOf(this.weeks, length);
+		this.present = Arrays.copyOf(this.present, length);
+	}
+
+	/**
+	* The checkSlot method ensures the slot holds an account.
+	* @param slot int - The slot.
+	* @return int - The received slot.
+	* @throws IndexOutOfBoundsException - If the slot is empty, or outside of the slots in use.
+	*/
+	private int checkSlot(int slot) {
+		if (!this.hasAccount(slot)) {
+			throw new IndexOutOfBoundsException(String.format(ERROR_SLOT_RANGE, slot, this.size - 1));
+		}
+		return slot;
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is a bounded cache of investment projections, for standard investment products that are projected many times.
+ *  The balances are cached as a series of full months for each amount and interest rate. Since the balance at the end of
+ *  a month doesn't depend on the investment length, any length can be served from a longer series (a 52 week projection
+ *  is the first 13 months of a cached 104 week series, for example), and a shorter series is extended rather than being
+ *  calculated again. The balances are calculated in the same order as the InvestmentProjection class, so they are
+ *  identical to the Account's projections. The rendered tables (the calcInvestment text) are also cached, keyed by the
+ *  amount, interest rate and investment length, and are formatted with the CurrencyFormatter of the thread that renders them.
+ *  Once either part of the cache is full, the least recently used entry is evicted.
+ *  The Account class consults the shared cache (if one has been set with the setShared method). The methods are thread-safe.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ProjectionCache {
+
+	// The default amount of series and rendered tables kept by the cache.
+	public static final int DEFAULT_CAPACITY = 256;
+	private static final int WEEKS_PER_MONTH = InvestmentProjection.WEEKS_PER_MONTH;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_CAPACITY = "Error: The capacity %d must be greater than zero.";
+	private static final String ERROR_NEGATIVE_WEEKS = "Error: The number of weeks can't be negative.";
+
+	// The cache used by the Account class, or null if the Account class doesn't use a cache.
+	private static volatile ProjectionCache shared;
+
+	// Instance attributes.
+	private final int capacity;
+	private final Map<Key, double[]> series;
+	private final Map<Key, String> tables;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder extensions;
+	private final LongAdder tableHits;
+	private final LongAdder tableMisses;
+	private final LongAdder evictions;
+
+	/**
+	* The Key class is the key of a series (the amount and rate), or of a rendered table (which also has the number of weeks).
+	*/
+	private static final class Key {
+		private final long amount;
+		private final long rate;
+		private final int numberOfWeeks;
+
+		Key(double amount, double rate, int numberOfWeeks) {
+			this.amount = Double.doubleToLongBits(amount);
+			this.rate = Double.doubleToLongBits(rate);
+			this.numberOfWeeks = numberOfWeeks;
+		}
+
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key key = (Key)object;
+			return ((this.amount == key.amount) && (this.rate == key.rate) && (this.numberOfWeeks == key.numberOfWeeks));
+		}
+
+		public int hashCode() {
+			return ((((31 * Long.hashCode(this.amount)) + Long.hashCode(this.rate)) * 31) + this.numberOfWeeks);
+		}
+	}
+
+	/**
+	* The constructor creates an empty cache.
+	* @param capacity int - The maximum amount of series (and also of rendered tables) kept by the cache.
+	* @throws IllegalArgumentException - If the capacity isn't greater than zero.
+	*/
+	public ProjectionCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(String.format(ERROR_CAPACITY, capacity));
+		}
+		this.capacity = capacity;
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+		this.extensions = new LongAdder();
+		this.tableHits = new LongAdder();
+		this.tableMisses = new LongAdder();
+		this.evictions = new LongAdder();
+		this.series = this.createMap();
+		this.tables = this.createMap();
+	}
+
+	/**
+	* The createMap method creates a map that is kept in access order, and evicts the least recently used entry once it is full.
+	* @return Map - The map.
+	*/
+	private <V> Map<Key, V> createMap() {
+		return new LinkedHashMap<Key, V>((int)(this.capacity / LOAD_FACTOR) + 1, LOAD_FACTOR, true) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+				if (this.size() > ProjectionCache.this.capacity) {
+					ProjectionCache.this.evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	* The static getShared method retrieves the cache used by the Account class.
+	* @return ProjectionCache - The shared cache, or null if there isn't one.
+	*/
+	public static ProjectionCache getShared() {
+		return shared;
+	}
+
+	/**
+	* The static setShared method sets the cache used by the Account class.
+	* @param cache ProjectionCache - The cache, or null for the Account class to calculate every projection.
+	*/
+	public static void setShared(ProjectionCache cache) {
+		shared = cache;
+	}
+
+	/**
+	* The getSeries method retrieves the balance at the end of each full month, for at least the received amount of months.
+	* If the cached series is too short (or there isn't one), then it is extended from its last balance and replaced.
+	* The returned array must not be changed.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @param months int - The amount of full months required.
+	* @return double[] - The series, which may be longer than the amount of months.
+	*/
+	private double[] getSeries(double amount, double rate, int months) {
+		Key key = new Key(amount, rate, 0);
+		double[] cached;
+		synchronized (this.series) {
+			cached = this.series.get(key);
+		}
+		if ((cached != null) && (cached.length >= months)) {
+			this.hits.increment();
+			return cached;
+		}
+		if (cached == null) {
+			this.misses.increment();
+			cached = new double[0];
+		} else {
+			this.extensions.increment();
+		}
+		// Continues the series from its last balance, with the same calculation as the InvestmentProjection.calcBalances method.
+		double[] extended = new double[months];
+		System.arraycopy(cached, 0, extended, 0, cached.length);
+		double growth = InvestmentProjection.calcGrowth(rate);
+		double total = ((cached.length > 0) ? cached[cached.length - 1] : 0);
+		for (int month = cached.length; month < months; month++) {
+			total = ((total + amount * WEEKS_PER_MONTH) * growth);
+			extended[month] = total;
+		}
+		synchronized (this.series) {
+			// Another thread may have cached a longer series in the meantime, in which case it is kept.
+			double[] current = this.series.get(key);
+			if ((current == null) || (current.length < extended.length)) {
+				this.series.put(key, extended);
+			}
+		}
+		return extended;
+	}
+
+	/**
+	* The getProjection method fills the received result with the week number and balance of every monthly row (the same as
+	* the InvestmentProjection.calcProjection method), using the cached series.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @param numberOfWeeks int - The investment length.
+	* @param result ProjectionResult - The result that receives the rows.
+	* @return ProjectionResult - The received result.
+	* @throws IllegalArgumentException - If the number of weeks is negative.
+	*/
+	public ProjectionResult getProjection(double amount, double rate, int numberOfWeeks, ProjectionResult result) {
+		if (numberOfWeeks < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+		}
+		int fullMonths = numberOfWeeks / WEEKS_PER_MONTH;
+		int months = InvestmentProjection.getNumberOfMonths(numberOfWeeks);
+		double[] balances = this.getSeries(amount, rate, fullMonths);
+		result.ensureCapacity(months);
+		System.arraycopy(balances, 0, result.getBalances(), 0, fullMonths);
+		// The partial month adds the remaining weeks to the last full month, without any interest.
+		if (months > fullMonths) {
+			double total = ((fullMonths > 0) ? balances[fullMonths - 1] : 0);
+			result.getBalances()[fullMonths] = (total + amount * (numberOfWeeks % WEEKS_PER_MONTH));
+		}
+		int[] weeks = result.getWeeks();
+		for (int month = 0; month < months; month++) {
+			weeks[month] = Math.min((month + 1) * WEEKS_PER_MONTH, numberOfWeeks);
+		}
+		result.setSize(months);
+		return result;
+	}
+
+	/**
+	* The getInvestment method retrieves the rendered table of the projection (the same text as the Account's calcInvestment
+	* method). If the table isn't cached, it is formatted from the cached series.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The annual interest rate percentage.
+	* @param numberOfWeeks int - The investment length.
+	* @return String - The text-based table.
+	* @throws IllegalArgumentException - If the number of weeks is negative.
+	*/
+	public String getInvestment(double amount, double rate, int numberOfWeeks) {
+		Key key = new Key(amount, rate, numberOfWeeks);
+		String table;
+		synchronized (this.tables) {
+			table = this.tables.get(key);
+		}
+		if (table != null) {
+			this.tableHits.increment();
+			return table;
+		}
+		this.tableMisses.increment();
+		ProjectionResult result = new ProjectionResult(InvestmentProjection.getNumberOfMonths(Math.max(0, numberOfWeeks)));
+		table = Account.formatInvestment(this.getProjection(amount, rate, numberOfWeeks, result));
+		synchronized (this.tables) {
+			this.tables.put(key, table);
+		}
+		return table;
+	}
+
+	/**
+	* The clear method removes every series and rendered table. The counters aren't reset.
+	*/
+	public void clear() {
+		synchronized (this.series) {
+			this.series.clear();
+		}
+		synchronized (this.tables) {
+			this.tables.clear();
+		}
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	* The getHits method retrieves the amount of projections that were served from a cached series that was long enough.
+	* @return long - The amount of hits.
+	*/
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	* The getExtensions method retrieves the amount of projections that required a cached series to be extended.
+	* @return long - The amount of extensions.
+	*/
+	public long getExtensions() {
+		return this.extensions.sum();
+	}
+
+	public long getTableHits() {
+		return this.tableHits.sum();
+	}
+
+	public long getTableMisses() {
+		return this.tableMisses.sum();
+	}
+
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	/**
+	* The toString method is overridden from the super Object, and displays the counters of the cache.
+	* @return String - A text version of the counters.
+	*/
+	public String toString() {
+		return String.format("ProjectionCache[capacity=%d, hits=%d, misses=%d, extensions=%d, tableHits=%d, tableMisses=%d, evictions=%d]",
+			this.capacity, this.getHits(), this.getMisses(), this.getExtensions(), this.getTableHits(), this.getTableMisses(),
+			this.getEvictions());
+	}
+}
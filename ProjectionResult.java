@@ -0,0 +1,117 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to store the numeric results of an investment projection, being the week and the balance of each
+ *  monthly row. The values are stored in primitive arrays, which are only enlarged when a longer projection is received,
+ *  so the same object can be reused for many projections without creating new objects each time.
+ */
+
+public class ProjectionResult {
+
+	// The following constant is used for the error message.
+	private static final String ERROR_ROW_RANGE = "Error: The row %d must be between 0 and %d.";
+
+	// Instance attributes.
+	private int[] weeks;
+	private double[] balances;
+	private int size;
+
+	/**
+	* The default constructor. It chains with an initial capacity of zero to the main constructor.
+	*/
+	public ProjectionResult() {
+		this(0);
+	}
+
+	/**
+	* The main constructor receives the initial amount of rows that can be stored without enlarging the arrays.
+	* @param capacity int - The initial amount of rows.
+	*/
+	public ProjectionResult(int capacity) {
+		this.weeks = new int[capacity];
+		this.balances = new double[capacity];
+		this.size = 0;
+	}
+
+	/**
+	* The ensureCapacity method enlarges the arrays if they can't hold the received amount of rows. The existing rows are discarded.
+	* @param capacity int - The amount of rows required.
+	*/
+	public void ensureCapacity(int capacity) {
+		if (this.balances.length < capacity) {
+			this.weeks = new int[capacity];
+			this.balances = new double[capacity];
+		}
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	/**
+	* The size method retrieves the amount of rows currently stored.
+	* @return int - The amount of rows.
+	*/
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	* The getWeek method retrieves the week number of a row.
+	* @param row int - The row (starting from zero).
+	* @return int - The week number at the end of the row.
+	*/
+	public int getWeek(int row) {
+		this.checkRow(row);
+		return this.weeks[row];
+	}
+
+	/**
+	* The getBalance method retrieves the balance of a row.
+	* @param row int - The row (starting from zero).
+	* @return double - The balance at the end of the row.
+	*/
+	public double getBalance(int row) {
+		this.checkRow(row);
+		return this.balances[row];
+	}
+
+	/**
+	* The getFinalBalance method retrieves the balance of the last row, or zero if there aren't any rows.
+	* @return double - The final balance.
+	*/
+	public double getFinalBalance() {
+		return ((this.size > 0) ? this.balances[this.size - 1] : 0);
+	}
+
+	/**
+	* The getWeeks method retrieves the underlying array of week numbers. Only the first size() elements are valid,
+	* and the array is reused by the next projection.
+	* @return int[] - The week numbers.
+	*/
+	public int[] getWeeks() {
+		return this.weeks;
+	}
+
+	/**
+	* The getBalances method retrieves the underlying array of balances. Only the first size() elements are valid,
+	* and the array is reused by the next projection.
+	* @return double[] - The balances.
+	*/
+	public double[] getBalances() {
+		return this.balances;
+	}
+
+	/**
+	* The checkRow method ensures the received row is within the stored rows.
+	* @param row int - The row.
+	* @throws IndexOutOfBoundsException - If the row isn't stored.
+	*/
+	private void checkRow(int row) {
+		if ((row < 0) || (row >= this.size)) {
+			throw new IndexOutOfBoundsException(String.format(ERROR_ROW_RANGE, row, this.size - 1));
+		}
+	}
+}
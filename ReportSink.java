@@ -0,0 +1,30 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The interface is implemented by the destinations of the Client and Account results (such as the console, or a statement
+ *  file for a whole workforce). The results are written as they are calculated, and may be buffered by the sink until
+ *  the flush or close method is called.
+ */
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+public interface ReportSink extends Closeable, Flushable {
+
+	/**
+	* The writeClient method writes the tax results of a client. The tax, medicare and net salary must already be calculated.
+	* @param client Client - The client.
+	* @throws IOException - If the results couldn't be written.
+	*/
+	void writeClient(Client client) throws IOException;
+
+	/**
+	* The writeAccount method writes the details and the investment projection of an account.
+	* @param account Account - The account.
+	* @throws IOException - If the results couldn't be written.
+	*/
+	void writeAccount(Account account) throws IOException;
+}
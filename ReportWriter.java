@@ -0,0 +1,258 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is a ReportSink that writes the Client and Account results into a large (direct) ByteBuffer, which is written
+ *  to the channel once it is full, when the flush method is called, or after every record if auto flush is enabled. Each
+ *  record is rendered into a reused StringBuilder (with the appendTo methods of the Client and Account) and encoded straight
+ *  into the buffer, so no Strings are created for the output, and there isn't a write to the channel for each line.
+ *  The text format is the same layout as the CalculatorInterface displays, and the compact format has one CSV line
+ *  for each record (with plain amounts rounded to cents), which is intended to be read by other programs.
+ *  The writer isn't thread safe, so each thread should use its own writer.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ReportWriter implements ReportSink {
+
+	/**
+	* The layouts of the report.
+	*/
+	public enum Format {
+		TEXT, COMPACT
+	}
+
+	// The default size of the buffer (1 MiB).
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	// The following constants are used for formatting the output.
+	private static final String NEW_LINE = System.getProperty("line.separator");
+	private static final String SPACE = " ";
+	private static final char SEPARATOR = ',';
+	private static final String RECORD_CLIENT = "client";
+	private static final String RECORD_ACCOUNT = "account";
+	private static final String RESIDENT_YES = "Yes";
+	private static final String RESIDENT_NO = "No";
+	private static final int INITIAL_CHARACTERS = 4096;
+
+	// Instance attributes.
+	private final WritableByteChannel channel;
+	private final Format format;
+	private final ByteBuffer buffer;
+	private final CharsetEncoder encoder;
+	private final StringBuilder builder;
+	private final ProjectionResult projection;
+	private char[] characters;
+	private CharBuffer characterBuffer;
+	private boolean autoFlush;
+	private long records;
+
+	/**
+	* The constructor creates a writer with the default buffer size.
+	* @param channel WritableByteChannel - The channel that receives the report.
+	* @param format Format - The layout of the report.
+	*/
+	public ReportWriter(WritableByteChannel channel, Format format) {
+		this(channel, format, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	* The constructor creates a writer with the received buffer size.
+	* @param channel WritableByteChannel - The channel that receives the report.
+	* @param format Format - The layout of the report.
+	* @param bufferSize int - The size of the buffer in bytes.
+	*/
+	public ReportWriter(WritableByteChannel channel, Format format, int bufferSize) {
+		this.channel = channel;
+		this.format = format;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+		this.encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.builder = new StringBuilder(INITIAL_CHARACTERS);
+		this.projection = new ProjectionResult();
+		this.characters = new char[INITIAL_CHARACTERS];
+		this.characterBuffer = CharBuffer.wrap(this.characters);
+	}
+
+	/**
+	* The static open method creates a writer for a file. The file is replaced if it already exists.
+	* @param path Path - The file.
+	* @param format Format - The layout of the report.
+	* @return ReportWriter - The writer, which must be closed once the report is complete.
+	* @throws IOException - If the file couldn't be opened.
+	*/
+	public static ReportWriter open(Path path, Format format) throws IOException {
+		return new ReportWriter(FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING), format);
+	}
+
+	/**
+	* The setAutoFlush method determines whether the buffer is written to the channel after every record, which is used
+	* when the report is displayed interactively.
+	* @param autoFlush boolean - Whether to flush after every record.
+	*/
+	public void setAutoFlush(boolean autoFlush) {
+		this.autoFlush = autoFlush;
+	}
+
+	public boolean getAutoFlush() {
+		return this.autoFlush;
+	}
+
+	public Format getFormat() {
+		return this.format;
+	}
+
+	public long getRecords() {
+		return this.records;
+	}
+
+	/**
+	* The writeClient method writes the tax results of the client. The text format is the same as the toString method of
+	* the Client, and the compact format is a line starting with "client".
+	* @param client Client - The client.
+	* @throws IOException - If the buffer couldn't be written to the channel.
+	*/
+	public void writeClient(Client client) throws IOException {
+		StringBuilder line = this.builder;
+		line.setLength(0);
+		if (this.format == Format.TEXT) {
+			appendClient(line, client);
+		} else {
+			line.append(RECORD_CLIENT).append(SEPARATOR);
+			line.append(client.getName()).append(SEPARATOR);
+			Money.append(line, client.getGrossSalary()).append(SEPARATOR);
+			line.append((client.getResident()) ? RESIDENT_YES : RESIDENT_NO).append(SEPARATOR);
+			Money.append(line, client.getTax()).append(SEPARATOR);
+			Money.append(line, client.getMedicare()).append(SEPARATOR);
+			Money.append(line, client.getNetSalary()).append(SEPARATOR);
+			Money.append(line, client.getWeeklyNetSalary()).append(SEPARATOR);
+			Money.append(line, client.getWeeklyTax()).append(SEPARATOR);
+			Money.append(line, client.getWeeklyExpenses()).append(SEPARATOR);
+			Money.append(line, client.getAvailableFunds()).append(NEW_LINE);
+		}
+		this.writeBuilder();
+	}
+
+	/**
+	* The writeAccount method writes the account and its monthly projection. The text format is the same as the displayAccount
+	* method of the CalculatorInterface, and the compact format is a line starting with "account", followed by the amount, rate,
+	* weeks and final balance, and then the balance of each monthly row.
+	* @param account Account - The account.
+	* @throws IOException - If the buffer couldn't be written to the channel.
+	*/
+	public void writeAccount(Account account) throws IOException {
+		StringBuilder line = this.builder;
+		line.setLength(0);
+		ProjectionResult result = account.calcProjection(this.projection);
+		if (this.format == Format.TEXT) {
+			appendAccount(line, account, result);
+		} else {
+			line.append(RECORD_ACCOUNT).append(SEPARATOR);
+			Money.append(line, account.getAmount()).append(SEPARATOR);
+			line.append(account.getRate()).append(SEPARATOR);
+			line.append(account.getNumberOfWeeks()).append(SEPARATOR);
+			Money.append(line, result.getFinalBalance());
+			for (int row = 0; row < result.size(); row++) {
+				Money.append(line.append(SEPARATOR), result.getBalance(row));
+			}
+			line.append(NEW_LINE);
+		}
+		this.writeBuilder();
+	}
+
+	/**
+	* The static appendClient method appends the text format of the client's results (the same as its toString method, followed
+	* by a new line) to the builder. It is shared by the CalculatorSession, which displays the same text.
+	* @param builder StringBuilder - The builder that receives the text.
+	* @param client Client - The client.
+	* @return StringBuilder - The received builder.
+	*/
+	public static StringBuilder appendClient(StringBuilder builder, Client client) {
+		return client.appendTo(builder).append(NEW_LINE);
+	}
+
+	/**
+	* The static appendAccount method appends the text format of the account (its details, a blank line, and then the table of
+	* its projection) to the builder.
+	* @param builder StringBuilder - The builder that receives the text.
+	* @param account Account - The account.
+	* @param result ProjectionResult - The projection of the account.
+	* @return StringBuilder - The received builder.
+	*/
+	public static StringBuilder appendAccount(StringBuilder builder, Account account, ProjectionResult result) {
+		account.appendTo(builder).append(NEW_LINE);
+		builder.append(SPACE).append(NEW_LINE);
+		return Account.appendInvestment(builder, result).append(NEW_LINE);
+	}
+
+	/**
+	* The writeBuilder method encodes the builder into the buffer. Whenever the buffer is full, it is written to the channel
+	* and the encoding continues, so a record can be larger than the buffer.
+	* @throws IOException - If the buffer couldn't be written to the channel.
+	*/
+	private void writeBuilder() throws IOException {
+		int length = this.builder.length();
+		if (this.characters.length < length) {
+			this.characters = new char[Math.max(length, this.characters.length * 2)];
+			this.characterBuffer = CharBuffer.wrap(this.characters);
+		}
+		this.builder.getChars(0, length, this.characters, 0);
+		this.characterBuffer.clear().limit(length);
+		this.encoder.reset();
+		while (this.encoder.encode(this.characterBuffer, this.buffer, true).isOverflow()) {
+			this.drain();
+		}
+		while (this.encoder.flush(this.buffer).isOverflow()) {
+			this.drain();
+		}
+		this.records++;
+		if (this.autoFlush) {
+			this.flush();
+		}
+	}
+
+	/**
+	* The drain method writes the contents of the buffer to the channel, and empties the buffer.
+	* @throws IOException - If the channel couldn't be written.
+	*/
+	private void drain() throws IOException {
+		this.buffer.flip();
+		while (this.buffer.hasRemaining()) {
+			this.channel.write(this.buffer);
+		}
+		this.buffer.clear();
+	}
+
+	/**
+	* The flush method writes any buffered records to the channel.
+	* @throws IOException - If the channel couldn't be written.
+	*/
+	public void flush() throws IOException {
+		if (this.buffer.position() > 0) {
+			this.drain();
+		}
+	}
+
+	/**
+	* The close method flushes the buffered records, and closes the channel.
+	* @throws IOException - If the channel couldn't be written or closed.
+	*/
+	public void close() throws IOException {
+		try {
+			this.flush();
+		} finally {
+			this.channel.close();
+		}
+	}
+}
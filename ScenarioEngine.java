@@ -0,0 +1,398 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is a Monte Carlo engine which shows the range of balances an investment could have if its interest rate isn't
+ *  fixed. Each simulated path draws a new annual rate every month, which reverts towards the account's rate (the mean) by the
+ *  reversion factor, and moves by a normally distributed amount scaled by the volatility (in percentage points). A negative
+ *  rate is treated as zero. The deposits and monthly interest are applied with the same compounding rule as the Account, so
+ *  with a volatility of zero every path is identical to the Account's projection.
+ *
+ *  The paths are divided into fixed chunks, each with its own SplittableRandom (split from the seed in order), so the result
+ *  only depends on the seed and not on the amount of threads. The months are simulated in blocks: the chunks advance the
+ *  block in parallel on a ForkJoinPool, and the 5th, 50th and 95th percentiles of each month are then selected in parallel.
+ *  Only the balances of the current block are kept, so the memory used doesn't depend on the investment length.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+public class ScenarioEngine {
+
+	// The following constants are the default settings.
+	public static final int DEFAULT_PATHS = 10000;
+	public static final double DEFAULT_VOLATILITY = 0.5;
+	public static final double DEFAULT_REVERSION = 0.05;
+
+	// The percentiles shown for each month.
+	private static final double LOWER_PERCENTILE = 0.05;
+	private static final double MEDIAN_PERCENTILE = 0.5;
+	private static final double UPPER_PERCENTILE = 0.95;
+
+	// The amount of paths in a chunk, and the amount of months simulated before the percentiles are selected.
+	private static final int CHUNK_SIZE = 4096;
+	private static final int BLOCK_MONTHS = 12;
+	private static final int WEEKS_PER_MONTH = InvestmentProjection.WEEKS_PER_MONTH;
+
+	// The settings of the sample used to narrow down the percentiles (see the selectPercentiles method).
+	private static final int SAMPLE_SIZE = 1024;
+	private static final int MINIMUM_SAMPLED = 8 * SAMPLE_SIZE;
+	private static final double SAMPLE_DEVIATIONS = 4;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_PATHS = "Error: The amount of paths must be greater than zero.";
+	private static final String ERROR_VOLATILITY = "Error: The volatility can't be negative.";
+	private static final String ERROR_REVERSION = "Error: The reversion must be between 0 and 1.";
+	private static final String ERROR_NEGATIVE_WEEKS = "Error: The number of weeks can't be negative.";
+
+	// Instance attributes.
+	private final ForkJoinPool pool;
+	private int paths;
+	private double volatility;
+	private double reversion;
+	private long seed;
+
+	/**
+	* The default constructor. It chains with the common ForkJoinPool to the main constructor.
+	*/
+	public ScenarioEngine() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	* The main constructor receives the pool used to run the simulations, and uses the default settings.
+	* @param pool ForkJoinPool - The pool used to run the simulations.
+	*/
+	public ScenarioEngine(ForkJoinPool pool) {
+		this.pool = pool;
+		this.paths = DEFAULT_PATHS;
+		this.volatility = DEFAULT_VOLATILITY;
+		this.reversion = DEFAULT_REVERSION;
+		this.seed = System.nanoTime();
+	}
+
+	/**
+	* The setPaths method sets the amount of simulated paths.
+	* @param paths int - The amount of paths.
+	* @throws IllegalArgumentException - If the amount isn't greater than zero.
+	*/
+	public void setPaths(int paths) {
+		if (paths <= 0) {
+			throw new IllegalArgumentException(ERROR_PATHS);
+		}
+		this.paths = paths;
+	}
+
+	public int getPaths() {
+		return this.paths;
+	}
+
+	/**
+	* The setVolatility method sets the standard deviation of the monthly change in the annual rate.
+	* @param volatility double - The volatility in percentage points.
+	* @throws IllegalArgumentException - If the volatility is negative.
+	*/
+	public void setVolatility(double volatility) {
+		if (!(volatility >= 0)) {
+			throw new IllegalArgumentException(ERROR_VOLATILITY);
+		}
+		this.volatility = volatility;
+	}
+
+	public double getVolatility() {
+		return this.volatility;
+	}
+
+	/**
+	* The setReversion method sets the proportion of the distance to the mean rate that the rate moves back each month. Zero
+	* gives a random walk, and one gives an independent rate every month.
+	* @param reversion double - The reversion factor (between 0 and 1).
+	* @throws IllegalArgumentException - If the factor is outside of the range.
+	*/
+	public void setReversion(double reversion) {
+		if (!(reversion >= 0 && reversion <= 1)) {
+			throw new IllegalArgumentException(ERROR_REVERSION);
+		}
+		this.reversion = reversion;
+	}
+
+	public double getReversion() {
+		return this.reversion;
+	}
+
+	/**
+	* The setSeed method sets the seed of the random numbers, so the same scenarios can be produced again.
+	* @param seed long - The seed.
+	*/
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	* The run method simulates the scenarios for the account.
+	* @param account Account - The account (its rate is the mean rate of the scenarios).
+	* @return ScenarioResult - The percentiles of the balance for each monthly row.
+	* @throws IllegalArgumentException - If the account's number of weeks is negative.
+	*/
+	public ScenarioResult run(Account account) {
+		return this.run(account.getAmount(), account.getRate(), account.getNumberOfWeeks());
+	}
+
+	/**
+	* The run method simulates the scenarios for an investment.
+	* @param amount double - The amount invested each week.
+	* @param rate double - The mean annual interest rate percentage.
+	* @param numberOfWeeks int - The investment length.
+	* @return ScenarioResult - The percentiles of the balance for each monthly row.
+	* @throws IllegalArgumentException - If the number of weeks is negative.
+	*/
+	public ScenarioResult run(double amount, double rate, int numberOfWeeks) {
+		if (numberOfWeeks < 0) {
+			throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+		}
+		int paths = this.paths;
+		int fullMonths = numberOfWeeks / WEEKS_PER_MONTH;
+		int remainingWeeks = numberOfWeeks % WEEKS_PER_MONTH;
+		ScenarioResult result = new ScenarioResult(paths, InvestmentProjection.getNumberOfMonths(numberOfWeeks));
+		// The state of each path (its balance and current rate), and the random numbers of each chunk.
+		double[] totals = new double[paths];
+		double[] rates = new double[paths];
+		Arrays.fill(rates, rate);
+		SplittableRandom root = new SplittableRandom(this.seed);
+		SplittableRandom[] randoms = new SplittableRandom[(paths + CHUNK_SIZE - 1) / CHUNK_SIZE];
+		for (int chunk = 0; chunk < randoms.length; chunk++) {
+			randoms[chunk] = root.split();
+		}
+		double[] block = new double[BLOCK_MONTHS * paths];
+		double lower = 0, median = 0, upper = 0;
+		for (int first = 0; first < fullMonths; first += BLOCK_MONTHS) {
+			int months = Math.min(BLOCK_MONTHS, fullMonths - first);
+			// Advances every chunk through the months of the block.
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (int chunk = 0; chunk < randoms.length; chunk++) {
+				int start = chunk * CHUNK_SIZE;
+				int end = Math.min(start + CHUNK_SIZE, paths);
+				SplittableRandom random = randoms[chunk];
+				tasks.add(ForkJoinTask.adapt(() -> this.advance(random, amount, rate, totals, rates, block, months, start, end)));
+			}
+			this.runAll(tasks);
+			// Selects the percentiles of each month in the block.
+			double[][] percentiles = new double[months][];
+			tasks.clear();
+			for (int month = 0; month < months; month++) {
+				int offset = month * paths;
+				int index = month;
+				tasks.add(ForkJoinTask.adapt(() -> percentiles[index] = selectPercentiles(block, offset, offset + paths)));
+			}
+			this.runAll(tasks);
+			for (int month = 0; month < months; month++) {
+				lower = percentiles[month][0];
+				median = percentiles[month][1];
+				upper = percentiles[month][2];
+				result.setRow(first + month, (first + month + 1) * WEEKS_PER_MONTH, lower, median, upper);
+			}
+		}
+		// The remaining weeks of the partial month are added without any interest. The addition doesn't change the order of
+		// the balances, so the percentiles are the percentiles of the last full month plus the remaining deposits.
+		if (remainingWeeks != 0) {
+			double deposits = amount * remainingWeeks;
+			result.setRow(fullMonths, numberOfWeeks, lower + deposits, median + deposits, upper + deposits);
+		}
+		return result;
+	}
+
+	/**
+	* The advance method simulates the months of a block for a chunk of paths, storing the balance of each path at the end
+	* of each month in the block (month by month).
+	*/
+	private void advance(SplittableRandom random, double amount, double mean, double[] totals, double[] rates, double[] block,
+			int months, int start, int end) {
+		int paths = totals.length;
+		for (int month = 0; month < months; month++) {
+			int offset = month * paths;
+			for (int path = start; path < end; path++) {
+				double rate = rates[path];
+				rate += (this.reversion * (mean - rate)) + (this.volatility * random.nextGaussian());
+				rates[path] = rate;
+				// The same compounding as the InvestmentProjection.calcBalances method, with this month's rate.
+				double total = ((totals[path] + amount * WEEKS_PER_MONTH) * InvestmentProjection.calcGrowth(Math.max(rate, 0)));
+				totals[path] = total;
+				block[offset + path] = total;
+			}
+		}
+	}
+
+	/**
+	* The runAll method runs the tasks on the pool, and waits for them to complete.
+	* @param tasks List - The tasks.
+	*/
+	private void runAll(List<ForkJoinTask<?>> tasks) {
+		this.pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+	}
+
+	/**
+	* The selectPercentiles method selects the 5th, 50th and 95th percentiles (using the nearest rank) of a range of balances.
+	* For a large range, a sorted sample of the range gives a narrow interval that each percentile is almost certainly within.
+	* A single pass counts the balances below each interval and collects the balances inside it, so each percentile is then
+	* selected from its (small) interval, rather than the whole range. If a percentile isn't within its interval, then it is
+	* selected from the whole range instead. The order of the range may be changed.
+	* @param values double[] - The balances.
+	* @param from int - The start of the range.
+	* @param to int - The end of the range.
+	* @return double[] - The three percentiles.
+	*/
+	static double[] selectPercentiles(double[] values, int from, int to) {
+		int count = to - from;
+		int lowerRank = rank(LOWER_PERCENTILE, count);
+		int medianRank = rank(MEDIAN_PERCENTILE, count);
+		int upperRank = rank(UPPER_PERCENTILE, count);
+		if (count < MINIMUM_SAMPLED) {
+			select(values, from, to, from + medianRank);
+			select(values, from, from + medianRank, from + lowerRank);
+			select(values, from + medianRank + 1, to, from + upperRank);
+			return new double[] {values[from + lowerRank], values[from + medianRank], values[from + upperRank]};
+		}
+		// Takes an evenly spaced sample (the paths are independent, so their order is random), and sorts it.
+		double[] sample = new double[SAMPLE_SIZE];
+		int stride = count / SAMPLE_SIZE;
+		for (int i = 0; i < SAMPLE_SIZE; i++) {
+			sample[i] = values[from + (i * stride)];
+		}
+		Arrays.sort(sample);
+		Interval lower = new Interval(sample, LOWER_PERCENTILE, count);
+		Interval median = new Interval(sample, MEDIAN_PERCENTILE, count);
+		Interval upper = new Interval(sample, UPPER_PERCENTILE, count);
+		for (int index = from; index < to; index++) {
+			double value = values[index];
+			lower.add(value);
+			median.add(value);
+			upper.add(value);
+		}
+		return new double[] {lower.select(values, from, to, lowerRank), median.select(values, from, to, medianRank),
+			upper.select(values, from, to, upperRank)};
+	}
+
+	/**
+	* The Interval class is the range of values that a percentile is expected to be within (a few standard deviations either
+	* side of its rank within the sorted sample). It counts the values below the range, and collects the values within it.
+	*/
+	private static final class Interval {
+		private final double low;
+		private final double high;
+		private double[] values;
+		private int size;
+		private int below;
+
+		Interval(double[] sample, double percentile, int count) {
+			int sampleRank = rank(percentile, sample.length);
+			int margin = (int)Math.ceil(SAMPLE_DEVIATIONS * Math.sqrt(sample.length * percentile * (1 - percentile))) + 1;
+			this.low = sample[Math.max(0, sampleRank - margin)];
+			this.high = sample[Math.min(sample.length - 1, sampleRank + margin)];
+			// Enough space for twice the expected amount of values, which is enlarged if required.
+			this.values = new double[(int)((2L * count * ((2 * margin) + 1)) / sample.length) + 1];
+		}
+
+		void add(double value) {
+			if (value < this.low) {
+				this.below++;
+			} else if (value <= this.high) {
+				if (this.size == this.values.length) {
+					this.values = Arrays.copyOf(this.values, this.size * 2);
+				}
+				this.values[this.size++] = value;
+			}
+		}
+
+		/**
+		* The select method selects the value at the rank from the collected values, or from the whole range if the rank isn't
+		* within the interval.
+		*/
+		double select(double[] range, int from, int to, int rank) {
+			int target = rank - this.below;
+			if ((target >= 0) && (target < this.size)) {
+				ScenarioEngine.select(this.values, 0, this.size, target);
+				return this.values[target];
+			}
+			ScenarioEngine.select(range, from, to, from + rank);
+			return range[from + rank];
+		}
+	}
+
+	/**
+	* The rank method determines the index of a percentile within a sorted range (the nearest rank method).
+	*/
+	private static int rank(double percentile, int count) {
+		return Math.max(0, Math.min(count - 1, (int)Math.ceil(percentile * count) - 1));
+	}
+
+	/**
+	* The select method moves the value that would be at the index (if the range was sorted) to the index, with smaller values
+	* before it and larger values after it. It is a quickselect, using the median of three as the pivot.
+	* @param values double[] - The values.
+	* @param from int - The start of the range.
+	* @param to int - The end of the range.
+	* @param index int - The index to be selected. If it is outside of the range, nothing is done.
+	*/
+	private static void select(double[] values, int from, int to, int index) {
+		if ((index < from) || (index >= to)) {
+			return;
+		}
+		int left = from, right = to - 1;
+		while (right > left) {
+			// Orders the first, middle and last values, and uses the middle as the pivot.
+			int middle = (left + right) >>> 1;
+			if (values[middle] < values[left]) {
+				swap(values, middle, left);
+			}
+			if (values[right] < values[left]) {
+				swap(values, right, left);
+			}
+			if (values[right] < values[middle]) {
+				swap(values, right, middle);
+			}
+			double pivot = values[middle];
+			int i = left, j = right;
+			while (i <= j) {
+				while (values[i] < pivot) {
+					i++;
+				}
+				while (values[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(values, i++, j--);
+				}
+			}
+			// Continues with the part that contains the index.
+			if (index <= j) {
+				right = j;
+			} else if (index >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private static void swap(double[] values, int i, int j) {
+		double value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to store the result of a scenario analysis (produced by the ScenarioEngine), being the week and the
+ *  5th, 50th and 95th percentile of the balance for each monthly row. The values are stored in primitive arrays, in the same
+ *  way as the ProjectionResult, and can be formatted into a text-based table similar to the Account's calcInvestment table.
+ */
+
+public class ScenarioResult {
+
+	// The following constants are used for formatting purposes by the appendTo method.
+	private static final String HEADING_SCENARIOS = "Scenarios (%d paths)";
+	private static final String FORMAT_TITLE = "%s %12s %15s %15s";
+	private static final String COLUMN_WEEKS = "Weeks";
+	private static final String COLUMN_LOWER = "P5";
+	private static final String COLUMN_MEDIAN = "P50";
+	private static final String COLUMN_UPPER = "P95";
+	private static final String NEW_LINE = System.getProperty("line.separator");
+	private static final String SEPARATOR = "------------------------------------------------------" + NEW_LINE;
+	private static final String TITLE = String.format(FORMAT_TITLE, COLUMN_WEEKS, COLUMN_LOWER, COLUMN_MEDIAN, COLUMN_UPPER)
+		+ NEW_LINE + SEPARATOR;
+	private static final int COLUMN_BALANCE_WIDTH = 15;
+	private static final char ZERO = '0';
+	private static final char SPACE = ' ';
+
+	// The following constant is used for the error message.
+	private static final String ERROR_ROW_RANGE = "Error: The row %d must be between 0 and %d.";
+
+	// Instance attributes.
+	private final int paths;
+	private final int[] weeks;
+	private final double[] lower;
+	private final double[] median;
+	private final double[] upper;
+
+	/**
+	* The constructor creates the arrays for the received amount of rows. It is used by the ScenarioEngine, which fills the rows.
+	* @param paths int - The amount of simulated paths.
+	* @param months int - The amount of monthly rows.
+	*/
+	ScenarioResult(int paths, int months) {
+		this.paths = paths;
+		this.weeks = new int[months];
+		this.lower = new double[months];
+		this.median = new double[months];
+		this.upper = new double[months];
+	}
+
+	/**
+	* The setRow method sets the values of a monthly row.
+	*/
+	void setRow(int row, int week, double lower, double median, double upper) {
+		this.weeks[row] = week;
+		this.lower[row] = lower;
+		this.median[row] = median;
+		this.upper[row] = upper;
+	}
+
+	public int getPaths() {
+		return this.paths;
+	}
+
+	/**
+	* The size method retrieves the amount of monthly rows.
+	* @return int - The amount of rows.
+	*/
+	public int size() {
+		return this.weeks.length;
+	}
+
+	public int getWeek(int row) {
+		return this.weeks[this.checkRow(row)];
+	}
+
+	/**
+	* The getLower method retrieves the 5th percentile of the balance at the end of the monthly row.
+	* @param row int - The row.
+	* @return double - The balance.
+	*/
+	public double getLower(int row) {
+		return this.lower[this.checkRow(row)];
+	}
+
+	/**
+	* The getMedian method retrieves the median (50th percentile) of the balance at the end of the monthly row.
+	* @param row int - The row.
+	* @return double - The balance.
+	*/
+	public double getMedian(int row) {
+		return this.median[this.checkRow(row)];
+	}
+
+	/**
+	* The getUpper method retrieves the 95th percentile of the balance at the end of the monthly row.
+	* @param row int - The row.
+	* @return double - The balance.
+	*/
+	public double getUpper(int row) {
+		return this.upper[this.checkRow(row)];
+	}
+
+	/**
+	* The checkRow method ensures that the row exists.
+	* @param row int - The row.
+	* @return int - The received row.
+	* @throws IndexOutOfBoundsException - If the row doesn't exist.
+	*/
+	private int checkRow(int row) {
+		if ((row < 0) || (row >= this.weeks.length)) {
+			throw new IndexOutOfBoundsException(String.format(ERROR_ROW_RANGE, row, this.weeks.length - 1));
+		}
+		return row;
+	}
+
+	/**
+	* The appendTo method appends a text-based table of the percentiles to the received StringBuilder, with a row for each
+	* month (the week padded to two digits, and each balance right aligned in its column).
+	* @param builder StringBuilder - The builder that receives the table.
+	* @return StringBuilder - The received builder.
+	*/
+	public StringBuilder appendTo(StringBuilder builder) {
+		CurrencyFormatter currency = CurrencyFormatter.getInstance();
+		builder.append(String.format(HEADING_SCENARIOS, this.paths)).append(NEW_LINE);
+		builder.append(TITLE);
+		for (int row = 0; row < this.weeks.length; row++) {
+			if (this.weeks[row] < 10) {
+				builder.append(ZERO);
+			}
+			builder.append(this.weeks[row]);
+			builder.append(SPACE);
+			currency.append(builder, this.lower[row], COLUMN_BALANCE_WIDTH);
+			builder.append(SPACE);
+			currency.append(builder, this.median[row], COLUMN_BALANCE_WIDTH);
+			builder.append(SPACE);
+			currency.append(builder, this.upper[row], COLUMN_BALANCE_WIDTH);
+			builder.append(NEW_LINE);
+		}
+		return builder;
+	}
+
+	/**
+	* The toString method is overridden from the super Object, and returns the same table as the appendTo method.
+	* @return String - The text-based table.
+	*/
+	public String toString() {
+		return this.appendTo(new StringBuilder()).toString();
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to calculate the final balance of every combination of weekly amounts, interest rates and investment
+ *  lengths (such as for a heatmap of the balances). Rather than projecting each combination separately, the work that the
+ *  combinations have in common is shared: the monthly growth of each rate and the monthly deposit of each amount are
+ *  calculated once, and the terms are visited in ascending order, so the months of every term are a continuation of the
+ *  previous (shorter) term. A single pass over the longest term therefore calculates every term. The amounts of a rate are
+ *  processed together in blocks, in the same way as the BulkProjection class, and the blocks (of each rate) are calculated in
+ *  parallel on a ForkJoinPool. The same calculation is performed in the same order as the InvestmentProjection class, so the
+ *  balances are identical to the Account's table.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+public class SensitivityGrid {
+
+	// The amount of accounts processed together, which keeps the working arrays within the CPU cache.
+	private static final int BLOCK_SIZE = 512;
+	private static final int WEEKS_PER_MONTH = InvestmentProjection.WEEKS_PER_MONTH;
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_NEGATIVE_WEEKS = "Error: The number of weeks can't be negative.";
+	private static final String ERROR_GRID_SIZE = "Error: The grid of %d combinations is too large.";
+
+	// Instance attributes.
+	private final ForkJoinPool pool;
+
+	/**
+	* The default constructor. It chains with the common ForkJoinPool to the main constructor.
+	*/
+	public SensitivityGrid() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	* The main constructor receives the pool used to calculate the grid.
+	* @param pool ForkJoinPool - The pool used to calculate the grid.
+	*/
+	public SensitivityGrid(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	* The evaluate method calculates the final balance of every combination of the received amounts, rates and terms.
+	* @param amounts double[] - The amounts invested each week.
+	* @param rates double[] - The annual interest rate percentages.
+	* @param weeks int[] - The investment lengths (in any order).
+	* @return SensitivityResult - The matrix of final balances.
+	* @throws IllegalArgumentException - If a number of weeks is negative, or the grid is too large.
+	*/
+	public SensitivityResult evaluate(double[] amounts, double[] rates, int[] weeks) {
+		long size = (long)amounts.length * rates.length * weeks.length;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format(ERROR_GRID_SIZE, size));
+		}
+		for (int term = 0; term < weeks.length; term++) {
+			if (weeks[term] < 0) {
+				throw new IllegalArgumentException(ERROR_NEGATIVE_WEEKS);
+			}
+		}
+		SensitivityResult result = new SensitivityResult(amounts, rates, weeks);
+		int[] order = sortTerms(weeks);
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int rate = 0; rate < rates.length; rate++) {
+			for (int block = 0; block < amounts.length; block += BLOCK_SIZE) {
+				int index = rate;
+				int start = block;
+				int end = Math.min(block + BLOCK_SIZE, amounts.length);
+				tasks.add(ForkJoinTask.adapt(() -> calcBlock(result, amounts, rates[index], weeks, order, index, start, end)));
+			}
+		}
+		this.runAll(tasks);
+		return result;
+	}
+
+	/**
+	* The evaluate method calculates the grid for evenly spaced amounts, rates and terms, such as every rate from 1 to 100.
+	* @param amount double - The first weekly amount.
+	* @param amountStep double - The difference between each amount.
+	* @param amountCount int - The amount of amounts.
+	* @param rate double - The first annual interest rate percentage.
+	* @param rateStep double - The difference between each rate.
+	* @param rateCount int - The amount of rates.
+	* @param weeks int - The first investment length.
+	* @param weeksStep int - The difference between each length.
+	* @param weeksCount int - The amount of lengths.
+	* @return SensitivityResult - The matrix of final balances.
+	* @throws IllegalArgumentException - If a number of weeks is negative, or the grid is too large.
+	*/
+	public SensitivityResult evaluate(double amount, double amountStep, int amountCount, double rate, double rateStep, int rateCount,
+			int weeks, int weeksStep, int weeksCount) {
+		double[] amounts = new double[amountCount];
+		for (int i = 0; i < amountCount; i++) {
+			amounts[i] = amount + (amountStep * i);
+		}
+		double[] rates = new double[rateCount];
+		for (int i = 0; i < rateCount; i++) {
+			rates[i] = rate + (rateStep * i);
+		}
+		int[] terms = new int[weeksCount];
+		for (int i = 0; i < weeksCount; i++) {
+			terms[i] = weeks + (weeksStep * i);
+		}
+		return this.evaluate(amounts, rates, terms);
+	}
+
+	/**
+	* The calcBlock method calculates every term of a block of amounts at one rate. The months are applied once, in the order of
+	* the terms, and the balance of each term is stored when its last full month is reached (with the remaining weeks of its
+	* partial month added without any interest).
+	*/
+	private static void calcBlock(SensitivityResult result, double[] amounts, double rate, int[] weeks, int[] order, int index,
+			int start, int end) {
+		int size = end - start;
+		double growth = InvestmentProjection.calcGrowth(rate);
+		double[] deposit = new double[size];
+		double[] total = new double[size];
+		for (int i = 0; i < size; i++) {
+			deposit[i] = amounts[start + i] * WEEKS_PER_MONTH;
+		}
+		double[] balances = result.getBalances();
+		int month = 0;
+		for (int position = 0; position < order.length; position++) {
+			int term = order[position];
+			int fullMonths = weeks[term] / WEEKS_PER_MONTH;
+			int remainingWeeks = weeks[term] % WEEKS_PER_MONTH;
+			for (; month < fullMonths; month++) {
+				for (int i = 0; i < size; i++) {
+					total[i] = ((total[i] + deposit[i]) * growth);
+				}
+			}
+			int offset = result.getOffset(index, term) + start;
+			for (int i = 0; i < size; i++) {
+				balances[offset + i] = ((remainingWeeks != 0) ? (total[i] + amounts[start + i] * remainingWeeks) : total[i]);
+			}
+		}
+	}
+
+	/**
+	* The sortTerms method retrieves the indexes of the terms, ordered from the shortest investment length to the longest.
+	* @param weeks int[] - The investment lengths.
+	* @return int[] - The indexes of the terms in ascending order of length.
+	*/
+	private static int[] sortTerms(int[] weeks) {
+		// Each length is packed with its index, so sorting the packed values sorts the indexes by length.
+		long[] packed = new long[weeks.length];
+		for (int term = 0; term < weeks.length; term++) {
+			packed[term] = (((long)weeks[term] << Integer.SIZE) | term);
+		}
+		Arrays.sort(packed);
+		int[] order = new int[weeks.length];
+		for (int term = 0; term < weeks.length; term++) {
+			order[term] = (int)packed[term];
+		}
+		return order;
+	}
+
+	/**
+	* The runAll method runs the tasks on the pool, and waits for them to complete.
+	* @param tasks List - The tasks.
+	*/
+	private void runAll(List<ForkJoinTask<?>> tasks) {
+		this.pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to store the result of a sensitivity grid (produced by the SensitivityGrid class), being the final
+ *  balance of every combination of weekly amount, interest rate and investment length. The balances are stored in a single
+ *  primitive array, ordered by rate, then term, then amount, so each row of amounts (one rate and term) is contiguous.
+ *  The grid can be written out as CSV, with one line for each combination.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class SensitivityResult {
+
+	// The following constants are used for writing the CSV.
+	private static final char SEPARATOR = ',';
+	private static final String NEW_LINE = System.getProperty("line.separator");
+	private static final String OUTPUT_HEADING = "amount,rate,weeks,balance";
+
+	// The following constant is used for the error message.
+	private static final String ERROR_INDEX_RANGE = "Error: The %s index %d must be between 0 and %d.";
+
+	// Instance attributes.
+	private final double[] amounts;
+	private final double[] rates;
+	private final int[] weeks;
+	private final double[] balances;
+
+	/**
+	* The constructor creates the matrix for the received grid. It is used by the SensitivityGrid, which fills the balances.
+	* The received arrays are copied.
+	* @param amounts double[] - The weekly amounts.
+	* @param rates double[] - The annual interest rate percentages.
+	* @param weeks int[] - The investment lengths.
+	*/
+	SensitivityResult(double[] amounts, double[] rates, int[] weeks) {
+		this.amounts = amounts.clone();
+		this.rates = rates.clone();
+		this.weeks = weeks.clone();
+		this.balances = new double[amounts.length * rates.length * weeks.length];
+	}
+
+	/**
+	* The getOffset method retrieves the position of the first amount for a rate and term within the balances array.
+	* @param rate int - The index of the rate.
+	* @param term int - The index of the term.
+	* @return int - The position within the balances array.
+	*/
+	int getOffset(int rate, int term) {
+		return (((rate * this.weeks.length) + term) * this.amounts.length);
+	}
+
+	/**
+	* The getBalances method retrieves the array of balances, which is used by the SensitivityGrid to fill the matrix. The balance
+	* of an amount, rate and term is at getOffset(rate, term) + amount.
+	* @return double[] - The balances.
+	*/
+	double[] getBalances() {
+		return this.balances;
+	}
+
+	public int getNumberOfAmounts() {
+		return this.amounts.length;
+	}
+
+	public int getNumberOfRates() {
+		return this.rates.length;
+	}
+
+	public int getNumberOfTerms() {
+		return this.weeks.length;
+	}
+
+	public double getAmount(int amount) {
+		return this.amounts[checkIndex("amount", amount, this.amounts.length)];
+	}
+
+	public double getRate(int rate) {
+		return this.rates[checkIndex("rate", rate, this.rates.length)];
+	}
+
+	public int getWeeks(int term) {
+		return this.weeks[checkIndex("term", term, this.weeks.length)];
+	}
+
+	/**
+	* The getBalance method retrieves the final balance of a combination within the grid.
+	* @param amount int - The index of the weekly amount.
+	* @param rate int - The index of the interest rate.
+	* @param term int - The index of the investment length.
+	* @return double - The final balance.
+	* @throws IndexOutOfBoundsException - If an index is outside of the grid.
+	*/
+	public double getBalance(int amount, int rate, int term) {
+		checkIndex("amount", amount, this.amounts.length);
+		checkIndex("rate", rate, this.rates.length);
+		checkIndex("term", term, this.weeks.length);
+		return this.balances[this.getOffset(rate, term) + amount];
+	}
+
+	/**
+	* The copyRow method copies the final balance of every amount for a rate and term (one row of a heatmap) into the array.
+	* @param rate int - The index of the interest rate.
+	* @param term int - The index of the investment length.
+	* @param row double[] - The array that receives the balances. It must have at least getNumberOfAmounts elements.
+	* @return double[] - The received array.
+	* @throws IndexOutOfBoundsException - If an index is outside of the grid.
+	*/
+	public double[] copyRow(int rate, int term, double[] row) {
+		checkIndex("rate", rate, this.rates.length);
+		checkIndex("term", term, this.weeks.length);
+		System.arraycopy(this.balances, this.getOffset(rate, term), row, 0, this.amounts.length);
+		return row;
+	}
+
+	/**
+	* The checkIndex method ensures that the index is within the dimension.
+	* @return int - The received index.
+	* @throws IndexOutOfBoundsException - If the index is outside of the dimension.
+	*/
+	private static int checkIndex(String dimension, int index, int length) {
+		if ((index < 0) || (index >= length)) {
+			throw new IndexOutOfBoundsException(String.format(ERROR_INDEX_RANGE, dimension, index, length - 1));
+		}
+		return index;
+	}
+
+	/**
+	* The writeCsv method writes the grid as CSV, with a heading and then a line for each combination (in the same order as the
+	* balances are stored). The amounts and balances are written with two decimal places, the same as the BatchProcessor's output.
+	* @param output Writer - The CSV output. It isn't closed.
+	* @throws IOException - If the output can't be written.
+	*/
+	public void writeCsv(Writer output) throws IOException {
+		StringBuilder line = new StringBuilder();
+		output.write(OUTPUT_HEADING);
+		output.write(NEW_LINE);
+		for (int rate = 0; rate < this.rates.length; rate++) {
+			for (int term = 0; term < this.weeks.length; term++) {
+				int offset = this.getOffset(rate, term);
+				for (int amount = 0; amount < this.amounts.length; amount++) {
+					line.setLength(0);
+					Money.append(line, this.amounts[amount]).append(SEPARATOR);
+					line.append(this.rates[rate]).append(SEPARATOR);
+					line.append(this.weeks[term]).append(SEPARATOR);
+					Money.append(line, this.balances[offset + amount]).append(NEW_LINE);
+					output.append(line);
+				}
+			}
+		}
+		output.flush();
+	}
+}
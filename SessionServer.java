@@ -0,0 +1,480 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class runs many independent sessions of the interactive calculator within one JVM, so the startup (and the warming
+ *  up of the JIT compiler) is shared by every user rather than paid by each one. Each connection receives its own
+ *  CalculatorSession (with its own Client and menus). The sessions don't block on their input, so every connection is
+ *  driven by a single thread: the thread waits (with a Selector) until any connection has input, gives each complete line
+ *  to its session, and writes the session's output back without blocking. Thousands of sessions therefore only cost their
+ *  buffers, rather than a thread (and its stack) each.
+ *  The sessions are bounded so that the server's memory is predictable:
+ *    - At most the received amount of sessions run at once. Any further connections are told the server is busy, and closed.
+ *    - A session that doesn't receive any input within the idle timeout is ended.
+ *    - The input lines are limited in length, and the input of a session isn't read while too much of its output is waiting
+ *      to be received, so a slow (or malicious) client can't make the server buffer an unbounded amount.
+ *  The runSession method runs a session over any pair of streams, so the sessions can also be run without a network (such
+ *  as over piped streams).
+ *  Usage: java SessionServer [port] [sessions]
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SessionServer implements Runnable {
+
+	// The following constants are the default server settings.
+	public static final int DEFAULT_PORT = 8023;
+	public static final int DEFAULT_SESSIONS = 10000;
+	public static final int DEFAULT_IDLE_TIMEOUT = 10 * 60 * 1000;
+	private static final int MAXIMUM_LINE_LENGTH = 1024;
+	private static final int INPUT_BUFFER_SIZE = 2 * MAXIMUM_LINE_LENGTH;
+	private static final int MAXIMUM_PENDING_OUTPUT = 64 * 1024;
+	private static final int IDLE_CHECK_PERIOD = 1000;
+	private static final int BACKLOG = 1024;
+	private static final String STARTED = "The session server is listening on port %d (at most %d sessions).";
+	private static final Charset CHARSET = Charset.defaultCharset();
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_SESSIONS = "Error: The amount of sessions must be greater than zero.";
+	private static final String ERROR_BUSY = "Error: The server is busy. Please try again later.";
+	private static final String ERROR_LINE_LENGTH = "Error: The input line is longer than %d characters.";
+	private static final String ERROR_ACCEPT = "Error: Unable to accept a connection: %s";
+	private static final String ERROR_SELECT = "Error: The session server has stopped: %s";
+	private static final String ERROR_SESSION = "Error: A session has failed: %s";
+
+	// Instance attributes.
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	private final int maximumSessions;
+	private final int idleTimeout;
+	private final LongAdder started;
+	private final LongAdder rejected;
+	private volatile int activeSessions; // Only changed by the thread running the server.
+	private volatile boolean running;
+
+	/**
+	* The constructor creates the server on the received port, with the default idle timeout.
+	* @param port int - The port, or zero for any free port.
+	* @param maximumSessions int - The maximum amount of sessions that run at once.
+	* @throws IOException - If the server can't be bound to the port.
+	* @throws IllegalArgumentException - If the amount of sessions isn't greater than zero.
+	*/
+	public SessionServer(int port, int maximumSessions) throws IOException {
+		this(port, maximumSessions, DEFAULT_IDLE_TIMEOUT);
+	}
+
+	/**
+	* The main constructor creates the server on the received port. The sessions are run by the thread that calls the run method.
+	* @param port int - The port, or zero for any free port.
+	* @param maximumSessions int - The maximum amount of sessions that run at once.
+	* @param idleTimeout int - The milliseconds a session waits for input before it is ended (zero to wait forever).
+	* @throws IOException - If the server can't be bound to the port.
+	* @throws IllegalArgumentException - If the amount of sessions isn't greater than zero.
+	*/
+	public SessionServer(int port, int maximumSessions, int idleTimeout) throws IOException {
+		if (maximumSessions <= 0) {
+			throw new IllegalArgumentException(ERROR_SESSIONS);
+		}
+		this.maximumSessions = maximumSessions;
+		this.idleTimeout = idleTimeout;
+		this.started = new LongAdder();
+		this.rejected = new LongAdder();
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		try {
+			this.server.bind(new InetSocketAddress(port), BACKLOG);
+			this.server.configureBlocking(false);
+			this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException ex) {
+			this.server.close();
+			this.selector.close();
+			throw ex;
+		}
+		this.running = true;
+	}
+
+	public int getPort() {
+		return this.server.socket().getLocalPort();
+	}
+
+	/**
+	* The getActiveSessions method retrieves the amount of sessions that are currently running.
+	* @return int - The amount of sessions.
+	*/
+	public int getActiveSessions() {
+		return this.activeSessions;
+	}
+
+	public int getMaximumSessions() {
+		return this.maximumSessions;
+	}
+
+	public long getStartedSessions() {
+		return this.started.sum();
+	}
+
+	public long getRejectedSessions() {
+		return this.rejected.sum();
+	}
+
+	/**
+	* The run method is the event loop of the server. It waits until a connection can be accepted, or a session can be read from
+	* or written to, and handles each of them without blocking. The idle sessions are ended periodically. Once the server has been
+	* closed, it stops accepting connections and returns when the current sessions have ended.
+	*/
+	public void run() {
+		long lastIdleCheck = System.nanoTime();
+		try {
+			while (this.running || (this.activeSessions > 0)) {
+				this.selector.select((this.idleTimeout > 0) ? Math.min(this.idleTimeout, IDLE_CHECK_PERIOD) : 0);
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						this.accept();
+					} else {
+						this.handle(key, (Connection)key.attachment());
+					}
+				}
+				if (!this.running && this.server.isOpen()) {
+					this.server.close();
+				}
+				long now = System.nanoTime();
+				if ((this.idleTimeout > 0) && ((now - lastIdleCheck) >= TimeUnit.MILLISECONDS.toNanos(IDLE_CHECK_PERIOD))) {
+					this.closeIdle(now);
+					lastIdleCheck = now;
+				}
+			}
+		} catch (IOException ex) {
+			System.err.println(String.format(ERROR_SELECT, ex.getMessage()));
+		} finally {
+			for (SelectionKey key : this.selector.keys()) {
+				if (key.attachment() != null) {
+					this.close(key);
+				}
+			}
+			close(this.server);
+			close(this.selector);
+		}
+	}
+
+	/**
+	* The close method stops accepting connections. The current sessions continue until they end.
+	*/
+	public void close() {
+		this.running = false;
+		this.selector.wakeup();
+	}
+
+	/**
+	* The accept method accepts each waiting connection. Each connection is given a session if there is a free one, otherwise
+	* the connection is told the server is busy and closed.
+	*/
+	private void accept() {
+		while (this.running) {
+			SocketChannel channel;
+			try {
+				channel = this.server.accept();
+			} catch (IOException ex) {
+				System.err.println(String.format(ERROR_ACCEPT, ex.getMessage()));
+				return;
+			}
+			if (channel == null) {
+				return;
+			}
+			if (this.activeSessions >= this.maximumSessions) {
+				this.rejected.increment();
+				reject(channel);
+				continue;
+			}
+			try {
+				channel.configureBlocking(false);
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				SelectionKey key = channel.register(this.selector, 0);
+				Connection connection = new Connection(channel);
+				key.attach(connection);
+				this.activeSessions++;
+				this.started.increment();
+				connection.session.start();
+				connection.queueOutput();
+				this.update(key, connection);
+			} catch (IOException ex) {
+				close(channel);
+			}
+		}
+	}
+
+	/**
+	* The handle method reads the input of a connection (giving each line to its session), or writes its waiting output. A
+	* connection that fails is closed, which ends its session. If the session throws an unexpected exception, then it is logged
+	* and only that connection is closed, so the other sessions (and the server) continue.
+	* @param key SelectionKey - The key of the connection.
+	* @param connection Connection - The connection.
+	*/
+	private void handle(SelectionKey key, Connection connection) {
+		try {
+			if (key.isWritable()) {
+				connection.write();
+			}
+			if (key.isReadable()) {
+				if (connection.channel.read(connection.input) < 0) {
+					connection.inputEnded = true;
+				}
+				connection.lastActivity = System.nanoTime();
+			}
+			// The lines are given to the session while the waiting output is below the limit, which continues as the output is written.
+			do {
+				connection.consume();
+				connection.write();
+			} while ((connection.pendingOutput <= MAXIMUM_PENDING_OUTPUT) && connection.hasLine());
+			this.update(key, connection);
+		} catch (IOException ex) {
+			this.close(key);
+		} catch (RuntimeException ex) {
+			System.err.println(String.format(ERROR_SESSION, ex));
+			this.close(key);
+		}
+	}
+
+	/**
+	* The update method sets the operations that the connection waits for. The output is written whenever any is waiting, and
+	* the input is only read while there is room for it, and the waiting output is below the limit. Once the session has ended
+	* (or the input has ended) and the output has been written, the connection is closed.
+	* @param key SelectionKey - The key of the connection.
+	* @param connection Connection - The connection.
+	*/
+	private void update(SelectionKey key, Connection connection) {
+		int operations = 0;
+		if (!connection.output.isEmpty()) {
+			operations |= SelectionKey.OP_WRITE;
+		}
+		if (!connection.isEnding() && connection.input.hasRemaining() && (connection.pendingOutput <= MAXIMUM_PENDING_OUTPUT)) {
+			operations |= SelectionKey.OP_READ;
+		}
+		if ((operations == 0) && connection.isEnding()) {
+			this.close(key);
+		} else {
+			key.interestOps(operations);
+		}
+	}
+
+	/**
+	* The closeIdle method ends each session that hasn't received any input (or written any output) within the idle timeout.
+	* @param now long - The current time (in nanoseconds).
+	*/
+	private void closeIdle(long now) {
+		long timeout = TimeUnit.MILLISECONDS.toNanos(this.idleTimeout);
+		for (SelectionKey key : this.selector.keys()) {
+			Connection connection = (Connection)key.attachment();
+			if ((connection != null) && ((now - connection.lastActivity) > timeout)) {
+				this.close(key);
+			}
+		}
+	}
+
+	/**
+	* The close method closes the connection of the key, which ends its session.
+	* @param key SelectionKey - The key of the connection.
+	*/
+	private void close(SelectionKey key) {
+		if (key.attachment() != null) {
+			key.attach(null);
+			this.activeSessions--;
+		}
+		key.cancel();
+		close(key.channel());
+	}
+
+	/**
+	* The Connection class holds the session of a connection, with its partial input and waiting output.
+	*/
+	private static final class Connection {
+		private final SocketChannel channel;
+		private final CalculatorSession session;
+		private final ByteBuffer input; // The received input that hasn't been given to the session (in write mode).
+		private final ArrayDeque<ByteBuffer> output; // The output that hasn't been written.
+		private int pendingOutput; // The amount of bytes in the output.
+		private boolean inputEnded;
+		private long lastActivity;
+
+		Connection(SocketChannel channel) {
+			this.channel = channel;
+			this.session = new CalculatorSession();
+			this.input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+			this.output = new ArrayDeque<ByteBuffer>();
+			this.lastActivity = System.nanoTime();
+		}
+
+		/**
+		* The isEnding method determines whether the connection is closed once its output has been written.
+		* @return boolean - Whether the session has ended, or the input has ended.
+		*/
+		boolean isEnding() {
+			return (this.session.isFinished() || (this.inputEnded && !this.hasLine()));
+		}
+
+		/**
+		* The hasLine method determines whether the input holds a line that hasn't been given to the session.
+		* @return boolean - Whether there is a complete line (or the last line once the input has ended).
+		*/
+		boolean hasLine() {
+			if (this.session.isFinished() || (this.input.position() == 0)) {
+				return false;
+			}
+			for (int i = 0; i < this.input.position(); i++) {
+				if (this.input.get(i) == '\n') {
+					return true;
+				}
+			}
+			return this.inputEnded;
+		}
+
+		/**
+		* The consume method gives each complete line of the input to the session (without its line terminator), until the
+		* session ends or too much output is waiting. Once the input has ended, the last line doesn't need a terminator.
+		* If a line (whether it is complete or not) is longer than the maximum length, then an error message is written and
+		* the session is ended.
+		*/
+		void consume() {
+			ByteBuffer input = this.input;
+			input.flip();
+			while (!this.session.isFinished() && (this.pendingOutput <= MAXIMUM_PENDING_OUTPUT)) {
+				int start = input.position();
+				int end = start;
+				while ((end < input.limit()) && (input.get(end) != '\n')) {
+					end++;
+				}
+				int length = end - start;
+				if ((length > 0) && (input.get(start + length - 1) == '\r')) {
+					length--;
+				}
+				if (length > MAXIMUM_LINE_LENGTH) {
+					this.queueOutput(String.format(ERROR_LINE_LENGTH, MAXIMUM_LINE_LENGTH) + System.lineSeparator());
+					input.clear();
+					this.inputEnded = true;
+					return;
+				}
+				if ((end == input.limit()) && (!this.inputEnded || (end == start))) {
+					break;
+				}
+				input.position(Math.min(end + 1, input.limit()));
+				this.session.accept(new String(input.array(), start, length, CHARSET));
+				this.queueOutput();
+			}
+			input.compact();
+		}
+
+		/**
+		* The queueOutput method moves the session's output (since it was last queued) to the waiting output.
+		*/
+		void queueOutput() {
+			StringBuilder text = this.session.getOutput();
+			if (text.length() > 0) {
+				this.queueOutput(text.toString());
+				text.setLength(0);
+			}
+		}
+
+		private void queueOutput(String text) {
+			byte[] bytes = text.getBytes(CHARSET);
+			this.output.add(ByteBuffer.wrap(bytes));
+			this.pendingOutput += bytes.length;
+		}
+
+		/**
+		* The write method writes as much of the waiting output as the connection accepts without blocking.
+		* @throws IOException - If the connection has failed.
+		*/
+		void write() throws IOException {
+			ByteBuffer buffer;
+			while ((buffer = this.output.peek()) != null) {
+				int count = this.channel.write(buffer);
+				this.pendingOutput -= count;
+				if (count > 0) {
+					this.lastActivity = System.nanoTime();
+				}
+				if (buffer.hasRemaining()) {
+					return;
+				}
+				this.output.poll();
+			}
+		}
+	}
+
+	/**
+	* The static runSession method runs a session of the calculator over the received streams (using the CalculatorInterface),
+	* until the user exits or the input ends. The output is written after each line of input.
+	* @param input InputStream - The stream that the user's input is read from.
+	* @param output OutputStream - The stream that the prompts and results are written to.
+	*/
+	public static void runSession(InputStream input, OutputStream output) {
+		PrintStream printer = new PrintStream(output, false, CHARSET);
+		try {
+			new CalculatorInterface(input, printer).run();
+		} finally {
+			printer.flush();
+		}
+	}
+
+	/**
+	* The static reject method tells the connection that the server is busy, and closes it. The message is small enough to fit
+	* within the connection's send buffer, so it is written without waiting.
+	* @param channel SocketChannel - The connection.
+	*/
+	private static void reject(SocketChannel channel) {
+		try {
+			channel.configureBlocking(false);
+			channel.write(ByteBuffer.wrap((ERROR_BUSY + System.lineSeparator()).getBytes(CHARSET)));
+		} catch (IOException ex) {
+			// The connection has already failed, so it is just closed.
+		} finally {
+			close(channel);
+		}
+	}
+
+	/**
+	* The static close method closes a channel (or selector), ignoring any failure.
+	* @param closeable AutoCloseable - The channel.
+	*/
+	private static void close(AutoCloseable closeable) {
+		try {
+			closeable.close();
+		} catch (Exception ex) {
+			// The channel is already unusable.
+		}
+	}
+
+	/**
+	* The main method starts the server on the port received as the first argument (or the default port), with the maximum
+	* amount of sessions received as the second argument, and runs the sessions until the JVM is stopped.
+	* @param args String[] - The optional port and maximum amount of sessions.
+	* @throws IOException - If the server can't be bound to the port.
+	*/
+	public static void main(String[] args) throws IOException {
+		int port = ((args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+		int maximumSessions = ((args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_SESSIONS);
+		SessionServer server = new SessionServer(port, maximumSessions);
+		System.out.println(String.format(STARTED, server.getPort(), maximumSessions));
+		server.run();
+	}
+}
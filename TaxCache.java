@@ -0,0 +1,194 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is a bounded cache of tax results (the income tax, medicare levy and net salary), for payrolls where many
+ *  employees are paid the same standard salaries. The results are keyed by the gross salary and the TaxTable they were
+ *  calculated with (which is specific to the financial year and residency), so a table that is replaced by registering a
+ *  new one is never given an old result. Once the cache is full, the least recently used result is evicted. The amount of
+ *  hits, misses and evictions are counted, so the effectiveness of the cache can be monitored.
+ *  The Client class consults the shared cache (if one has been set with the setShared method) when it calculates the tax.
+ *  The methods are thread-safe.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TaxCache {
+
+	// The default amount of results kept by the cache.
+	public static final int DEFAULT_CAPACITY = 1024;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	// The following constant is used for the error message.
+	private static final String ERROR_CAPACITY = "Error: The capacity %d must be greater than zero.";
+
+	// The cache used by the Client class, or null if the Client class doesn't use a cache.
+	private static volatile TaxCache shared;
+
+	// Instance attributes.
+	private final int capacity;
+	private final Map<Key, TaxResult> results;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder evictions;
+
+	/**
+	* The Key class is the key of a result (the table, and the exact bits of the gross salary).
+	*/
+	private static final class Key {
+		private final TaxTable table;
+		private final long grossSalary;
+
+		Key(TaxTable table, double grossSalary) {
+			this.table = table;
+			this.grossSalary = Double.doubleToLongBits(grossSalary);
+		}
+
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key key = (Key)object;
+			return ((this.table == key.table) && (this.grossSalary == key.grossSalary));
+		}
+
+		public int hashCode() {
+			return ((31 * System.identityHashCode(this.table)) + Long.hashCode(this.grossSalary));
+		}
+	}
+
+	/**
+	* The constructor creates an empty cache.
+	* @param capacity int - The maximum amount of results kept by the cache.
+	* @throws IllegalArgumentException - If the capacity isn't greater than zero.
+	*/
+	public TaxCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(String.format(ERROR_CAPACITY, capacity));
+		}
+		this.capacity = capacity;
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+		this.evictions = new LongAdder();
+		// The map is kept in access order, so the eldest entry is the least recently used result.
+		this.results = new LinkedHashMap<Key, TaxResult>((int)(capacity / LOAD_FACTOR) + 1, LOAD_FACTOR, true) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<Key, TaxResult> eldest) {
+				if (this.size() > TaxCache.this.capacity) {
+					TaxCache.this.evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	* The static getShared method retrieves the cache used by the Client class.
+	* @return TaxCache - The shared cache, or null if there isn't one.
+	*/
+	public static TaxCache getShared() {
+		return shared;
+	}
+
+	/**
+	* The static setShared method sets the cache used by the Client class.
+	* @param cache TaxCache - The cache, or null for the Client class to calculate every result.
+	*/
+	public static void setShared(TaxCache cache) {
+		shared = cache;
+	}
+
+	/**
+	* The get method retrieves the result for the gross salary from the cache, or calculates it (and adds it to the cache)
+	* if the cache doesn't contain it.
+	* @param table TaxTable - The tax table of the financial year and residency.
+	* @param grossSalary double - The gross salary.
+	* @return TaxResult - The result.
+	*/
+	public TaxResult get(TaxTable table, double grossSalary) {
+		Key key = new Key(table, grossSalary);
+		TaxResult result;
+		synchronized (this.results) {
+			result = this.results.get(key);
+		}
+		if (result != null) {
+			this.hits.increment();
+			return result;
+		}
+		this.misses.increment();
+		// The result is calculated outside of the lock. If another thread calculates the same result at the same time, the
+		// results are identical, so it doesn't matter which one is kept.
+		result = TaxResult.calculate(table, grossSalary);
+		synchronized (this.results) {
+			this.results.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	* The get method retrieves the result for the gross salary, residency and financial year.
+	* @param taxYear String - The financial year.
+	* @param resident boolean - Whether the employee is a resident or not.
+	* @param grossSalary double - The gross salary.
+	* @return TaxResult - The result.
+	* @throws IllegalArgumentException - If a table hasn't been registered for the year and residency.
+	*/
+	public TaxResult get(String taxYear, boolean resident, double grossSalary) {
+		return this.get(TaxTable.getTable(taxYear, resident), grossSalary);
+	}
+
+	/**
+	* The clear method removes every result. The counters aren't reset.
+	*/
+	public void clear() {
+		synchronized (this.results) {
+			this.results.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.results) {
+			return this.results.size();
+		}
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	/**
+	* The getHitRate method retrieves the proportion of lookups that were found in the cache.
+	* @return double - The hit rate (between 0 and 1), or zero if there haven't been any lookups.
+	*/
+	public double getHitRate() {
+		long hits = this.getHits();
+		long total = hits + this.getMisses();
+		return ((total > 0) ? ((double)hits / total) : 0);
+	}
+
+	/**
+	* The toString method is overridden from the super Object, and displays the counters of the cache.
+	* @return String - A text version of the counters.
+	*/
+	public String toString() {
+		return String.format("TaxCache[size=%d, capacity=%d, hits=%d, misses=%d, evictions=%d]",
+			this.size(), this.capacity, this.getHits(), this.getMisses(), this.getEvictions());
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to store the result of a tax calculation (the gross salary, residency, income tax, medicare levy,
+ *  and net salary). Unlike the Client class, the attributes can't be changed once the object has been created, so the
+ *  same result can be safely shared between threads. The results are calculated with the same TaxTable brackets as the
+ *  Client class, and are therefore identical to the Client's calcTax, calcMedicare and calcNetSalary methods.
+ */
+
+public class TaxResult {
+
+	// Some miscellaneous constants.
+	private static final int WEEKS_PER_YEAR = 52;
+
+	// Instance attributes.
+	private final double grossSalary;
+	private final boolean resident;
+	private final String taxYear;
+	private final double tax;
+	private final double medicare;
+	private final double netSalary;
+
+	/**
+	* The constructor receives the values of the result. The calculate methods should be used to create a result from the gross salary.
+	* @param grossSalary double - The gross salary.
+	* @param resident boolean - Whether the employee is a resident or not.
+	* @param taxYear String - The financial year of the tax table.
+	* @param tax double - The income tax.
+	* @param medicare double - The medicare levy.
+	* @param netSalary double - The net salary.
+	*/
+	public TaxResult(double grossSalary, boolean resident, String taxYear, double tax, double medicare, double netSalary) {
+		this.grossSalary = grossSalary;
+		this.resident = resident;
+		this.taxYear = taxYear;
+		this.tax = tax;
+		this.medicare = medicare;
+		this.netSalary = netSalary;
+	}
+
+	/**
+	* The calculate method calculates the result for the gross salary and residency, using the default financial year.
+	* @param grossSalary double - The gross salary.
+	* @param resident boolean - Whether the employee is a resident or not.
+	* @return TaxResult - The calculated result.
+	*/
+	public static TaxResult calculate(double grossSalary, boolean resident) {
+		return calculate(TaxTable.getTable(resident), grossSalary);
+	}
+
+	/**
+	* The calculate method calculates the result for the gross salary, using the received tax table.
+	* @param table TaxTable - The tax table of the financial year and residency.
+	* @param grossSalary double - The gross salary.
+	* @return TaxResult - The calculated result.
+	*/
+	public static TaxResult calculate(TaxTable table, double grossSalary) {
+		double tax = table.calcTax(grossSalary);
+		double medicare = table.calcMedicare(grossSalary);
+		return new TaxResult(grossSalary, table.getResident(), table.getYear(), tax, medicare,
+			Client.calcNetSalary(grossSalary, tax, medicare));
+	}
+
+	public double getGrossSalary() {
+		return this.grossSalary;
+	}
+
+	public boolean getResident() {
+		return this.resident;
+	}
+
+	public String getTaxYear() {
+		return this.taxYear;
+	}
+
+	public double getTax() {
+		return this.tax;
+	}
+
+	public double getMedicare() {
+		return this.medicare;
+	}
+
+	public double getNetSalary() {
+		return this.netSalary;
+	}
+
+	/**
+	* The getWeeklyNetSalary method retrieves the net salary for each week, rounded to two decimal places.
+	* @return double - The weekly net salary.
+	*/
+	public double getWeeklyNetSalary() {
+		return Money.round(this.getNetSalary() / WEEKS_PER_YEAR);
+	}
+
+	/**
+	* The getWeeklyTax method retrieves the tax paid each week, rounded to two decimal places.
+	* @return double - The weekly tax.
+	*/
+	public double getWeeklyTax() {
+		return Money.round(this.getTax() / WEEKS_PER_YEAR);
+	}
+
+	/**
+	* The equals method is overridden from the super Object. Two results are equal if all of their attributes are equal.
+	* @param object Object - The object to compare with.
+	* @return boolean - Whether the objects are equal.
+	*/
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof TaxResult)) {
+			return false;
+		}
+		TaxResult other = (TaxResult)object;
+		return ((Double.compare(this.grossSalary, other.grossSalary) == 0) && (this.resident == other.resident)
+			&& this.taxYear.equals(other.taxYear) && (Double.compare(this.tax, other.tax) == 0)
+			&& (Double.compare(this.medicare, other.medicare) == 0) && (Double.compare(this.netSalary, other.netSalary) == 0));
+	}
+
+	/**
+	* The hashCode method is overridden from the super Object, and is consistent with the equals method.
+	* @return int - The hash code.
+	*/
+	public int hashCode() {
+		int hash = Double.hashCode(this.grossSalary);
+		hash = (31 * hash) + Boolean.hashCode(this.resident);
+		hash = (31 * hash) + this.taxYear.hashCode();
+		hash = (31 * hash) + Double.hashCode(this.tax);
+		hash = (31 * hash) + Double.hashCode(this.medicare);
+		return ((31 * hash) + Double.hashCode(this.netSalary));
+	}
+
+	/**
+	* The toString method is overridden from the super Object, and returns the attribute data.
+	* @return String - A text version containing the attribute data.
+	*/
+	public String toString() {
+		return "TaxResult[grossSalary=" + this.grossSalary + ", resident=" + this.resident + ", taxYear=" + this.taxYear
+			+ ", tax=" + this.tax + ", medicare=" + this.medicare + ", netSalary=" + this.netSalary + "]";
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ *  Author: Lance Baker
+ *  Student No: 3128034
+ *  Date: 25-04-2011
+ *  Description:
+ *  The class is used to store the tax brackets (and the medicare levy) for one residency status within a financial year.
+ *  Each bracket is stored as three parallel arrays (the threshold, the base tax, and the marginal rate), which replaces
+ *  the nested conditions that were previously used by the Client class. The bracket is found by counting the thresholds
+ *  that the income exceeds, and the tax is then calculated using a single multiply and add. The tables are registered
+ *  by financial year, and additional years can be loaded from a properties file without requiring a code change.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TaxTable {
+
+	// The financial year used when a year hasn't been specified.
+	public static final String DEFAULT_YEAR = "2010-11";
+
+	// The following constants are the property keys used by the load method.
+	private static final String PROPERTY_YEAR = "year";
+	private static final String PROPERTY_RESIDENT = "resident";
+	private static final String PROPERTY_BRACKETS = "brackets";
+	private static final String PROPERTY_MEDICARE_THRESHOLD = "medicare.threshold";
+	private static final String PROPERTY_MEDICARE_RATE = "medicare.rate";
+	private static final String BRACKET_SEPARATOR = ",";
+	private static final String VALUE_SEPARATOR = ":";
+
+	// The following constants are used for the error messages.
+	private static final String ERROR_NO_TABLE = "Error: There isn't a %s tax table for the %s financial year.";
+	private static final String ERROR_BRACKETS = "Error: A tax table requires at least one bracket, starting from zero, in ascending order.";
+	private static final String ERROR_MISSING_PROPERTY = "Error: The tax table is missing the \"%s\" property.";
+	private static final String ERROR_BRACKET_FORMAT = "Error: The bracket \"%s\" must be in the format threshold:tax:rate.";
+	private static final String LABEL_RESIDENT = "resident";
+	private static final String LABEL_NONRESIDENT = "nonresident";
+
+	// The registered tables, keyed by the financial year. Each entry holds the nonresident table at index 0, and the resident table at index 1.
+	private static final Map<String, TaxTable[]> TABLES = new ConcurrentHashMap<String, TaxTable[]>();
+
+	// The built-in tables are registered for the default year (and can be replaced by registering or loading another table).
+	static {
+		// The 2010-11 resident tax table. Nil up to $6,000, 15c for each $1 over $6,000, $4,650 plus 30c for each $1 over $37,000,
+		// $17,550 plus 37c for each $1 over $80,000, and $54,550 plus 45c for each $1 over $180,000. The medicare levy is 1.5% from $20,000.
+		register(new TaxTable(DEFAULT_YEAR, true,
+			new double[] {0, 6000, 37000, 80000, 180000},
+			new double[] {0, 0, 4650, 17550, 54550},
+			new double[] {0, 0.15, 0.30, 0.37, 0.45},
+			20000, 0.015));
+		// The 2010-11 nonresident tax table. 29c for each $1 up to $37,000, $10,730 plus 30c for each $1 over $37,000,
+		// $23,630 plus 37c for each $1 over $80,000, and $60,630 plus 45c for each $1 over $180,000. There isn't a medicare levy.
+		register(new TaxTable(DEFAULT_YEAR, false,
+			new double[] {0, 37000, 80000, 180000},
+			new double[] {0, 10730, 23630, 60630},
+			new double[] {0.29, 0.30, 0.37, 0.45},
+			Double.POSITIVE_INFINITY, 0));
+	}
+
+	// Instance attributes.
+	private final String year;
+	private final boolean resident;
+	private final double[] thresholds;
+	private final double[] taxes;
+	private final double[] rates;
+	private final double medicareThreshold;
+	private final double medicareRate;
+
+	/**
+	* The constructor receives the brackets as three parallel arrays, in which the same index refers to the same bracket. The first
+	* threshold must be zero, and the thresholds must be in ascending order. The arrays are copied, so the table can't be modified afterwards.
+	* @param year String - The financial year (such as 2010-11).
+	* @param resident boolean - Whether the table applies to residents or nonresidents.
+	* @param thresholds double[] - The last amount of the previous bracket (the tax is charged on each $1 over the threshold).
+	* @param taxes double[] - The base tax amount for each bracket.
+	* @param rates double[] - The tax rate for each $1 over the threshold.
+	* @param medicareThreshold double - The income at which the medicare levy starts to apply.
+	* @param medicareRate double - The medicare levy rate.
+	* @throws IllegalArgumentException - If the brackets are invalid.
+	*/
+	public TaxTable(String year, boolean resident, double[] thresholds, double[] taxes, double[] rates,
+			double medicareThreshold, double medicareRate) {
+		if ((thresholds.length == 0) || (thresholds.length != taxes.length) || (thresholds.length != rates.length) || (thresholds[0] != 0)) {
+			throw new IllegalArgumentException(ERROR_BRACKETS);
+		}
+		for (int i = 1; i < thresholds.length; i++) {
+			if (!(thresholds[i] > thresholds[i - 1])) {
+				throw new IllegalArgumentException(ERROR_BRACKETS);
+			}
+		}
+		this.year = year;
+		this.resident = resident;
+		this.thresholds = thresholds.clone();
+		this.taxes = taxes.clone();
+		this.rates = rates.clone();
+		this.medicareThreshold = medicareThreshold;
+		this.medicareRate = medicareRate;
+	}
+
+	public String getYear() {
+		return this.year;
+	}
+
+	public boolean getResident() {
+		return this.resident;
+	}
+
+	public int getNumberOfBrackets() {
+		return this.thresholds.length;
+	}
+
+	public double getThreshold(int bracket) {
+		return this.thresholds[bracket];
+	}
+
+	public double getTax(int bracket) {
+		return this.taxes[bracket];
+	}
+
+	public double getRate(int bracket) {
+		return this.rates[bracket];
+	}
+
+	public double getMedicareThreshold() {
+		return this.medicareThreshold;
+	}
+
+	public double getMedicareRate() {
+		return this.medicareRate;
+	}
+
+	/**
+	* The findBracket method determines which bracket the income falls into. Rather than a chain of conditions, it counts
+	* the number of thresholds that the income is over. The comparison result is added on every iteration, so there aren't
+	* any branches that depend on the income (which the processor would otherwise have to predict).
+	* @param grossSalary double - The gross salary.
+	* @return int - The index of the bracket.
+	*/
+	public int findBracket(double grossSalary) {
+		int bracket = 0;
+		for (int i = 1; i < this.thresholds.length; i++) {
+			bracket += ((grossSalary > this.thresholds[i]) ? 1 : 0);
+		}
+		return bracket;
+	}
+
+	/**
+	* The calcTax method calculates the income tax for the received gross salary. The amount over the threshold of the bracket
+	* is multiplied by the rate, and the base tax is then added. It is deliberately a separate multiply and add (rather than
+	* Math.fma) so the result is rounded exactly the same as the previous calculation.
+	* @param grossSalary double - The gross salary.
+	* @return double - The income tax.
+	*/
+	public double calcTax(double grossSalary) {
+		int bracket = this.findBracket(grossSalary);
+		return (((grossSalary - this.thresholds[bracket]) * this.rates[bracket]) + this.taxes[bracket]);
+	}
+
+	/**
+	* The calcMedicare method calculates the medicare levy for the received gross salary. If the income is greater than
+	* or equal to the threshold, then the levy is the gross salary multiplied by the medicare rate.
+	* @param grossSalary double - The gross salary.
+	* @return double - The medicare levy.
+	*/
+	public double calcMedicare(double grossSalary) {
+		return ((grossSalary >= this.medicareThreshold) ? (grossSalary * this.medicareRate) : 0);
+	}
+
+	/**
+	* The register method adds the table to the registered tables, replacing any existing table for the same year and residency.
+	* @param table TaxTable - The table to be registered.
+	* @return TaxTable - The registered table.
+	*/
+	public static TaxTable register(TaxTable table) {
+		// A new array replaces the year's entry (rather than changing the stored array), so other threads only see complete entries.
+		TABLES.compute(table.getYear(), (year, existing) -> {
+			TaxTable[] tables = ((existing != null) ? existing.clone() : new TaxTable[2]);
+			tables[(table.getResident()) ? 1 : 0] = table;
+			return tables;
+		});
+		return table;
+	}
+
+	/**
+	* The getTable method retrieves the default year's registered table for the received residency, which is the built-in table
+	* unless another table has been registered (or loaded) for the default year.
+	* @param resident boolean - Whether the resident or nonresident table is required.
+	* @return TaxTable - The table.
+	*/
+	public static TaxTable getTable(boolean resident) {
+		return getTable(DEFAULT_YEAR, resident);
+	}
+
+	/**
+	* The getTable method retrieves the registered table for the received financial year and residency.
+	* @param year String - The financial year.
+	* @param resident boolean - Whether the resident or nonresident table is required.
+	* @return TaxTable - The table.
+	* @throws IllegalArgumentException - If a table hasn't been registered for the year and residency.
+	*/
+	public static TaxTable getTable(String year, boolean resident) {
+		TaxTable[] tables = TABLES.get(year);
+		TaxTable table = ((tables != null) ? tables[(resident) ? 1 : 0] : null);
+		if (table == null) {
+			throw new IllegalArgumentException(String.format(ERROR_NO_TABLE, (resident) ? LABEL_RESIDENT : LABEL_NONRESIDENT, year));
+		}
+		return table;
+	}
+
+	/**
+	* The load method reads a table from a properties file, and registers it. The file requires the year, resident, and brackets
+	* properties (with each bracket being written as threshold:tax:rate and separated by commas). The medicare properties are
+	* optional, and when they are absent there won't be a medicare levy. For example:
+	* <pre>
+	* year=2011-12
+	* resident=true
+	* brackets=0:0:0, 6000:0:0.15, 37000:4650:0.30, 80000:17550:0.37, 180000:54550:0.45
+	* medicare.threshold=20000
+	* medicare.rate=0.015
+	* </pre>
+	* @param input InputStream - The stream containing the properties.
+	* @return TaxTable - The loaded table.
+	* @throws IOException - If the stream couldn't be read.
+	* @throws IllegalArgumentException - If a property is missing or incorrectly formatted.
+	*/
+	public static TaxTable load(InputStream input) throws IOException {
+		Properties properties = new Properties();
+		properties.load(input);
+		String[] brackets = getProperty(properties, PROPERTY_BRACKETS).split(BRACKET_SEPARATOR);
+		double[] thresholds = new double[brackets.length];
+		double[] taxes = new double[brackets.length];
+		double[] rates = new double[brackets.length];
+		// Iterates for each bracket, separating it into the threshold, tax, and rate.
+		for (int i = 0; i < brackets.length; i++) {
+			String[] values = brackets[i].trim().split(VALUE_SEPARATOR);
+			if (values.length != 3) {
+				throw new IllegalArgumentException(String.format(ERROR_BRACKET_FORMAT, brackets[i].trim()));
+			}
+			thresholds[i] = Double.parseDouble(values[0].trim());
+			taxes[i] = Double.parseDouble(values[1].trim());
+			rates[i] = Double.parseDouble(values[2].trim());
+		}
+		String medicareThreshold = properties.getProperty(PROPERTY_MEDICARE_THRESHOLD);
+		String medicareRate = properties.getProperty(PROPERTY_MEDICARE_RATE);
+		return register(new TaxTable(getProperty(properties, PROPERTY_YEAR),
+			Boolean.parseBoolean(getProperty(properties, PROPERTY_RESIDENT)), thresholds, taxes, rates,
+			((medicareThreshold != null) ? Double.parseDouble(medicareThreshold.trim()) : Double.POSITIVE_INFINITY),
+			((medicareRate != null) ? Double.parseDouble(medicareRate.trim()) : 0)));
+	}
+
+	/**
+	* The getProperty method retrieves a required property.
+	* @param properties Properties - The loaded properties.
+	* @param key String - The property key.
+	* @return String - The trimmed property value.
+	* @throws IllegalArgumentException - If the property doesn't exist.
+	*/
+	private static String getProperty(Properties properties, String key) {
+		String value = properties.getProperty(key);
+		if (value == null) {
+			throw new IllegalArgumentException(String.format(ERROR_MISSING_PROPERTY, key));
+		}
+		return value.trim();
+	}
+
+	/**
+	* The toString method is overridden from the super Object, and returns the year, residency and brackets of the table.
+	* @return String - A text version containing the attribute data.
+	*/
+	public String toString() {
+		return this.getYear() + " " + ((this.getResident()) ? LABEL_RESIDENT : LABEL_NONRESIDENT) + " "
+			+ Arrays.toString(this.thresholds) + " " + Arrays.toString(this.taxes) + " " + Arrays.toString(this.rates);
+	}
+}